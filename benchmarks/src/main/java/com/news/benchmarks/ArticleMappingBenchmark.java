@@ -0,0 +1,51 @@
+package com.news.benchmarks;
+
+import com.news.model.NewsArticle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Firestore document mapping of a single article, done for every document read or written
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArticleMappingBenchmark {
+
+    @Param({BenchmarkData.ENGLISH, BenchmarkData.ARABIC})
+    public String language;
+
+    private NewsArticle article;
+    private Map<String, Object> document;
+
+    @Setup
+    public void setUp() {
+        article = BenchmarkData.articles(language, 1).get(0);
+        document = BenchmarkData.document(article);
+    }
+
+    @Benchmark
+    public NewsArticle fromMap() {
+        return NewsArticle.fromMap(article.getId(), document);
+    }
+
+    @Benchmark
+    public Map<String, Object> toMap() {
+        return article.toMap();
+    }
+}
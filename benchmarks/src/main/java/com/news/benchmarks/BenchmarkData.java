@@ -0,0 +1,98 @@
+package com.news.benchmarks;
+
+import com.google.cloud.Timestamp;
+import com.news.model.NewsArticle;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic English and Arabic article data sets shared by the benchmarks
+ */
+final class BenchmarkData {
+
+    static final String ENGLISH = "english";
+    static final String ARABIC = "arabic";
+
+    private static final String[] ENGLISH_WORDS = {
+            "election", "results", "football", "final", "economy", "market", "weather", "storm",
+            "minister", "announces", "new", "law", "health", "hospital", "school", "students",
+            "technology", "startup", "festival", "culture", "border", "agreement", "energy", "prices"
+    };
+    private static final String[] ARABIC_WORDS = {
+            "الانتخابات", "نتائج", "كرة", "القدم", "المباراة", "النهائية", "الاقتصاد", "السوق",
+            "الطقس", "عاصفة", "الوزير", "يعلن", "قانون", "جديد", "الصحة", "مستشفى",
+            "المدرسة", "الطلاب", "التكنولوجيا", "مهرجان", "الثقافة", "الحدود", "اتفاقية", "الطاقة"
+    };
+    private static final String[] CATEGORIES = {"politics", "sports", "economy", "culture", "technology"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Articles whose text is in the given language, the same for every run
+     */
+    static List<NewsArticle> articles(String language, int count) {
+        Random random = new Random(42);
+        List<NewsArticle> articles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            articles.add(article(language, i, random));
+        }
+        return articles;
+    }
+
+    /**
+     * Firestore document data of an article, as read from a snapshot
+     */
+    static Map<String, Object> document(NewsArticle article) {
+        Map<String, Object> data = new HashMap<>(article.toMap());
+        data.put("updatedAt", Timestamp.ofTimeSecondsAndNanos(1_750_000_000L, 0));
+        return data;
+    }
+
+    /**
+     * A search term that matches some of the articles of the given language
+     */
+    static String term(String language) {
+        return ARABIC.equals(language) ? "الانتخاب" : "election";
+    }
+
+    private static NewsArticle article(String language, int index, Random random) {
+        boolean arabic = ARABIC.equals(language);
+        String[] words = arabic ? ARABIC_WORDS : ENGLISH_WORDS;
+        NewsArticle article = new NewsArticle();
+        article.setId(String.format("article-%06d", index));
+        String title = sentence(words, 8, random);
+        String description = sentence(words, 60, random);
+        if (arabic) {
+            article.setTitleArabic(title);
+            article.setDescriptionArabic(description);
+        } else {
+            article.setTitleEnglish(title);
+            article.setDescriptionEnglish(description);
+        }
+        article.setImage("https://res.cloudinary.com/demo/image/upload/v1700000000/news/"
+                + Integer.toHexString(random.nextInt()) + ".jpg");
+        article.setDate(String.format("2025-%02d-%02d", 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        article.setPublishedAt(article.resolvePublishedAt());
+        article.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        article.setIsArabic(arabic);
+        article.setIsEnglish(!arabic);
+        article.setIsFeatured(random.nextInt(10) == 0);
+        return article;
+    }
+
+    private static String sentence(String[] words, int length, Random random) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(words[random.nextInt(words.length)]);
+        }
+        return sentence.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.news.benchmarks;
+
+import com.news.service.CloudinaryImageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public ID extraction from Cloudinary URLs ({@code assetId}, which wraps the private
+ * extractPublicId), run for every image released or reconciled
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageUrlBenchmark {
+
+    @Param({
+            "https://res.cloudinary.com/demo/image/upload/v1700000000/news/3f2a9c1e5b7d4f60a8e2c9b1d3f5a7c9e1b3d5f7a9c1e3b5d7f9a1c3e5b7d9f1.jpg",
+            "https://res.cloudinary.com/demo/image/upload/c_fill,w_800/v1700000000/news/%D8%A7%D9%84%D8%A7%D9%86%D8%AA%D8%AE%D8%A7%D8%A8%D8%A7%D8%AA.png",
+            "https://example.com/images/election.jpg"
+    })
+    public String url;
+
+    private CloudinaryImageService service;
+
+    @Setup
+    public void setUp() {
+        // Only the URL parsing is measured, which needs none of the collaborators
+        service = new CloudinaryImageService(null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public String assetId() {
+        return service.assetId(url);
+    }
+}
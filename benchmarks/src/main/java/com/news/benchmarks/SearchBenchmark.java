@@ -0,0 +1,57 @@
+package com.news.benchmarks;
+
+import com.news.service.NewsSearchIndex;
+import com.news.util.NewsMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The search behind both listing controllers: the six-field (titles, descriptions, category,
+ * date) partial match, answered from the in-memory trigram index
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({BenchmarkData.ENGLISH, BenchmarkData.ARABIC})
+    public String language;
+
+    @Param({"1000", "10000"})
+    public int articles;
+
+    private NewsSearchIndex index;
+    private String term;
+
+    @Setup
+    public void setUp() {
+        index = new NewsSearchIndex(null, new NewsMetrics(new SimpleMeterRegistry()));
+        index.loadFrom(BenchmarkData.articles(language, articles));
+        term = BenchmarkData.term(language);
+    }
+
+    @Benchmark
+    public NewsSearchIndex.SearchResult searchAllCategories() {
+        return index.search("all", term, 0, 10);
+    }
+
+    @Benchmark
+    public NewsSearchIndex.SearchResult searchOneCategory() {
+        return index.search("politics", term, 0, 10);
+    }
+}
@@ -0,0 +1,75 @@
+package com.news.loadtest;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generated English and Arabic articles and search terms
+ */
+final class ArticleData {
+
+    static final String[] CATEGORIES = {"politics", "sports", "economy", "culture", "technology"};
+
+    private static final String[] ENGLISH_WORDS = {
+            "election", "results", "football", "final", "economy", "market", "weather", "storm",
+            "minister", "announces", "new", "law", "health", "hospital", "school", "students",
+            "technology", "startup", "festival", "culture", "border", "agreement", "energy", "prices"
+    };
+    private static final String[] ARABIC_WORDS = {
+            "الانتخابات", "نتائج", "كرة", "القدم", "المباراة", "النهائية", "الاقتصاد", "السوق",
+            "الطقس", "عاصفة", "الوزير", "يعلن", "قانون", "جديد", "الصحة", "مستشفى",
+            "المدرسة", "الطلاب", "التكنولوجيا", "مهرجان", "الثقافة", "الحدود", "اتفاقية", "الطاقة"
+    };
+
+    private ArticleData() {
+    }
+
+    /**
+     * A new article as posted by the admin UI: both languages, a category and a date in the last year
+     */
+    static Map<String, Object> article(Random random) {
+        Map<String, Object> article = new HashMap<>();
+        article.put("titleEnglish", sentence(ENGLISH_WORDS, 8, random));
+        article.put("titleArabic", sentence(ARABIC_WORDS, 8, random));
+        article.put("descriptionEnglish", sentence(ENGLISH_WORDS, 60, random));
+        article.put("descriptionArabic", sentence(ARABIC_WORDS, 60, random));
+        article.put("category", CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        article.put("date", LocalDate.now().minusDays(random.nextInt(365)).toString());
+        article.put("isEnglish", true);
+        article.put("isArabic", true);
+        article.put("isFeatured", random.nextInt(10) == 0);
+        return article;
+    }
+
+    /**
+     * Fields changed by an edit
+     */
+    static Map<String, Object> edit(Random random) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("titleEnglish", sentence(ENGLISH_WORDS, 8, random));
+        fields.put("titleArabic", sentence(ARABIC_WORDS, 8, random));
+        return fields;
+    }
+
+    /**
+     * A search term, English or Arabic, usually a word prefix
+     */
+    static String searchTerm(Random random) {
+        String[] words = random.nextBoolean() ? ENGLISH_WORDS : ARABIC_WORDS;
+        String word = words[random.nextInt(words.length)];
+        return random.nextInt(4) == 0 ? word : word.substring(0, Math.max(3, word.length() - 2));
+    }
+
+    private static String sentence(String[] words, int length, Random random) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(words[random.nextInt(words.length)]);
+        }
+        return sentence.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package com.news.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Latencies and errors of one operation, recorded by a single worker without locking and
+ * merged after the run
+ */
+final class Latencies {
+
+    private long[] nanos = new long[1024];
+    private int count;
+    private long errors;
+
+    void record(long latencyNanos) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = latencyNanos;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    /**
+     * Summary of the merged recordings
+     * @param recorded Every worker's recording of the operation
+     * @param seconds Length of the measured run
+     */
+    static Summary summarize(List<Latencies> recorded, double seconds) {
+        int total = recorded.stream().mapToInt(latencies -> latencies.count).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        long errors = 0;
+        for (Latencies latencies : recorded) {
+            System.arraycopy(latencies.nanos, 0, all, offset, latencies.count);
+            offset += latencies.count;
+            errors += latencies.errors;
+        }
+        Arrays.sort(all);
+        return new Summary(total, errors, total / seconds,
+                percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99), total > 0 ? all[total - 1] : 0);
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values
+     */
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Throughput and latency percentiles of an operation; latencies of successful requests only
+     */
+    static final class Summary {
+        final long requests;
+        final long errors;
+        final double throughput;
+        final long p50Nanos;
+        final long p90Nanos;
+        final long p99Nanos;
+        final long maxNanos;
+
+        Summary(long requests, long errors, double throughput, long p50Nanos, long p90Nanos, long p99Nanos,
+                long maxNanos) {
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.news.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop HTTP load test of a running news service. Seeds articles through the admin
+ * API, warms up, then runs a fixed number of workers for a fixed time, each sending the next
+ * request of the mix as soon as the previous one completes. Reports throughput and p50, p90,
+ * p99 and max latency per operation.
+ *
+ * Options (all optional): --base-url, --username, --password, --concurrency, --warmup,
+ * --duration, --seed, --mix, --timeout and --out (JSON report file). Durations are e.g. "30s" or "2m".
+ */
+public final class LoadTest {
+
+    private final NewsApi api;
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int seed;
+    private final Mix mix;
+    private final List<String> ids = new ArrayList<>();
+    // Articles created during the run; write operations delete these rather than seeded ones
+    private final ConcurrentLinkedDeque<String> created = new ConcurrentLinkedDeque<>();
+
+    private LoadTest(NewsApi api, int concurrency, Duration warmup, Duration duration, int seed, Mix mix) {
+        this.api = api;
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.seed = seed;
+        this.mix = mix;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        NewsApi api = new NewsApi(options.getOrDefault("base-url", "http://localhost:8080"),
+                parseDuration(options.getOrDefault("timeout", "10s")));
+        LoadTest test = new LoadTest(api,
+                Integer.parseInt(options.getOrDefault("concurrency", "32")),
+                parseDuration(options.getOrDefault("warmup", "15s")),
+                parseDuration(options.getOrDefault("duration", "60s")),
+                Integer.parseInt(options.getOrDefault("seed", "1000")),
+                Mix.parse(options.getOrDefault("mix", "listing=55,search=20,by-id=20,write=5")));
+
+        api.login(options.getOrDefault("username", "admin"), options.getOrDefault("password", "admin"));
+        test.prepare();
+        System.out.printf("Warming up for %ds with %d workers, mix %s%n",
+                test.warmup.toSeconds(), test.concurrency, test.mix);
+        test.run(test.warmup);
+        System.out.printf("Measuring for %ds%n", test.duration.toSeconds());
+        Map<Operation, Latencies.Summary> results = test.run(test.duration);
+
+        printReport(results);
+        String out = options.get("out");
+        if (out != null) {
+            writeReport(results, test, new File(out));
+        }
+    }
+
+    /**
+     * Create the seed articles and collect the IDs that by-id requests and edits pick from
+     */
+    private void prepare() throws Exception {
+        if (seed > 0) {
+            System.out.printf("Seeding %d articles%n", seed);
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            try {
+                AtomicInteger remaining = new AtomicInteger(seed);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < concurrency; i++) {
+                    futures.add(executor.submit(() -> {
+                        while (remaining.getAndDecrement() > 0) {
+                            api.create(ArticleData.article(ThreadLocalRandom.current()));
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        ids.addAll(api.articleIds(Math.max(seed, 1000)));
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No articles to read; run with --seed greater than 0");
+        }
+    }
+
+    /**
+     * Run the workers for the given time
+     * @return Summaries of the operations that ran
+     */
+    private Map<Operation, Latencies.Summary> run(Duration length) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<Map<Operation, Latencies>>> workers = new ArrayList<>();
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + length.toNanos();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(executor.submit(() -> work(deadline)));
+        }
+        Map<Operation, List<Latencies>> recorded = new EnumMap<>(Operation.class);
+        for (Future<Map<Operation, Latencies>> worker : workers) {
+            worker.get().forEach((operation, latencies) ->
+                    recorded.computeIfAbsent(operation, o -> new ArrayList<>()).add(latencies));
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        Map<Operation, Latencies.Summary> results = new EnumMap<>(Operation.class);
+        recorded.forEach((operation, latencies) -> results.put(operation, Latencies.summarize(latencies, seconds)));
+        return results;
+    }
+
+    private Map<Operation, Latencies> work(long deadline) {
+        Random random = ThreadLocalRandom.current();
+        Map<Operation, Latencies> recorded = new EnumMap<>(Operation.class);
+        while (System.nanoTime() < deadline) {
+            Operation operation = mix.next(random);
+            Latencies latencies = recorded.computeIfAbsent(operation, o -> new Latencies());
+            long start = System.nanoTime();
+            try {
+                int status = send(operation, random);
+                if (status >= 400) {
+                    latencies.error();
+                } else {
+                    latencies.record(System.nanoTime() - start);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException e) {
+                latencies.error();
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * Send one request of the operation
+     * @return The response status
+     */
+    private int send(Operation operation, Random random) throws IOException, InterruptedException {
+        switch (operation) {
+            case LISTING: {
+                // Mostly first pages, as readers see them; some deeper and date-sorted ones
+                String category = random.nextInt(3) == 0
+                        ? "all" : ArticleData.CATEGORIES[random.nextInt(ArticleData.CATEGORIES.length)];
+                int page = random.nextInt(10) < 7 ? 0 : 1 + random.nextInt(4);
+                return api.list(category, page, random.nextBoolean() ? 10 : 20, random.nextInt(4) == 0 ? "date_desc" : null);
+            }
+            case SEARCH:
+                return api.search(ArticleData.searchTerm(random), 10);
+            case BY_ID:
+                return api.get(ids.get(random.nextInt(ids.size())));
+            case WRITE:
+            default:
+                return write(random);
+        }
+    }
+
+    /**
+     * An admin write: 40% creates, 40% edits of seeded articles, 20% deletes of articles created during the run
+     */
+    private int write(Random random) throws IOException, InterruptedException {
+        int pick = random.nextInt(10);
+        if (pick < 4) {
+            return api.update(ids.get(random.nextInt(ids.size())), ArticleData.edit(random));
+        }
+        String deletable = pick < 6 ? created.pollFirst() : null;
+        if (deletable != null) {
+            return api.delete(deletable);
+        }
+        created.addLast(api.create(ArticleData.article(random)));
+        return 201;
+    }
+
+    private static void printReport(Map<Operation, Latencies.Summary> results) {
+        System.out.printf("%n%-10s %10s %8s %10s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        results.forEach((operation, summary) -> System.out.printf("%-10s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                operation.label(), summary.requests, summary.errors, summary.throughput,
+                millis(summary.p50Nanos), millis(summary.p90Nanos), millis(summary.p99Nanos), millis(summary.maxNanos)));
+        double total = results.values().stream().mapToDouble(summary -> summary.throughput).sum();
+        long errors = results.values().stream().mapToLong(summary -> summary.errors).sum();
+        System.out.printf("%-10s %10s %8d %10.1f%n", "total", "", errors, total);
+    }
+
+    private static void writeReport(Map<Operation, Latencies.Summary> results, LoadTest test, File file)
+            throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("concurrency", test.concurrency);
+        report.put("durationSeconds", test.duration.toSeconds());
+        report.put("mix", test.mix.toString());
+        Map<String, Object> operations = new LinkedHashMap<>();
+        results.forEach((operation, summary) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("requests", summary.requests);
+            entry.put("errors", summary.errors);
+            entry.put("throughput", summary.throughput);
+            entry.put("p50Ms", millis(summary.p50Nanos));
+            entry.put("p90Ms", millis(summary.p90Nanos));
+            entry.put("p99Ms", millis(summary.p99Nanos));
+            entry.put("maxMs", millis(summary.maxNanos));
+            operations.put(operation.label(), entry);
+        });
+        report.put("operations", operations);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return Collections.unmodifiableMap(options);
+    }
+
+    private static Duration parseDuration(String value) {
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        switch (value.charAt(value.length() - 1)) {
+            case 's':
+                return Duration.ofSeconds(amount);
+            case 'm':
+                return Duration.ofMinutes(amount);
+            default:
+                throw new IllegalArgumentException("Expected a duration like 30s or 2m, got: " + value);
+        }
+    }
+}
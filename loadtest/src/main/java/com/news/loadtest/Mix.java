@@ -0,0 +1,53 @@
+package com.news.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted choice of operations, e.g. "listing=55,search=20,by-id=20,write=5"
+ */
+final class Mix {
+
+    private final Map<Operation, Integer> weights;
+    private final int total;
+
+    private Mix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("Mix needs at least one positive weight");
+        }
+    }
+
+    static Mix parse(String value) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            weights.put(Operation.parse(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+        }
+        return new Mix(weights);
+    }
+
+    Operation next(Random random) {
+        int pick = random.nextInt(total);
+        for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+            pick -= weight.getValue();
+            if (pick < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder mix = new StringBuilder();
+        weights.forEach((operation, weight) -> mix.append(mix.length() > 0 ? "," : "")
+                .append(operation.label()).append('=').append(weight));
+        return mix.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package com.news.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The news endpoints exercised by the load test. Responses are read in full, so measured
+ * latencies include transferring the body.
+ */
+final class NewsApi {
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final Duration timeout;
+    private volatile String token;
+
+    NewsApi(String baseUrl, Duration timeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * Log in and use the token for admin requests
+     */
+    void login(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(post("/api/auth/login", Map.of("username", username, "password", password)));
+        if (response.statusCode() != 200) {
+            throw new IOException("Login failed with status " + response.statusCode());
+        }
+        token = objectMapper.readTree(response.body()).path("token").asText();
+    }
+
+    /**
+     * @return The new article's ID
+     */
+    String create(Map<String, Object> article) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(authorized(post("/api/news", article)));
+        if (response.statusCode() != 201) {
+            throw new IOException("Create failed with status " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("id").asText();
+    }
+
+    int update(String id, Map<String, Object> fields) throws IOException, InterruptedException {
+        HttpRequest.Builder request = request("/api/news/" + id)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(fields)))
+                .header("Content-Type", "application/json");
+        return send(authorized(request)).statusCode();
+    }
+
+    int delete(String id) throws IOException, InterruptedException {
+        return send(authorized(request("/api/news/" + id).DELETE())).statusCode();
+    }
+
+    int get(String id) throws IOException, InterruptedException {
+        return send(request("/api/news/" + id).GET()).statusCode();
+    }
+
+    int list(String category, int page, int size, String sort) throws IOException, InterruptedException {
+        String path = "/api/news/category/" + encode(category) + "?page=" + page + "&size=" + size
+                + (sort != null ? "&sort=" + sort : "");
+        return send(request(path).GET()).statusCode();
+    }
+
+    int search(String term, int size) throws IOException, InterruptedException {
+        return send(request("/api/news/category/all?search=" + encode(term) + "&size=" + size).GET()).statusCode();
+    }
+
+    /**
+     * IDs of the newest articles, following the listing's cursor
+     * @param limit Most IDs to return
+     */
+    List<String> articleIds(int limit) throws IOException, InterruptedException {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        while (ids.size() < limit) {
+            String path = "/api/news/category/all?size=100" + (cursor != null ? "&cursor=" + encode(cursor) : "");
+            HttpResponse<byte[]> response = send(request(path).GET());
+            if (response.statusCode() != 200) {
+                throw new IOException("Listing failed with status " + response.statusCode());
+            }
+            JsonNode page = objectMapper.readTree(response.body());
+            for (JsonNode article : page.path("content")) {
+                if (ids.size() < limit) {
+                    ids.add(article.path("id").asText());
+                }
+            }
+            cursor = page.path("nextCursor").asText(null);
+            if (cursor == null || !page.path("hasNext").asBoolean()) {
+                return ids;
+            }
+        }
+        return ids;
+    }
+
+    private HttpRequest.Builder post(String path, Object body) throws IOException {
+        return request(path)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+    }
+
+    private HttpRequest.Builder authorized(HttpRequest.Builder request) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
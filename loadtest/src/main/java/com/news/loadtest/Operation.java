@@ -0,0 +1,30 @@
+package com.news.loadtest;
+
+/**
+ * Request kinds of the load mix
+ */
+enum Operation {
+    LISTING("listing"),
+    SEARCH("search"),
+    BY_ID("by-id"),
+    WRITE("write");
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+
+    static Operation parse(String label) {
+        for (Operation operation : values()) {
+            if (operation.label.equals(label)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + label + " (expected listing, search, by-id or write)");
+    }
+}
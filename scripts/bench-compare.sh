@@ -0,0 +1,32 @@
+#!/usr/bin/env bash
+# Run the JMH suites and compare them with the checked-in baseline.
+#
+# Builds the application and the benchmarks module, runs the benchmarks (optionally only
+# those matching a regex), and prints each score next to the baseline score with the
+# change in percent. Needs jq. Scores are average time per operation, so lower is better.
+#
+# Usage: scripts/bench-compare.sh [benchmark regex] [extra JMH options...]
+#   e.g. scripts/bench-compare.sh SearchBenchmark -f 2
+set -euo pipefail
+
+FILTER=${1:-.}
+shift || true
+BASELINE=${BASELINE:-benchmarks/baseline/results.json}
+OUT_DIR=${OUT_DIR:-benchmarks/target}
+RESULTS="${OUT_DIR}/results.json"
+
+command -v jq >/dev/null || { echo "jq is required"; exit 1; }
+
+sh mvnw -B -q install -DskipTests
+sh mvnw -B -q -f benchmarks/pom.xml package
+java -jar benchmarks/target/benchmarks.jar "$FILTER" -rf json -rff "$RESULTS" "$@"
+
+# Key each result by benchmark name plus its parameters
+key='.benchmark + ((.params // {}) | to_entries | map(" " + .key + "=" + .value) | join(""))'
+jq -r --slurpfile base "$BASELINE" "
+  (\$base[0] | map({key: ($key), value: .primaryMetric.score}) | from_entries) as \$before
+  | .[]
+  | ($key) as \$k
+  | [\$k, (.primaryMetric.score | tostring), .primaryMetric.scoreUnit,
+     (if \$before[\$k] then ((.primaryMetric.score / \$before[\$k] - 1) * 100 | floor | tostring) + \"%\" else \"new\" end)]
+  | @tsv" "$RESULTS" | { command -v column >/dev/null && column -t -s $'\t' || cat; }
@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+# Compare platform-thread and virtual-thread request handling under the same load.
+#
+# Starts the packaged jar once per mode, warms it up, then drives the public read
+# endpoints with `hey` (https://github.com/rakyll/hey) and prints a summary per mode.
+# Needs a Java 21 runtime and a jar built with `mvn -Pjava21 package`, plus the usual
+# Firebase/Cloudinary environment variables.
+#
+# Usage: scripts/load-compare.sh [jar] [concurrency] [duration]
+#   e.g. scripts/load-compare.sh target/news-0.0.1-SNAPSHOT.jar 200 60s
+set -euo pipefail
+
+JAR=${1:-$(ls target/news-*.jar | grep -v plain | head -1)}
+CONCURRENCY=${2:-200}
+DURATION=${3:-60s}
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:${PORT}"
+# Thread counts are capped so platform mode queues like a sized production deployment
+TOMCAT_THREADS=${TOMCAT_THREADS:-200}
+OUT_DIR=${OUT_DIR:-target/load-compare}
+
+command -v hey >/dev/null || { echo "hey is required (go install github.com/rakyll/hey@latest)"; exit 1; }
+mkdir -p "$OUT_DIR"
+
+ENDPOINTS=(
+  "/api/news/category/all?size=10"
+  "/api/news/category/all?size=100"
+  "/api/news/category/all?search=news&size=10"
+)
+
+wait_for_startup() {
+  for _ in $(seq 1 120); do
+    curl -fs "${BASE_URL}/api/health" >/dev/null 2>&1 && return 0
+    sleep 1
+  done
+  echo "Application did not start" >&2
+  return 1
+}
+
+run_mode() {
+  local mode=$1 virtual=$2
+  echo "=== ${mode} threads ==="
+  # Pinned virtual threads are reported to the log so regressions show up in the comparison
+  NEWS_VIRTUAL_THREADS=$virtual java \
+    -Djdk.tracePinnedThreads=short \
+    -jar "$JAR" \
+    --server.port="$PORT" \
+    --server.tomcat.threads.max="$TOMCAT_THREADS" \
+    > "${OUT_DIR}/${mode}.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null || true" EXIT
+  wait_for_startup
+
+  for endpoint in "${ENDPOINTS[@]}"; do
+    hey -z 10s -c 20 "${BASE_URL}${endpoint}" >/dev/null
+  done
+
+  for endpoint in "${ENDPOINTS[@]}"; do
+    local name
+    name=$(echo "$endpoint" | tr -c 'a-zA-Z0-9\n' '_')
+    echo "--- ${endpoint}"
+    hey -z "$DURATION" -c "$CONCURRENCY" "${BASE_URL}${endpoint}" | tee "${OUT_DIR}/${mode}${name}.txt" \
+      | grep -E "Requests/sec|Average|Slowest|  50%|  99%|\[[0-9]+\]"
+  done
+
+  echo "--- resident threads: $(ls /proc/$pid/task 2>/dev/null | wc -l)"
+  echo "--- pinned thread events: $(grep -c 'onPinned\|pinned' "${OUT_DIR}/${mode}.log" || true)"
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+run_mode platform false
+run_mode virtual true
+
+echo "Raw results in ${OUT_DIR}"
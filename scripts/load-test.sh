@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Run the end-to-end load test against a local instance with in-memory storage.
+#
+# Starts the packaged jar with news.storage=memory and the stub image uploader, so no
+# Firebase or Cloudinary credentials are needed, waits for it, then runs the load test
+# module (listing, search, by-id and admin write mix) and stops the application.
+# Extra arguments are passed to the load test, e.g. --concurrency=64 --duration=2m.
+#
+# Usage: scripts/load-test.sh [load test options...]
+#   e.g. scripts/load-test.sh --concurrency=64 --mix=listing=70,search=10,by-id=15,write=5
+set -euo pipefail
+
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:${PORT}"
+OUT_DIR=${OUT_DIR:-target/load-test}
+JAVA_OPTS=${JAVA_OPTS:-}
+
+mkdir -p "$OUT_DIR"
+sh mvnw -B -q package -DskipTests
+sh mvnw -B -q -f loadtest/pom.xml package
+JAR=$(ls target/news-*.jar | grep -v plain | head -1)
+
+NEWS_STORAGE=memory NEWS_IMAGE_UPLOADER=stub NEWS_IMAGE_RECONCILE_ENABLED=false PORT="$PORT" \
+  java $JAVA_OPTS -jar "$JAR" > "$OUT_DIR/app.log" 2>&1 &
+APP_PID=$!
+trap 'kill "$APP_PID" 2>/dev/null || true; wait "$APP_PID" 2>/dev/null || true' EXIT
+
+for _ in $(seq 1 120); do
+  curl -fs "${BASE_URL}/api/health" >/dev/null 2>&1 && break
+  kill -0 "$APP_PID" 2>/dev/null || { echo "Application exited, see $OUT_DIR/app.log" >&2; exit 1; }
+  sleep 1
+done
+
+java -jar loadtest/target/loadtest.jar --base-url="$BASE_URL" --out="$OUT_DIR/report.json" "$@"
@@ -0,0 +1,45 @@
+package com.news.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Bounded pool for blocking Cloudinary HTTP calls, so they never hold request threads
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor imageUploadExecutor(
+            @Value("${news.images.upload-threads:8}") int threads,
+            @Value("${news.images.upload-queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-upload-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Virtual thread mode: one virtual thread per Cloudinary call. The Apache HttpClient stack
+     * underneath only uses j.u.c locks, so blocking socket I/O unmounts instead of pinning.
+     * The concurrency limit keeps the same cap on parallel uploads as the platform pool.
+     */
+    @Bean(name = "imageUploadExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualImageUploadExecutor(@Value("${news.images.upload-threads:8}") int threads) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("image-upload-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(threads);
+        return executor;
+    }
+}
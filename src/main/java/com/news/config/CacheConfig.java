@@ -0,0 +1,33 @@
+package com.news.config;
+
+import com.news.service.InMemorySharedDocumentCache;
+import com.news.service.RedisSharedDocumentCache;
+import com.news.service.SharedDocumentCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Shared (L2) document cache on a Redis-protocol server
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "news.cache.l2.type", havingValue = "redis")
+    public SharedDocumentCache redisSharedDocumentCache(
+            @Value("${news.cache.l2.redis-url:redis://localhost:6379}") String redisUrl,
+            @Value("${news.cache.l2.timeout-ms:200}") long timeoutMillis) {
+        return new RedisSharedDocumentCache(redisUrl, timeoutMillis);
+    }
+
+    /**
+     * In-process stand-in for the shared cache (tests, local development)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "news.cache.l2.type", havingValue = "memory")
+    public SharedDocumentCache inMemorySharedDocumentCache() {
+        return new InMemorySharedDocumentCache();
+    }
+}
@@ -3,6 +3,7 @@ package com.news.config;
 import com.cloudinary.Cloudinary;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -59,6 +60,7 @@ public class CloudinaryConfig {
     }
 
     @Bean
+    @ConditionalOnProperty(name = "news.images.uploader", havingValue = "cloudinary", matchIfMissing = true)
     public Cloudinary cloudinary() {
         if (cloudName == null || cloudName.isEmpty() || 
             apiKey == null || apiKey.isEmpty() || 
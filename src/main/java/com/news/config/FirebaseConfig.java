@@ -2,10 +2,12 @@ package com.news.config;
 
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreOptions;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.cloud.FirestoreClient;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
@@ -17,9 +19,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
+/**
+ * Firebase and Firestore client setup for news.storage=firestore. With
+ * news.firestore.emulator-host set, the client talks to the Firestore emulator instead and
+ * no credentials are needed.
+ */
 @Configuration
+@ConditionalOnProperty(name = "news.storage", havingValue = "firestore", matchIfMissing = true)
 public class FirebaseConfig {
 
+    // Emulator projects need no credentials when their ID starts with "demo-"
+    private static final String EMULATOR_PROJECT_ID = "demo-news";
+
     @Value("${firebase.service-account.path:}")
     private String serviceAccountPath;
 
@@ -32,8 +43,14 @@ public class FirebaseConfig {
     @Value("${FIREBASE_SERVICE_ACCOUNT_JSON:}")
     private String serviceAccountJson;
 
+    @Value("${news.firestore.emulator-host:}")
+    private String emulatorHost;
+
     @PostConstruct
     public void initialize() {
+        if (!emulatorHost.isEmpty()) {
+            return; // The emulator client is built without Firebase
+        }
         try {
             if (FirebaseApp.getApps().isEmpty()) {
                 FirebaseOptions.Builder builder = FirebaseOptions.builder();
@@ -90,6 +107,13 @@ public class FirebaseConfig {
 
     @Bean
     public Firestore firestore() {
+        if (!emulatorHost.isEmpty()) {
+            return FirestoreOptions.newBuilder()
+                    .setProjectId(projectId != null && !projectId.isEmpty() ? projectId : EMULATOR_PROJECT_ID)
+                    .setEmulatorHost(emulatorHost)
+                    .build()
+                    .getService();
+        }
         return FirestoreClient.getFirestore();
     }
 }
@@ -1,6 +1,7 @@
 package com.news.config;
 
 import com.news.filter.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -31,7 +32,7 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "ETag", "Last-Modified"));
         configuration.setMaxAge(3600L); // 1 hour
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -46,12 +47,16 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches resume a request that was already authorized on its first dispatch
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 .requestMatchers("/api/health/**").permitAll()
+                .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                .requestMatchers("/actuator/**").authenticated()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/images/**").authenticated()
                 .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/news/{id}").permitAll()
                 .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/news/category/**").permitAll()
-                .requestMatchers("/api/admin/news/**").authenticated()
+                .requestMatchers("/api/admin/**").authenticated()
                 .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/news").authenticated()
                 .requestMatchers(org.springframework.http.HttpMethod.PUT, "/api/news/**").authenticated()
                 .requestMatchers(org.springframework.http.HttpMethod.DELETE, "/api/news/**").authenticated()
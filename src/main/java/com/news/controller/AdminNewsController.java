@@ -1,25 +1,52 @@
 package com.news.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.news.model.DateRange;
+import com.news.model.DateSort;
 import com.news.model.NewsArticle;
+import com.news.model.PageCursor;
 import com.news.model.PaginatedResponse;
-import com.news.service.FirestoreService;
+import com.news.service.NewsImportService;
+import com.news.service.NewsRepository;
+import com.news.service.NewsSearchIndex;
+import com.news.service.PublishedAtBackfill;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin/news")
 public class AdminNewsController {
 
-    private final FirestoreService firestoreService;
+    private final NewsRepository repository;
+    private final NewsSearchIndex searchIndex;
+    private final NewsImportService importService; // Null with in-memory storage
+    private final ObjectMapper objectMapper;
+    private final PublishedAtBackfill publishedAtBackfill; // Null with in-memory storage
     private static final String COLLECTION_NAME = "news";
+    private static final String NDJSON = "application/x-ndjson";
 
-    public AdminNewsController(FirestoreService firestoreService) {
-        this.firestoreService = firestoreService;
+    public AdminNewsController(NewsRepository repository, NewsSearchIndex searchIndex,
+                               ObjectProvider<NewsImportService> importService, ObjectMapper objectMapper,
+                               ObjectProvider<PublishedAtBackfill> publishedAtBackfill) {
+        this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.importService = importService.getIfAvailable();
+        this.objectMapper = objectMapper;
+        this.publishedAtBackfill = publishedAtBackfill.getIfAvailable();
     }
 
     /**
@@ -27,147 +54,216 @@ public class AdminNewsController {
      * Query parameters:
      * - search: search term to match in titleEnglish, titleArabic, descriptionEnglish, descriptionArabic, category, and date (case-insensitive, partial match)
      * - page: page number (default: 0)
+     * - cursor: nextCursor from a previous response, for keyset pagination (ignored when searching)
      * - size: page size (default: 10, max: 100)
+     * - sort: date_desc or date_asc to list by publication time (default: document ID order)
+     * - from, to: publication time range; implies sort=date_desc unless sort is given
      */
     @GetMapping
-    public ResponseEntity<PaginatedResponse<NewsArticle>> getAllNewsWithSearch(
+    public CompletableFuture<ResponseEntity<PaginatedResponse<NewsArticle>>> getAllNewsWithSearch(
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
         
         // Validate pagination parameters
-        if (page < 0) page = 0;
-        if (size < 1) size = 10;
-        if (size > 100) size = 100; // Max page size
+        final int pageNumber = Math.max(page, 0);
+        final int pageSize = size < 1 ? 10 : Math.min(size, 100); // Max page size
         
-        // Get all news (we'll filter in memory for search)
-        FirestoreService.PaginationResult result = firestoreService.getAllPaginated(COLLECTION_NAME, page, size);
-        
-        // Apply search filter if provided
-        List<NewsArticle> articles = result.getDocuments().stream()
-                .map(doc -> NewsArticle.fromMap(doc.get("id").toString(), doc))
-                .filter(article -> {
-                    // If no search term, return all articles
-                    if (search == null || search.trim().isEmpty()) {
-                        return true;
-                    }
-                    
-                    String searchLower = search.toLowerCase().trim();
-                    
-                    // Search in titleEnglish
-                    if (article.getTitleEnglish() != null && 
-                        article.getTitleEnglish().toLowerCase().contains(searchLower)) {
-                        return true;
-                    }
-                    
-                    // Search in titleArabic
-                    if (article.getTitleArabic() != null && 
-                        article.getTitleArabic().toLowerCase().contains(searchLower)) {
-                        return true;
-                    }
-                    
-                    // Search in descriptionEnglish
-                    if (article.getDescriptionEnglish() != null && 
-                        article.getDescriptionEnglish().toLowerCase().contains(searchLower)) {
-                        return true;
-                    }
-                    
-                    // Search in descriptionArabic
-                    if (article.getDescriptionArabic() != null && 
-                        article.getDescriptionArabic().toLowerCase().contains(searchLower)) {
-                        return true;
-                    }
-                    
-                    // Search in category
-                    if (article.getCategory() != null && 
-                        article.getCategory().toLowerCase().contains(searchLower)) {
-                        return true;
-                    }
-                    
-                    // Search in date
-                    if (article.getDate() != null && 
-                        article.getDate().toLowerCase().contains(searchLower)) {
-                        return true;
-                    }
-                    
-                    return false;
-                })
-                .collect(Collectors.toList());
+        DateRange range;
+        DateSort dateSort;
+        try {
+            range = DateRange.parse(from, to);
+            dateSort = DateSort.parse(sort);
+            if (dateSort == null && !range.isUnbounded()) {
+                dateSort = DateSort.DATE_DESC;
+            }
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
         
-        // If search was applied, we need to get all results first, then paginate
+        // If search is provided, answer it from the in-memory search index
         if (search != null && !search.trim().isEmpty()) {
-            // Get all documents for search
-            List<Map<String, Object>> allDocuments = firestoreService.getAll(COLLECTION_NAME);
-            
-            // Apply search filter to all documents
-            List<NewsArticle> allFilteredArticles = allDocuments.stream()
-                    .map(doc -> NewsArticle.fromMap(doc.get("id").toString(), doc))
-                    .filter(article -> {
-                        String searchLower = search.toLowerCase().trim();
-                        
-                        return (article.getTitleEnglish() != null && 
-                                article.getTitleEnglish().toLowerCase().contains(searchLower)) ||
-                               (article.getTitleArabic() != null && 
-                                article.getTitleArabic().toLowerCase().contains(searchLower)) ||
-                               (article.getDescriptionEnglish() != null && 
-                                article.getDescriptionEnglish().toLowerCase().contains(searchLower)) ||
-                               (article.getDescriptionArabic() != null && 
-                                article.getDescriptionArabic().toLowerCase().contains(searchLower)) ||
-                               (article.getCategory() != null && 
-                                article.getCategory().toLowerCase().contains(searchLower)) ||
-                               (article.getDate() != null && 
-                                article.getDate().toLowerCase().contains(searchLower));
-                    })
-                    .collect(Collectors.toList());
+            NewsSearchIndex.SearchResult searchResult = searchIndex.search(null, search, range, dateSort, pageNumber, pageSize);
+            PaginatedResponse<NewsArticle> response = new PaginatedResponse<>(
+                    searchResult.getArticles(),
+                    pageNumber,
+                    pageSize,
+                    searchResult.getTotalElements(),
+                    searchResult.getTotalPages(),
+                    pageNumber < searchResult.getTotalPages() - 1,
+                    pageNumber > 0
+            );
             
-            // Apply pagination to filtered results
-            long totalElements = allFilteredArticles.size();
-            int totalPages = (int) Math.ceil((double) totalElements / size);
-            int start = page * size;
-            int end = Math.min(start + size, allFilteredArticles.size());
+            return CompletableFuture.completedFuture(ResponseEntity.ok(response));
+        }
+        
+        // Publication order - keyset or offset pagination on publishedAt
+        if (dateSort != null) {
+            PageCursor after = null;
+            if (cursor != null && !cursor.isEmpty()) {
+                try {
+                    after = PageCursor.decodeDate(cursor);
+                } catch (IllegalArgumentException e) {
+                    return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+                }
+            }
+            boolean afterCursor = after != null;
+            return repository.queryByDateAsync(COLLECTION_NAME, null, null, range, dateSort, after, pageNumber, pageSize)
+                    .thenApply(dateResult -> {
+                        List<NewsArticle> articles = toArticles(dateResult.getDocuments());
+                        PaginatedResponse<NewsArticle> response = new PaginatedResponse<>(
+                                articles,
+                                pageNumber,
+                                pageSize,
+                                dateResult.getTotalElements(),
+                                (int) Math.ceil((double) dateResult.getTotalElements() / pageSize),
+                                dateResult.hasMore(),
+                                afterCursor
+                                        ? PageCursor.hasPrevious(dateResult.getTotalElements(), articles.size(),
+                                                dateResult.hasMore())
+                                        : pageNumber > 0,
+                                dateResult.hasMore() ? PageCursor.afterDate(articles) : null
+                        );
+                        return ResponseEntity.ok(response);
+                    });
+        }
+        
+        // Cursor provided - keyset pagination
+        if (cursor != null && !cursor.isEmpty()) {
+            PageCursor pageCursor;
+            try {
+                pageCursor = PageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+            }
             
-            articles = start < allFilteredArticles.size() 
-                    ? allFilteredArticles.subList(start, end)
-                    : new ArrayList<>();
+            return repository.queryPageAfterAsync(COLLECTION_NAME, null, null, pageCursor.getDocumentId(), pageSize)
+                    .thenApply(cursorResult -> {
+                        List<NewsArticle> articles = toArticles(cursorResult.getDocuments());
+                        PaginatedResponse<NewsArticle> response = new PaginatedResponse<>(
+                                articles,
+                                pageNumber,
+                                pageSize,
+                                cursorResult.getTotalElements(),
+                                (int) Math.ceil((double) cursorResult.getTotalElements() / pageSize),
+                                cursorResult.hasMore(),
+                                PageCursor.hasPrevious(cursorResult.getTotalElements(), articles.size(),
+                                        cursorResult.hasMore()),
+                                cursorResult.hasMore() ? PageCursor.after(articles) : null
+                        );
+                        return ResponseEntity.ok(response);
+                    });
+        }
+        
+        // No search - use normal pagination
+        return repository.getAllPaginatedAsync(COLLECTION_NAME, pageNumber, pageSize).thenApply(result -> {
+            List<NewsArticle> articles = toArticles(result.getDocuments());
+            boolean hasNext = pageNumber < result.getTotalPages() - 1;
             
             PaginatedResponse<NewsArticle> response = new PaginatedResponse<>(
                     articles,
-                    page,
-                    size,
-                    totalElements,
-                    totalPages,
-                    page < totalPages - 1,
-                    page > 0
+                    pageNumber,
+                    pageSize,
+                    result.getTotalElements(),
+                    result.getTotalPages(),
+                    hasNext,
+                    pageNumber > 0,
+                    hasNext ? PageCursor.after(articles) : null
             );
-            
             return ResponseEntity.ok(response);
-        }
-        
-        // No search - use normal pagination
-        PaginatedResponse<NewsArticle> response = new PaginatedResponse<>(
-                articles,
-                page,
-                size,
-                result.getTotalElements(),
-                result.getTotalPages(),
-                page < result.getTotalPages() - 1,
-                page > 0
-        );
-        
-        return ResponseEntity.ok(response);
+        });
     }
 
     /**
      * Get news by ID (requires authentication)
      */
     @GetMapping("/{id}")
-    public ResponseEntity<NewsArticle> getNewsById(@PathVariable String id) {
-        Map<String, Object> data = firestoreService.get(COLLECTION_NAME, id);
-        if (data != null) {
-            NewsArticle article = NewsArticle.fromMap(id, data);
-            return ResponseEntity.ok(article);
+    public CompletableFuture<ResponseEntity<NewsArticle>> getNewsById(@PathVariable String id) {
+        return repository.getAsync(COLLECTION_NAME, id).thenApply(data -> {
+            if (data != null) {
+                NewsArticle article = NewsArticle.fromMap(id, data);
+                return ResponseEntity.ok(article);
+            }
+            return ResponseEntity.notFound().build();
+        });
+    }
+
+    /**
+     * Start setting the typed publishedAt field on articles written before it existed (requires authentication)
+     * POST /api/admin/news/published-at/backfill
+     * Until this has run, such articles are missing from date-sorted and date-filtered listings.
+     * The backfill runs in the background; a run that stopped early resumes where it stopped.
+     * Query parameters:
+     * - after: document ID to start after instead (optional)
+     * @return 202 with the job's progress
+     */
+    @PostMapping("/published-at/backfill")
+    public ResponseEntity<?> backfillPublishedAt(@RequestParam(required = false) String after) {
+        if (publishedAtBackfill == null) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(firestoreOnly("Backfill"));
         }
-        return ResponseEntity.notFound().build();
+        return ResponseEntity.accepted().body(publishedAtBackfill.start(after));
     }
-}
 
+    /**
+     * Progress of the publishedAt backfill (requires authentication)
+     * GET /api/admin/news/published-at/backfill
+     * @return State, counts of scanned, updated and failed articles, and the last finished document
+     */
+    @GetMapping("/published-at/backfill")
+    public ResponseEntity<?> getBackfillStatus() {
+        if (publishedAtBackfill == null) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(firestoreOnly("Backfill"));
+        }
+        return ResponseEntity.ok(publishedAtBackfill.status());
+    }
+
+    /**
+     * Bulk import news from an NDJSON body, one article per line (requires authentication)
+     * POST /api/admin/news/import
+     * The response is an NDJSON stream of "progress" and per-record "error" events, written
+     * while the import runs, and ends with a "summary" event.
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON, MediaType.TEXT_PLAIN_VALUE})
+    public void importNews(InputStream body, HttpServletResponse response) throws IOException {
+        if (importService == null) {
+            response.setStatus(HttpStatus.NOT_IMPLEMENTED.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(objectMapper.writeValueAsBytes(firestoreOnly("Bulk import")));
+            return;
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+
+        Map<String, Object> summary = importService.importNdjson(body, event -> writeEvent(out, event));
+        writeEvent(out, summary);
+    }
+
+    private void writeEvent(OutputStream out, Map<String, Object> event) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(event));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, String> firestoreOnly(String feature) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", feature + " needs Firestore storage (news.storage=firestore)");
+        return error;
+    }
+
+    private static List<NewsArticle> toArticles(List<Map<String, Object>> documents) {
+        return documents.stream()
+                .map(doc -> NewsArticle.fromMap(doc.get("id").toString(), doc))
+                .collect(Collectors.toList());
+    }
+}
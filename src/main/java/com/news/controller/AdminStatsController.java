@@ -0,0 +1,85 @@
+package com.news.controller;
+
+import com.news.service.Bulkheads;
+import com.news.service.DocumentCache;
+import com.news.service.HotPageCache;
+import com.news.service.ImageDeletionQueue;
+import com.news.service.ImageIngestionService;
+import com.news.service.ImageReconciler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/stats")
+public class AdminStatsController {
+
+    private final DocumentCache documentCache;
+    private final ImageIngestionService imageIngestion;
+    private final ImageDeletionQueue deletionQueue; // Null with in-memory storage
+    private final ImageReconciler reconciler; // Null with in-memory storage
+    private final HotPageCache hotPages;
+    private final Bulkheads bulkheads;
+
+    public AdminStatsController(DocumentCache documentCache, ImageIngestionService imageIngestion,
+                                ObjectProvider<ImageDeletionQueue> deletionQueue,
+                                ObjectProvider<ImageReconciler> reconciler,
+                                HotPageCache hotPages, Bulkheads bulkheads) {
+        this.documentCache = documentCache;
+        this.imageIngestion = imageIngestion;
+        this.deletionQueue = deletionQueue.getIfAvailable();
+        this.reconciler = reconciler.getIfAvailable();
+        this.hotPages = hotPages;
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * Document cache hit/miss/eviction statistics (requires authentication)
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(documentCache.getStats());
+    }
+
+    /**
+     * Pre-serialized hot page cache entries, hits and rebuilds (requires authentication)
+     */
+    @GetMapping("/hot-pages")
+    public ResponseEntity<Map<String, Object>> getHotPageStats() {
+        return ResponseEntity.ok(hotPages.getStats());
+    }
+
+    /**
+     * Background image upload queue depth and outcomes (requires authentication)
+     */
+    @GetMapping("/images")
+    public ResponseEntity<Map<String, Object>> getImageStats() {
+        return ResponseEntity.ok(imageIngestion.getStats());
+    }
+
+    /**
+     * Image deletion queue outcomes and the last orphan reconciliation (requires authentication)
+     */
+    @GetMapping("/image-deletions")
+    public ResponseEntity<Map<String, Object>> getImageDeletionStats() {
+        if (deletionQueue == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>(deletionQueue.getStats());
+        stats.put("lastReconcile", reconciler.getLastRun());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Concurrency limits and calls in flight of the request and downstream bulkheads (requires authentication)
+     */
+    @GetMapping("/limits")
+    public ResponseEntity<Map<String, Object>> getLimitStats() {
+        return ResponseEntity.ok(bulkheads.getStats());
+    }
+}
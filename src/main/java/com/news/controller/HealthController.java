@@ -1,5 +1,9 @@
 package com.news.controller;
 
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -8,16 +12,27 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Health check for the platform's probes, backed by the Actuator health indicators
+ * (details at /actuator/health, metrics at /actuator/prometheus)
+ */
 @RestController
 @RequestMapping("/api/health")
 public class HealthController {
 
+    private final HealthEndpoint healthEndpoint;
+
+    public HealthController(HealthEndpoint healthEndpoint) {
+        this.healthEndpoint = healthEndpoint;
+    }
+
     @GetMapping
     public ResponseEntity<Map<String, String>> healthCheck() {
+        HealthComponent health = healthEndpoint.health();
+        boolean up = Status.UP.equals(health.getStatus());
         Map<String, String> response = new HashMap<>();
-        response.put("status", "UP");
-        response.put("message", "Server is running");
-        return ResponseEntity.ok(response);
+        response.put("status", health.getStatus().getCode());
+        response.put("message", up ? "Server is running" : "Server is unhealthy");
+        return ResponseEntity.status(up ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(response);
     }
 }
-
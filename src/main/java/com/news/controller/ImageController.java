@@ -1,22 +1,32 @@
 package com.news.controller;
 
-import com.news.service.CloudinaryImageService;
+import com.news.service.ImageSpool;
+import com.news.service.ImageUploader;
+import com.news.util.DeadlineExceededException;
+import com.news.util.FutureUtil;
+import com.news.util.OverloadedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/images")
 public class ImageController {
 
-    private final CloudinaryImageService imageService;
+    private final ImageUploader imageService;
+    private final ImageSpool imageSpool;
 
-    public ImageController(CloudinaryImageService imageService) {
+    public ImageController(ImageUploader imageService, ImageSpool imageSpool) {
         this.imageService = imageService;
+        this.imageSpool = imageSpool;
     }
 
     /**
@@ -24,22 +34,8 @@ public class ImageController {
      * POST /api/images/upload
      */
     @PostMapping("/upload")
-    public ResponseEntity<Map<String, String>> uploadImage(@RequestParam("file") MultipartFile file) {
-        try {
-            String imageUrl = imageService.uploadImage(file);
-            Map<String, String> response = new HashMap<>();
-            response.put("imageUrl", imageUrl);
-            response.put("message", "Image uploaded successfully");
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (IllegalArgumentException e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to upload image: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
-        }
+    public CompletableFuture<ResponseEntity<Map<String, String>>> uploadImage(@RequestParam("file") MultipartFile file) {
+        return imageService.uploadImageAsync(file).handle(ImageController::toResponse);
     }
 
     /**
@@ -47,29 +43,54 @@ public class ImageController {
      * POST /api/images/upload-base64
      */
     @PostMapping("/upload-base64")
-    public ResponseEntity<Map<String, String>> uploadBase64Image(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> uploadBase64Image(@RequestBody Map<String, String> request) {
+        String base64Image = request.get("base64Image");
+        if (base64Image == null || base64Image.isEmpty()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "base64Image field is required");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error));
+        }
+
+        if (!ImageSpool.isToken(base64Image)) {
+            return imageService.uploadBase64ImageAsync(base64Image).handle(ImageController::toResponse);
+        }
+
+        // Data URL images were already decoded to disk while the body was parsed
+        Path imageFile;
         try {
-            String base64Image = request.get("base64Image");
-            if (base64Image == null || base64Image.isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "base64Image field is required");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-            }
+            imageFile = imageSpool.claim(base64Image);
+        } catch (IllegalArgumentException | IOException e) {
+            return CompletableFuture.completedFuture(toResponse(null, e));
+        }
+        return imageService.uploadImageAsync(imageFile)
+                .whenComplete((imageUrl, failure) -> imageSpool.delete(imageFile))
+                .handle(ImageController::toResponse);
+    }
 
-            String imageUrl = imageService.uploadBase64Image(base64Image);
+    private static ResponseEntity<Map<String, String>> toResponse(String imageUrl, Throwable failure) {
+        if (failure == null) {
             Map<String, String> response = new HashMap<>();
             response.put("imageUrl", imageUrl);
             response.put("message", "Image uploaded successfully");
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (IllegalArgumentException e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
+        }
+
+        Throwable cause = FutureUtil.unwrap(failure);
+        if (cause instanceof OverloadedException overloaded) {
+            return OverloadExceptionHandler.response(overloaded);
+        }
+        if (cause instanceof DeadlineExceededException deadlineExceeded) {
+            return OverloadExceptionHandler.response(deadlineExceeded);
+        }
+        Map<String, String> error = new HashMap<>();
+        if (cause instanceof IllegalArgumentException) {
+            error.put("error", cause.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to upload image: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
+        if (cause instanceof UncheckedIOException) {
+            cause = cause.getCause();
+        }
+        error.put("error", "Failed to upload image: " + cause.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
 }
-
@@ -1,225 +1,571 @@
 package com.news.controller;
 
+import com.news.model.DateRange;
+import com.news.model.DateSort;
 import com.news.model.NewsArticle;
+import com.news.model.PageCursor;
 import com.news.model.PaginatedResponse;
-import com.news.service.FirestoreService;
-import com.news.service.CloudinaryImageService;
+import com.news.service.HotPageCache;
+import com.news.service.ImageDeletionQueue;
+import com.news.service.ImageIngestionService;
+import com.news.service.ImageSpool;
+import com.news.service.LastKnownGoodCache;
+import com.news.service.NewsCacheInvalidator;
+import com.news.service.NewsReplica;
+import com.news.service.NewsRepository;
+import com.news.service.NewsSearchIndex;
+import com.news.util.DeadlineExceededException;
+import com.news.util.FutureUtil;
+import com.news.util.HttpCachePolicy;
+import com.news.util.NewsMetrics;
+import com.news.util.OverloadedException;
+import com.news.util.RequestContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/news")
 public class NewsController {
 
-    private final FirestoreService firestoreService;
-    private final CloudinaryImageService imageService;
+    private final NewsRepository repository;
+    private final ImageIngestionService imageIngestion;
+    private final ImageSpool imageSpool;
+    private final ImageDeletionQueue deletionQueue; // Null with in-memory storage
+    private final NewsSearchIndex searchIndex;
+    private final NewsReplica replica;
+    private final HttpCachePolicy cachePolicy;
+    private final HotPageCache hotPages;
+    private final NewsCacheInvalidator cacheInvalidator;
+    private final LastKnownGoodCache lastKnownGood;
+    private final NewsMetrics metrics;
     private static final String COLLECTION_NAME = "news";
+    private static final String IMAGE_QUEUE_RETRY_AFTER_SECONDS = "5";
 
-    public NewsController(FirestoreService firestoreService, CloudinaryImageService imageService) {
-        this.firestoreService = firestoreService;
-        this.imageService = imageService;
+    public NewsController(NewsRepository repository, ImageIngestionService imageIngestion,
+                          ImageSpool imageSpool, ObjectProvider<ImageDeletionQueue> deletionQueue,
+                          NewsSearchIndex searchIndex, NewsReplica replica,
+                          HttpCachePolicy cachePolicy, HotPageCache hotPages,
+                          NewsCacheInvalidator cacheInvalidator, LastKnownGoodCache lastKnownGood,
+                          NewsMetrics metrics) {
+        this.repository = repository;
+        this.imageIngestion = imageIngestion;
+        this.imageSpool = imageSpool;
+        this.deletionQueue = deletionQueue.getIfAvailable();
+        this.searchIndex = searchIndex;
+        this.replica = replica;
+        this.cachePolicy = cachePolicy;
+        this.hotPages = hotPages;
+        this.cacheInvalidator = cacheInvalidator;
+        this.lastKnownGood = lastKnownGood;
+        this.metrics = metrics;
     }
 
     @PostMapping
-    public ResponseEntity<?> addNews(@RequestBody NewsArticle article) {
+    public CompletableFuture<ResponseEntity<?>> addNews(@RequestBody NewsArticle article) {
+        // A new image is uploaded in the background; the article is saved with a pending marker
+        boolean hasNewImage = isNewImage(article.getImage());
+        if (hasNewImage && imageIngestion.isSaturated()) {
+            return CompletableFuture.completedFuture(imageQueueFull());
+        }
+        Path imageFile;
         try {
-            // Process image if it's base64
-            if (article.getImage() != null && !article.getImage().isEmpty()) {
-                // Check if it's a base64 data URL
-                if (article.getImage().startsWith("data:image/") || 
-                    (article.getImage().length() > 100 && !article.getImage().startsWith("http"))) {
-                    try {
-                        String imageUrl = imageService.uploadBase64Image(article.getImage());
-                        article.setImage(imageUrl);
-                    } catch (IllegalArgumentException e) {
-                        Map<String, String> error = new HashMap<>();
-                        error.put("error", "Invalid image: " + e.getMessage());
-                        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-                    } catch (IOException e) {
-                        Map<String, String> error = new HashMap<>();
-                        error.put("error", "Failed to upload image: " + e.getMessage());
-                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
-                    }
-                }
-            }
-            
-            Map<String, Object> data = article.toMap();
-            String documentId = firestoreService.save(COLLECTION_NAME, null, data);
-            article.setId(documentId);
-            return ResponseEntity.status(HttpStatus.CREATED).body(article);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to create news: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            imageFile = hasNewImage ? claimImage(article.getImage()) : null;
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(invalidImage(e));
+        }
+        article.setImageStatus(imageFile != null ? ImageIngestionService.STATUS_PENDING : null);
+        if (imageFile != null) {
+            article.setImage(null);
         }
+        // Date-ordered listings skip articles without publishedAt, so an undated article is dated by its creation
+        Instant publishedAt = article.resolvePublishedAt();
+        article.setPublishedAt(publishedAt != null ? publishedAt : Instant.now());
+        
+        Map<String, Object> data = article.toMap();
+        return repository.saveAsync(COLLECTION_NAME, null, data)
+                .<ResponseEntity<?>>thenApply(documentId -> {
+                    article.setId(documentId);
+                    searchIndex.put(article);
+                    replica.recordWrite(article);
+                    cacheInvalidator.articleChanged(documentId, article.getCategory());
+                    if (imageFile != null) {
+                        imageIngestion.submit(documentId, imageFile, null);
+                    }
+                    return ResponseEntity.status(HttpStatus.CREATED).body(article);
+                })
+                .exceptionally(e -> {
+                    if (imageFile != null) {
+                        imageSpool.delete(imageFile);
+                    }
+                    return errorResponse(e, "Failed to create news: ");
+                });
     }
 
+    /**
+     * Get news by category with search and pagination
+     * Query parameters:
+     * - search: search term (case-insensitive, partial match)
+     * - page: page number (default: 0), for offset pagination
+     * - cursor: nextCursor from a previous response, for keyset pagination (takes precedence over page)
+     * - size: page size (default: 10, max: 100)
+     * - sort: date_desc or date_asc to list by publication time (default: document ID order)
+     * - from, to: publication time range, e.g. 2024-03-01 (from inclusive, to inclusive for
+     *   plain dates and exclusive for date-times); implies sort=date_desc unless sort is given
+     * Responses carry an ETag; a matching If-None-Match gets 304 Not Modified.
+     */
     @GetMapping("/category/{category}")
-    public ResponseEntity<PaginatedResponse<NewsArticle>> getNewsByCategory(
+    public CompletableFuture<ResponseEntity<PaginatedResponse<NewsArticle>>> getNewsByCategory(
             @PathVariable String category,
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
         // Validate pagination parameters
-        if (page < 0) page = 0;
-        if (size < 1) size = 10;
-        if (size > 100) size = 100; // Max page size
+        final int pageNumber = Math.max(page, 0);
+        final int pageSize = size < 1 ? 10 : Math.min(size, 100); // Max page size
+        
+        DateRange range;
+        DateSort dateSort;
+        try {
+            range = DateRange.parse(from, to);
+            dateSort = sortOf(sort, range);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
         
-        List<NewsArticle> articles;
-        long totalElements;
-        int totalPages;
+        // If category is "all", return all news; otherwise filter by category
+        String field = "all".equalsIgnoreCase(category) ? null : "category";
+        String listing = field == null ? null : category;
         
-        // If search is provided, we need to get all matching documents first, then paginate
+        // If search is provided, answer it from the in-memory search index
         if (search != null && !search.trim().isEmpty()) {
-            String searchLower = search.toLowerCase().trim();
-            List<Map<String, Object>> allDocuments;
-            
-            // If category is "all", get all news; otherwise filter by category first
-            if ("all".equalsIgnoreCase(category)) {
-                allDocuments = firestoreService.getAll(COLLECTION_NAME);
-            } else {
-                allDocuments = firestoreService.query(COLLECTION_NAME, "category", category);
-            }
-            
-            // Apply search filter across all fields
-            List<NewsArticle> allFilteredArticles = allDocuments.stream()
-                    .map(doc -> NewsArticle.fromMap(doc.get("id").toString(), doc))
-                    .filter(article -> {
-                        return (article.getTitleEnglish() != null && 
-                                article.getTitleEnglish().toLowerCase().contains(searchLower)) ||
-                               (article.getTitleArabic() != null && 
-                                article.getTitleArabic().toLowerCase().contains(searchLower)) ||
-                               (article.getDescriptionEnglish() != null && 
-                                article.getDescriptionEnglish().toLowerCase().contains(searchLower)) ||
-                               (article.getDescriptionArabic() != null && 
-                                article.getDescriptionArabic().toLowerCase().contains(searchLower)) ||
-                               (article.getCategory() != null && 
-                                article.getCategory().toLowerCase().contains(searchLower)) ||
-                               (article.getDate() != null && 
-                                article.getDate().toLowerCase().contains(searchLower));
-                    })
-                    .collect(Collectors.toList());
-            
-            // Apply pagination to filtered results
-            totalElements = allFilteredArticles.size();
-            totalPages = (int) Math.ceil((double) totalElements / size);
-            int start = page * size;
-            int end = Math.min(start + size, allFilteredArticles.size());
-            
-            articles = start < allFilteredArticles.size() 
-                    ? allFilteredArticles.subList(start, end)
-                    : new ArrayList<>();
-        } else {
-            // No search - use normal pagination
-            FirestoreService.PaginationResult result;
-            
-            // If category is "all", return all news; otherwise filter by category
-            if ("all".equalsIgnoreCase(category)) {
-                result = firestoreService.getAllPaginated(COLLECTION_NAME, page, size);
-            } else {
-                result = firestoreService.queryPaginated(COLLECTION_NAME, "category", category, page, size);
+            NewsSearchIndex.SearchResult result = searchIndex.search(category, search, range, dateSort, pageNumber, pageSize);
+            PaginatedResponse<NewsArticle> response = new PaginatedResponse<>(
+                    result.getArticles(),
+                    pageNumber,
+                    pageSize,
+                    result.getTotalElements(),
+                    result.getTotalPages(),
+                    pageNumber < result.getTotalPages() - 1,
+                    pageNumber > 0
+            );
+            return CompletableFuture.completedFuture(servePage("search", response, listing, ifNoneMatch));
+        }
+        
+        PageCursor pageCursor = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                pageCursor = dateSort != null ? PageCursor.decodeDate(cursor) : PageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
             }
+        }
+        
+        // Publication order - keyset or offset pagination on publishedAt
+        if (dateSort != null) {
+            PageCursor after = pageCursor;
+            return lastKnownGood.get(pageKey("date", listing, range, dateSort, after, pageNumber, pageSize),
+                            () -> loadDatePage(listing, range, dateSort, after, pageNumber, pageSize))
+                    .thenApply(loaded -> {
+                        if (after == null && range.isUnbounded() && !loaded.isStale()) {
+                            hotPages.store(listing, dateSort, pageNumber, pageSize, loaded.getValue(),
+                                    () -> loadDatePage(listing, range, dateSort, null, pageNumber, pageSize));
+                        }
+                        return servePage("category", loaded, listing, ifNoneMatch);
+                    });
+        }
+        
+        // Replica mode - serve the page from memory
+        if (pageCursor != null && replica.isServing()) {
+            return CompletableFuture.completedFuture(servePage("category",
+                    replica.findPage(listing, pageCursor.getDocumentId(), pageNumber, pageSize), listing, ifNoneMatch));
+        }
+        
+        // Cursor provided - keyset pagination
+        if (pageCursor != null) {
+            String afterId = pageCursor.getDocumentId();
+            return lastKnownGood.get(pageKey("after", listing, afterId, pageNumber, pageSize),
+                            () -> repository.queryPageAfterAsync(COLLECTION_NAME, field, category, afterId, pageSize)
+                                    .thenApply(result -> {
+                                        List<NewsArticle> articles = toArticles(result.getDocuments());
+                                        return new PaginatedResponse<>(
+                                                articles,
+                                                pageNumber,
+                                                pageSize,
+                                                result.getTotalElements(),
+                                                (int) Math.ceil((double) result.getTotalElements() / pageSize),
+                                                result.hasMore(),
+                                                PageCursor.hasPrevious(result.getTotalElements(), articles.size(),
+                                                        result.hasMore()),
+                                                result.hasMore() ? PageCursor.after(articles) : null
+                                        );
+                                    }))
+                    .thenApply(loaded -> servePage("category", loaded, listing, ifNoneMatch));
+        }
+        
+        // No search - use normal pagination. Hot pages are kept pre-serialized and served by HotPageFilter from then on.
+        return lastKnownGood.get(pageKey("page", listing, pageNumber, pageSize), () -> loadPage(listing, pageNumber, pageSize))
+                .thenApply(loaded -> {
+                    if (!loaded.isStale()) {
+                        hotPages.store(listing, null, pageNumber, pageSize, loaded.getValue(),
+                                () -> loadPage(listing, pageNumber, pageSize));
+                    }
+                    return servePage("category", loaded, listing, ifNoneMatch);
+                });
+    }
+
+    /**
+     * Load a page of a listing by page number, from the replica when it is serving
+     * @param listing Category to list (null for every category)
+     */
+    private CompletableFuture<PaginatedResponse<NewsArticle>> loadPage(String listing, int pageNumber, int pageSize) {
+        if (replica.isServing()) {
+            return CompletableFuture.completedFuture(replica.findPage(listing, null, pageNumber, pageSize));
+        }
+        
+        CompletableFuture<NewsRepository.PaginationResult> resultFuture = listing == null
+                ? repository.getAllPaginatedAsync(COLLECTION_NAME, pageNumber, pageSize)
+                : repository.queryPaginatedAsync(COLLECTION_NAME, "category", listing, pageNumber, pageSize);
+        
+        return resultFuture.thenApply(result -> {
+            List<NewsArticle> articles = toArticles(result.getDocuments());
+            boolean hasNext = pageNumber < result.getTotalPages() - 1;
             
-            articles = result.getDocuments().stream()
-                    .map(doc -> NewsArticle.fromMap(doc.get("id").toString(), doc))
-                    .collect(Collectors.toList());
-            
-            totalElements = result.getTotalElements();
-            totalPages = result.getTotalPages();
+            // Offset pages are in document ID order too, so a cursor lets clients switch to keyset pagination
+            return new PaginatedResponse<>(
+                    articles,
+                    pageNumber,
+                    pageSize,
+                    result.getTotalElements(),
+                    result.getTotalPages(),
+                    hasNext,
+                    pageNumber > 0,
+                    hasNext ? PageCursor.after(articles) : null
+            );
+        });
+    }
+
+    /**
+     * Load a page of a listing in publication order, from the replica when it is serving
+     * @param listing Category to list (null for every category)
+     * @param after Cursor from the previous page (null to use the page number)
+     */
+    private CompletableFuture<PaginatedResponse<NewsArticle>> loadDatePage(String listing, DateRange range, DateSort sort,
+                                                                           PageCursor after, int pageNumber, int pageSize) {
+        if (replica.isServing()) {
+            return CompletableFuture.completedFuture(
+                    replica.findPageByDate(listing, range, sort, after, pageNumber, pageSize));
         }
+        return repository.queryByDateAsync(COLLECTION_NAME, listing == null ? null : "category", listing,
+                        range, sort, after, pageNumber, pageSize)
+                .thenApply(result -> toDatePage(result, after, pageNumber, pageSize));
+    }
+
+    /**
+     * Get featured news in publication order
+     * Query parameters:
+     * - sort: date_desc (default) or date_asc
+     * - from, to: publication time range, as for the category listing
+     * - page, cursor, size: pagination, as for the category listing
+     * Responses carry an ETag; a matching If-None-Match gets 304 Not Modified.
+     */
+    @GetMapping("/featured")
+    public CompletableFuture<ResponseEntity<PaginatedResponse<NewsArticle>>> getFeaturedNews(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        final int pageNumber = Math.max(page, 0);
+        final int pageSize = size < 1 ? 10 : Math.min(size, 100); // Max page size
         
-        PaginatedResponse<NewsArticle> response = new PaginatedResponse<>(
-                articles,
-                page,
-                size,
-                totalElements,
-                totalPages,
-                page < totalPages - 1,
-                page > 0
-        );
+        DateRange range;
+        DateSort dateSort;
+        PageCursor after = null;
+        try {
+            range = DateRange.parse(from, to);
+            dateSort = sort != null ? DateSort.parse(sort) : DateSort.DATE_DESC;
+            if (cursor != null && !cursor.isEmpty()) {
+                after = PageCursor.decodeDate(cursor);
+            }
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
         
-        return ResponseEntity.ok(response);
+        // Featured pages are tagged like the unfiltered listing, which every write purges,
+        // since an article entering or leaving the featured set is not on the cached pages yet
+        if (replica.isServing()) {
+            return CompletableFuture.completedFuture(servePage("featured",
+                    replica.findFeaturedPage(range, dateSort, after, pageNumber, pageSize), null, ifNoneMatch));
+        }
+        PageCursor afterCursor = after;
+        return lastKnownGood.get(pageKey("featured", null, range, dateSort, afterCursor, pageNumber, pageSize),
+                        () -> repository.queryByDateAsync(COLLECTION_NAME, "isFeatured", true,
+                                        range, dateSort, afterCursor, pageNumber, pageSize)
+                                .thenApply(result -> toDatePage(result, afterCursor, pageNumber, pageSize)))
+                .thenApply(loaded -> servePage("featured", loaded, null, ifNoneMatch));
     }
 
+    /**
+     * Get a news article. Responses carry an ETag (and Last-Modified when known); a matching
+     * If-None-Match or If-Modified-Since gets 304 Not Modified.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<NewsArticle> getNewsById(@PathVariable String id) {
-        Map<String, Object> data = firestoreService.get(COLLECTION_NAME, id);
-        if (data != null) {
-            NewsArticle article = NewsArticle.fromMap(id, data);
-            return ResponseEntity.ok(article);
+    public CompletableFuture<ResponseEntity<NewsArticle>> getNewsById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince) {
+        if (replica.isServing()) {
+            NewsArticle article = replica.get(id);
+            return CompletableFuture.completedFuture(article != null
+                    ? cachePolicy.article(article, null, ifNoneMatch, ifModifiedSince)
+                    : ResponseEntity.notFound().build());
         }
-        return ResponseEntity.notFound().build();
+        return lastKnownGood.get(LastKnownGoodCache.articleKey(id), () -> repository.getAsync(COLLECTION_NAME, id))
+                .thenApply(loaded -> {
+                    Map<String, Object> data = loaded.getValue();
+                    if (data == null) {
+                        return ResponseEntity.notFound().build();
+                    }
+                    NewsArticle article = NewsArticle.fromMap(id, data);
+                    ResponseEntity<NewsArticle> response = cachePolicy.article(
+                            article, HttpCachePolicy.lastModified(data), ifNoneMatch, ifModifiedSince);
+                    return loaded.isStale() ? HttpCachePolicy.stale(response, loaded.getAgeSeconds()) : response;
+                });
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateNews(@PathVariable String id, @RequestBody NewsArticle article) {
+    public CompletableFuture<ResponseEntity<?>> updateNews(@PathVariable String id, @RequestBody NewsArticle article) {
+        boolean hasNewImage = isNewImage(article.getImage());
+        if (hasNewImage && imageIngestion.isSaturated()) {
+            return CompletableFuture.completedFuture(imageQueueFull());
+        }
+        Path imageFile;
         try {
-            Map<String, Object> existingData = firestoreService.get(COLLECTION_NAME, id);
-            if (existingData == null) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            // Process image if it's base64
-            if (article.getImage() != null && !article.getImage().isEmpty()) {
-                // Check if it's a base64 data URL
-                if (article.getImage().startsWith("data:image/") || 
-                    (article.getImage().length() > 100 && !article.getImage().startsWith("http"))) {
-                    try {
-                        // Delete old image from Cloudinary if it exists
-                        String oldImage = existingData.get("image") != null ? 
-                            existingData.get("image").toString() : null;
-                        if (oldImage != null && oldImage.contains("cloudinary.com")) {
-                            try {
-                                imageService.deleteImage(oldImage);
-                            } catch (Exception e) {
-                                // Ignore deletion errors
-                            }
+            imageFile = hasNewImage ? claimImage(article.getImage()) : null;
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(invalidImage(e));
+        }
+        article.setImageStatus(imageFile != null ? ImageIngestionService.STATUS_PENDING : null);
+        if (imageFile != null) {
+            article.setImage(null);
+        }
+        
+        // The update runs in a callback, outside the request thread
+        RequestContext context = RequestContext.capture();
+        return repository.getAsync(COLLECTION_NAME, id)
+                .thenCompose(context.wrap(existingData -> {
+                    if (existingData == null) {
+                        if (imageFile != null) {
+                            imageSpool.delete(imageFile);
                         }
-                        
-                        String imageUrl = imageService.uploadBase64Image(article.getImage());
-                        article.setImage(imageUrl);
-                    } catch (IllegalArgumentException e) {
-                        Map<String, String> error = new HashMap<>();
-                        error.put("error", "Invalid image: " + e.getMessage());
-                        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-                    } catch (IOException e) {
-                        Map<String, String> error = new HashMap<>();
-                        error.put("error", "Failed to upload image: " + e.getMessage());
-                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+                        return CompletableFuture.<ResponseEntity<?>>completedFuture(ResponseEntity.notFound().build());
+                    }
+                    
+                    // The current image stays in place until the new one is uploaded, then it's queued for deletion
+                    String existingImage = existingData.get("image") != null ?
+                        existingData.get("image").toString() : null;
+                    String replacedImage = imageFile != null ? existingImage : null;
+                    
+                    Map<String, Object> updateData = article.toMap();
+                    return repository.updateAsync(COLLECTION_NAME, id, updateData)
+                            .<ResponseEntity<?>>thenApply(ignored -> {
+                                article.setId(id);
+                                
+                                // update() merges fields, so index the merged document rather than the request body
+                                Map<String, Object> mergedData = new HashMap<>(existingData);
+                                mergedData.putAll(updateData);
+                                NewsArticle mergedArticle = NewsArticle.fromMap(id, mergedData);
+                                searchIndex.put(mergedArticle);
+                                replica.recordWrite(mergedArticle);
+                                cacheInvalidator.articleChanged(id, categoryOf(existingData), mergedArticle.getCategory());
+                                if (imageFile != null) {
+                                    imageIngestion.submit(id, imageFile, replacedImage);
+                                }
+                                return ResponseEntity.ok(article);
+                            });
+                }))
+                .exceptionally(e -> {
+                    if (imageFile != null) {
+                        imageSpool.delete(imageFile);
                     }
-                }
+                    return errorResponse(e, "Failed to update news: ");
+                });
+    }
+
+    @DeleteMapping("/{id}")
+    public CompletableFuture<ResponseEntity<Map<String, String>>> deleteNews(@PathVariable String id) {
+        // The deletion runs in callbacks, outside the request thread
+        RequestContext context = RequestContext.capture();
+        return repository.getAsync(COLLECTION_NAME, id).thenCompose(context.wrap(existingData -> {
+            if (existingData == null) {
+                return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
             }
-            
-            Map<String, Object> updateData = article.toMap();
-            firestoreService.update(COLLECTION_NAME, id, updateData);
-            article.setId(id);
-            return ResponseEntity.ok(article);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to update news: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return repository.deleteAsync(COLLECTION_NAME, id)
+                    .thenCompose(context.wrap(ignored -> {
+                        searchIndex.remove(id);
+                        cacheInvalidator.articleChanged(id, categoryOf(existingData));
+                        return replica.recordDeletion(id)
+                                .exceptionally(e -> {
+                                    // The article is gone either way; other replicas keep it until they reload the collection
+                                    System.err.println("Warning: Failed to write tombstone of news " + id + ": "
+                                            + FutureUtil.unwrap(e).getMessage());
+                                    return null;
+                                });
+                    }))
+                    .thenCompose(context.wrap(ignored -> {
+                        if (deletionQueue == null) {
+                            return CompletableFuture.<Void>completedFuture(null);
+                        }
+                        // Hosted images are deleted in the background; only the queue entry is written here
+                        Object image = existingData.get("image");
+                        return deletionQueue.enqueue(image != null ? image.toString() : null)
+                                .exceptionally(e -> {
+                                    // The article is gone either way; the reconciler collects the image later
+                                    System.err.println("Warning: Failed to queue image of news " + id + " for deletion: "
+                                            + FutureUtil.unwrap(e).getMessage());
+                                    return null;
+                                });
+                    }))
+                    .thenApply(ignored -> {
+                        Map<String, String> response = new HashMap<>();
+                        response.put("message", "Successfully deleted");
+                        return ResponseEntity.ok(response);
+                    });
+        }));
+    }
+
+    /**
+     * Response for a listing page, counting the articles served
+     * @param source Listing the page comes from, for the metrics
+     * @param listing Category of the listing (null for every category)
+     */
+    private ResponseEntity<PaginatedResponse<NewsArticle>> servePage(String source, PaginatedResponse<NewsArticle> page,
+                                                                     String listing, String ifNoneMatch) {
+        metrics.pageServed(source, page.getContent().size());
+        return cachePolicy.page(page, listing, ifNoneMatch);
+    }
+
+    /**
+     * Serve a page that may be a last-known-good copy, marking copies as stale
+     */
+    private ResponseEntity<PaginatedResponse<NewsArticle>> servePage(
+            String source, LastKnownGoodCache.Result<PaginatedResponse<NewsArticle>> loaded,
+            String listing, String ifNoneMatch) {
+        ResponseEntity<PaginatedResponse<NewsArticle>> response = servePage(source, loaded.getValue(), listing, ifNoneMatch);
+        return loaded.isStale() ? HttpCachePolicy.stale(response, loaded.getAgeSeconds()) : response;
+    }
+
+    /**
+     * Last-known-good key of a page: its kind, listing (null for every category) and parameters
+     */
+    private static String pageKey(String kind, String listing, Object... parameters) {
+        StringBuilder key = new StringBuilder(kind).append('|').append(listing);
+        for (Object parameter : parameters) {
+            key.append('|').append(parameter instanceof PageCursor cursor ? cursor.encode() : parameter);
         }
+        return key.toString();
     }
 
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, String>> deleteNews(@PathVariable String id) {
-        Map<String, Object> existingData = firestoreService.get(COLLECTION_NAME, id);
-        if (existingData == null) {
-            return ResponseEntity.notFound().build();
+    /**
+     * Sort of a listing request: the requested one, newest first for a date range, otherwise none
+     */
+    private static DateSort sortOf(String sort, DateRange range) {
+        DateSort dateSort = DateSort.parse(sort);
+        return dateSort == null && !range.isUnbounded() ? DateSort.DATE_DESC : dateSort;
+    }
+
+    private static PaginatedResponse<NewsArticle> toDatePage(NewsRepository.CursorPaginationResult result,
+                                                             PageCursor after, int pageNumber, int pageSize) {
+        List<NewsArticle> articles = toArticles(result.getDocuments());
+        return new PaginatedResponse<>(
+                articles,
+                pageNumber,
+                pageSize,
+                result.getTotalElements(),
+                (int) Math.ceil((double) result.getTotalElements() / pageSize),
+                result.hasMore(),
+                after != null
+                        ? PageCursor.hasPrevious(result.getTotalElements(), articles.size(), result.hasMore())
+                        : pageNumber > 0,
+                result.hasMore() ? PageCursor.afterDate(articles) : null
+        );
+    }
+
+    private static String categoryOf(Map<String, Object> data) {
+        Object category = data.get("category");
+        return category != null ? category.toString() : null;
+    }
+
+    private static boolean isNewImage(String image) {
+        // Spooled while the request body was parsed, or inline base64 the filter didn't pick up
+        return ImageSpool.isToken(image) || isBase64Image(image);
+    }
+
+    private Path claimImage(String image) {
+        try {
+            return ImageSpool.isToken(image) ? imageSpool.claim(image) : imageSpool.spoolBase64(image);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        firestoreService.delete(COLLECTION_NAME, id);
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Successfully deleted");
-        return ResponseEntity.ok(response);
     }
-}
 
+    private static boolean isBase64Image(String image) {
+        // Check if it's a base64 data URL
+        return image != null && !image.isEmpty() &&
+                (image.startsWith("data:image/") || (image.length() > 100 && !image.startsWith("http")));
+    }
+
+    private static ResponseEntity<?> invalidImage(IllegalArgumentException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Invalid image: " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    private static ResponseEntity<?> imageQueueFull() {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Image upload queue is full, please retry later");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, IMAGE_QUEUE_RETRY_AFTER_SECONDS)
+                .body(error);
+    }
+
+    private static ResponseEntity<?> errorResponse(Throwable failure, String prefix) {
+        Throwable cause = FutureUtil.unwrap(failure);
+        if (cause instanceof OverloadedException overloaded) {
+            return OverloadExceptionHandler.response(overloaded);
+        }
+        if (cause instanceof DeadlineExceededException deadlineExceeded) {
+            return OverloadExceptionHandler.response(deadlineExceeded);
+        }
+        Map<String, String> error = new HashMap<>();
+        error.put("error", prefix + cause.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+    }
+
+    private static List<NewsArticle> toArticles(List<Map<String, Object>> documents) {
+        return documents.stream()
+                .map(doc -> NewsArticle.fromMap(doc.get("id").toString(), doc))
+                .collect(Collectors.toList());
+    }
+}
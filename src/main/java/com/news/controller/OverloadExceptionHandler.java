@@ -0,0 +1,52 @@
+package com.news.controller;
+
+import com.news.util.DeadlineExceededException;
+import com.news.util.OverloadedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Answers requests turned away by a concurrency limit (see {@link com.news.service.Bulkheads})
+ * with 503 Service Unavailable, or 429 Too Many Requests when only lower-priority requests are
+ * being shed, and a Retry-After header; and requests whose downstream calls missed their
+ * deadline with 504 Gateway Timeout.
+ */
+@RestControllerAdvice
+public class OverloadExceptionHandler {
+
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<Map<String, String>> handleOverloaded(OverloadedException e) {
+        return response(e);
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<Map<String, String>> handleDeadlineExceeded(DeadlineExceededException e) {
+        return response(e);
+    }
+
+    /**
+     * The response for a request turned away by a concurrency limit
+     */
+    public static ResponseEntity<Map<String, String>> response(OverloadedException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return ResponseEntity.status(e.isFull() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    /**
+     * The response for a request whose downstream call missed its deadline
+     */
+    public static ResponseEntity<Map<String, String>> response(DeadlineExceededException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(error);
+    }
+}
@@ -0,0 +1,167 @@
+package com.news.filter;
+
+import com.news.service.Bulkheads;
+import com.news.util.AdaptiveLimiter;
+import com.news.util.OverloadedException;
+import com.news.util.RequestDeadline;
+import com.news.util.RequestPriority;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Admission control: every API request takes a slot of the requests limit for as long as it
+ * is handled, including while an async controller waits on Firestore or the image host.
+ * Requests over their priority class's share are turned away before authentication or any
+ * other work, with 503 (limit full) or 429 (room held back for higher-priority requests) and
+ * a Retry-After header. The request's {@link RequestPriority} is set for the controller thread,
+ * so the downstream bulkheads shed by the same classes.
+ *
+ * Each request also gets a time budget, the configured maximum or less if the caller sends a
+ * shorter one in the timeout header (e.g. a proxy's remaining timeout). It is set as the
+ * {@link RequestDeadline} of the controller thread, so downstream calls give up when the
+ * caller would, and those still in flight are cancelled if the request ends early.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final Bulkheads bulkheads;
+    private final long maxBudgetMillis;
+    private final String timeoutHeader;
+
+    public AdmissionFilter(Bulkheads bulkheads,
+                           @Value("${news.request.timeout-ms:20000}") long maxBudgetMillis,
+                           @Value("${news.request.timeout-header:X-Request-Timeout-Ms}") String timeoutHeader) {
+        this.bulkheads = bulkheads;
+        this.maxBudgetMillis = maxBudgetMillis;
+        this.timeoutHeader = timeoutHeader;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/") || path.startsWith("/api/health");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestPriority priority = classify(request);
+        AdaptiveLimiter.Permit permit;
+        try {
+            permit = bulkheads.requests().acquire(priority);
+        } catch (OverloadedException e) {
+            reject(response, e);
+            return;
+        }
+
+        boolean async = false;
+        RequestDeadline deadline = new RequestDeadline(budgetMillis(request));
+        RequestPriority.setCurrent(priority);
+        RequestDeadline.setCurrent(deadline);
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(permit, deadline));
+                async = true;
+            }
+        } finally {
+            RequestPriority.setCurrent(null);
+            RequestDeadline.setCurrent(null);
+            if (!async) {
+                permit.release(response.getStatus() >= 500);
+            }
+        }
+    }
+
+    /**
+     * Priority class of a request, by path and method
+     */
+    static RequestPriority classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/images") || path.startsWith("/api/admin/news/import")) {
+            return RequestPriority.UPLOAD;
+        }
+        if (path.startsWith("/api/news") && "GET".equals(request.getMethod())) {
+            return RequestPriority.PUBLIC_READ;
+        }
+        return RequestPriority.ADMIN;
+    }
+
+    /**
+     * Time budget of a request: the maximum, or the caller's shorter timeout
+     */
+    private long budgetMillis(HttpServletRequest request) {
+        String timeout = request.getHeader(timeoutHeader);
+        if (timeout != null) {
+            try {
+                long callerMillis = Long.parseLong(timeout.trim());
+                if (callerMillis > 0) {
+                    return Math.min(callerMillis, maxBudgetMillis);
+                }
+            } catch (NumberFormatException e) {
+                // Ignored: the maximum applies
+            }
+        }
+        return maxBudgetMillis;
+    }
+
+    private static void reject(HttpServletResponse response, OverloadedException e) throws IOException {
+        response.setStatus(e.isFull() ? HttpServletResponse.SC_SERVICE_UNAVAILABLE : 429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+    }
+
+    /**
+     * Releases the slot of an async request when its response is done, and cancels its
+     * downstream calls if it times out or the connection fails
+     */
+    private static class ReleaseListener implements AsyncListener {
+        private final AdaptiveLimiter.Permit permit;
+        private final RequestDeadline deadline;
+
+        ReleaseListener(AdaptiveLimiter.Permit permit, RequestDeadline deadline) {
+            this.permit = permit;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            permit.release(response != null && response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            deadline.cancel();
+            permit.release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            deadline.cancel();
+            permit.release(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Async restarted for the same request; keep the slot
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.news.filter;
+
+import com.news.service.ImageSpool;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Decodes base64 data URL images in JSON request bodies to disk while the body is read.
+ * A JSON string value starting with {@code data:image/...;base64,} is streamed through a
+ * base64 decoder into an {@link ImageSpool} file and replaced by a {@code spool:<uuid>}
+ * token, so neither the base64 text nor the decoded image is ever held in memory.
+ * Spooled files the handler didn't claim are deleted when the request ends.
+ */
+@Component
+public class Base64ImageSpoolingFilter extends OncePerRequestFilter {
+
+    private final ImageSpool imageSpool;
+
+    public Base64ImageSpoolingFilter(ImageSpool imageSpool) {
+        this.imageSpool = imageSpool;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"POST".equals(method) && !"PUT".equals(method)) {
+            return true;
+        }
+        String contentType = request.getContentType();
+        if (contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/news") && !path.equals("/api/images/upload-base64");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        List<Path> spooled = new ArrayList<>();
+        try {
+            chain.doFilter(new SpoolingRequest(request, imageSpool, spooled), response);
+        } finally {
+            // Claimed files were moved away; whatever is left was not used
+            for (Path file : spooled) {
+                imageSpool.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Request whose body has images replaced by spool tokens. The body length changes,
+     * so Content-Length is hidden.
+     */
+    private static class SpoolingRequest extends HttpServletRequestWrapper {
+
+        private final ImageSpool imageSpool;
+        private final List<Path> spooled;
+        private SpoolingInputStream inputStream;
+
+        private SpoolingRequest(HttpServletRequest request, ImageSpool imageSpool, List<Path> spooled) {
+            super(request);
+            this.imageSpool = imageSpool;
+            this.spooled = spooled;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new SpoolingInputStream(super.getInputStream(), imageSpool, spooled);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? encoding : StandardCharsets.UTF_8.name()));
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)
+                    ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(HttpHeaders.CONTENT_LENGTH::equalsIgnoreCase);
+            return Collections.enumeration(names);
+        }
+    }
+
+    /**
+     * Passes JSON through unchanged except for data URL image strings, which are decoded
+     * to a spool file in fixed-size chunks. Only ASCII bytes are inspected, so multi-byte
+     * UTF-8 sequences pass through untouched.
+     */
+    private static class SpoolingInputStream extends ServletInputStream {
+
+        private static final byte[] DATA_URL_PREFIX = "data:image/".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] BASE64_MARKER = ";base64".getBytes(StandardCharsets.US_ASCII);
+        private static final int MAX_MEDIA_TYPE_LENGTH = 64;
+        private static final int CHUNK_SIZE = 16 * 1024; // Multiple of 4, so chunks decode independently
+
+        private final ServletInputStream source;
+        private final PushbackInputStream in;
+        private final ImageSpool imageSpool;
+        private final List<Path> spooled;
+        private byte[] replacement = new byte[0];
+        private int replacementPosition;
+        private boolean inString;
+        private boolean escaped;
+
+        private SpoolingInputStream(ServletInputStream source, ImageSpool imageSpool, List<Path> spooled) {
+            this.source = source;
+            this.in = new PushbackInputStream(new BufferedInputStream(source, 8192),
+                    DATA_URL_PREFIX.length + MAX_MEDIA_TYPE_LENGTH);
+            this.imageSpool = imageSpool;
+            this.spooled = spooled;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (replacementPosition < replacement.length) {
+                return replacement[replacementPosition++] & 0xFF;
+            }
+            int b = in.read();
+            if (b < 0) {
+                return -1;
+            }
+            if (!inString) {
+                if (b == '"') {
+                    inString = true;
+                    trySpool(); // On a match the token and closing quote are returned next
+                }
+                return b;
+            }
+            if (escaped) {
+                escaped = false;
+            } else if (b == '\\') {
+                escaped = true;
+            } else if (b == '"') {
+                inString = false;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            int count = 0;
+            while (count < length) {
+                int b = read();
+                if (b < 0) {
+                    return count == 0 ? -1 : count;
+                }
+                buffer[offset + count++] = (byte) b;
+                if (in.available() == 0 && replacementPosition >= replacement.length) {
+                    break; // Don't block for more input than is needed
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isFinished() {
+            try {
+                return replacementPosition >= replacement.length && in.available() == 0 && source.isFinished();
+            } catch (IOException e) {
+                return true;
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return source.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            source.setReadListener(readListener);
+        }
+
+        /**
+         * Called right after an opening quote. If the string is a base64 data URL image,
+         * decode it to a spool file and queue its token plus the closing quote as output;
+         * otherwise leave the input where it was.
+         */
+        private void trySpool() throws IOException {
+            byte[] header = new byte[DATA_URL_PREFIX.length + MAX_MEDIA_TYPE_LENGTH];
+            int length = 0;
+            boolean matched = false;
+            while (length < header.length) {
+                int b = in.read();
+                if (b < 0) {
+                    break;
+                }
+                header[length++] = (byte) b;
+                if (length <= DATA_URL_PREFIX.length) {
+                    if (b != DATA_URL_PREFIX[length - 1]) {
+                        break;
+                    }
+                } else if (b == ',') {
+                    matched = endsWith(header, length - 1, BASE64_MARKER);
+                    break;
+                } else if (b == '"' || b == '\\') {
+                    break;
+                }
+            }
+            if (!matched) {
+                in.unread(header, 0, length);
+                return;
+            }
+
+            Path file = imageSpool.newFile();
+            spooled.add(file);
+            spoolBase64(file);
+            replacement = (imageSpool.tokenFor(file) + "\"").getBytes(StandardCharsets.US_ASCII);
+            replacementPosition = 0;
+            inString = false;
+        }
+
+        private void spoolBase64(Path file) throws IOException {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] chunk = new byte[CHUNK_SIZE];
+            int length = 0;
+            long written = 0;
+            try (OutputStream out = Files.newOutputStream(file)) {
+                while (true) {
+                    int b = in.read();
+                    if (b < 0) {
+                        throw new EOFException("Unterminated image data");
+                    }
+                    if (b == '"') {
+                        break;
+                    }
+                    if (b == '\\') {
+                        b = in.read();
+                        if (b == 'n' || b == 'r') {
+                            continue; // Line-wrapped base64
+                        }
+                        if (b != '/') {
+                            throw new IOException("Invalid image data");
+                        }
+                    }
+                    chunk[length++] = (byte) b;
+                    if (length == chunk.length) {
+                        written += decode(decoder, chunk, length, out);
+                        length = 0;
+                        if (written > imageSpool.getMaxBytes()) {
+                            throw new IOException("Image size exceeds " + (imageSpool.getMaxBytes() / (1024 * 1024)) + "MB limit");
+                        }
+                    }
+                }
+                written += decode(decoder, chunk, length, out);
+            }
+            if (written == 0 || written > imageSpool.getMaxBytes()) {
+                throw new IOException(written == 0 ? "Image data is empty"
+                        : "Image size exceeds " + (imageSpool.getMaxBytes() / (1024 * 1024)) + "MB limit");
+            }
+        }
+
+        private static long decode(Base64.Decoder decoder, byte[] chunk, int length, OutputStream out) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            ByteBuffer decoded;
+            try {
+                decoded = decoder.decode(ByteBuffer.wrap(chunk, 0, length));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid image data: " + e.getMessage());
+            }
+            out.write(decoded.array(), decoded.arrayOffset() + decoded.position(), decoded.remaining());
+            return decoded.remaining();
+        }
+
+        private static boolean endsWith(byte[] bytes, int end, byte[] suffix) {
+            if (end < suffix.length) {
+                return false;
+            }
+            for (int i = 0; i < suffix.length; i++) {
+                if (bytes[end - suffix.length + i] != suffix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
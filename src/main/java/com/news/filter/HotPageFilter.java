@@ -0,0 +1,132 @@
+package com.news.filter;
+
+import com.news.model.DateSort;
+import com.news.service.HotPageCache;
+import com.news.util.HttpCachePolicy;
+import com.news.util.NewsMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+
+/**
+ * Answers first-page category listings from the {@link HotPageCache}, writing the
+ * pre-serialized (and pre-compressed) bytes straight to the response without going through
+ * the controller, Jackson or a Firestore read. Misses, and requests with search terms, a
+ * date range or a cursor, continue to {@link com.news.controller.NewsController}, which fills the cache.
+ */
+@Component
+public class HotPageFilter extends OncePerRequestFilter {
+
+    private static final String PATH_PREFIX = "/api/news/category/";
+
+    private final HotPageCache hotPages;
+    private final HttpCachePolicy cachePolicy;
+    private final NewsMetrics metrics;
+
+    public HotPageFilter(HotPageCache hotPages, HttpCachePolicy cachePolicy, NewsMetrics metrics) {
+        this.hotPages = hotPages;
+        this.cachePolicy = cachePolicy;
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || !request.getRequestURI().startsWith(request.getContextPath() + PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HotPageCache.RenderedPage page = lookup(request);
+        if (page == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        metrics.pageServed("hot-page", page.getItemCount());
+
+        boolean gzip = acceptsGzip(request);
+        String etag = gzip ? page.getGzipEtag() : page.getEtag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, page.getCacheControl());
+        response.setHeader(cachePolicy.getSurrogateKeyHeader(), page.getSurrogateKeyHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && HttpCachePolicy.matches(ifNoneMatch, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = gzip ? page.getGzip() : page.getJson();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(body);
+        out.flush();
+    }
+
+    /**
+     * The cached page for a plain first-page request, or null if the request must go to the controller
+     */
+    private HotPageCache.RenderedPage lookup(HttpServletRequest request) {
+        String segment = request.getRequestURI().substring(request.getContextPath().length() + PATH_PREFIX.length());
+        if (segment.isEmpty() || segment.indexOf('/') >= 0) {
+            return null;
+        }
+        int page = 0;
+        int size = 10;
+        DateSort sort = null;
+        Enumeration<String> names = request.getParameterNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            String value = request.getParameter(name);
+            try {
+                if (name.equals("page")) {
+                    page = Integer.parseInt(value);
+                } else if (name.equals("size")) {
+                    size = Integer.parseInt(value);
+                } else if (name.equals("sort")) {
+                    sort = DateSort.parse(value);
+                } else {
+                    return null; // search, cursor, or anything the controller should see
+                }
+            } catch (IllegalArgumentException e) {
+                return null; // Invalid numbers and sorts get the controller's error response
+            }
+        }
+        if (!hotPages.isHot(page, size)) {
+            return null;
+        }
+        String category = UriUtils.decode(segment, StandardCharsets.UTF_8);
+        return hotPages.get("all".equalsIgnoreCase(category) ? null : category, sort, page, size);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<String> values = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (values.hasMoreElements()) {
+            for (String coding : values.nextElement().split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,71 @@
+package com.news.model;
+
+import com.news.util.PublishDates;
+
+import java.time.Instant;
+
+/**
+ * Publication time range of a listing ({@code from}/{@code to} parameters).
+ * {@code from} is inclusive and {@code to} exclusive; a plain date as {@code to} covers that whole day.
+ */
+public class DateRange {
+
+    public static final DateRange UNBOUNDED = new DateRange(null, null);
+
+    private final Instant from;
+    private final Instant to;
+
+    public DateRange(Instant from, Instant to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Parse the from/to request parameters
+     * @param from Lower bound, or null
+     * @param to Upper bound, or null
+     * @return The range
+     * @throws IllegalArgumentException if a bound is not a date or the range is reversed
+     */
+    public static DateRange parse(String from, String to) {
+        Instant start = PublishDates.parse(from);
+        if (start == null && from != null && !from.isBlank()) {
+            throw new IllegalArgumentException("Invalid from date: " + from);
+        }
+        Instant end = PublishDates.parseEnd(to);
+        if (end == null && to != null && !to.isBlank()) {
+            throw new IllegalArgumentException("Invalid to date: " + to);
+        }
+        if (start != null && end != null && !start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        return start == null && end == null ? UNBOUNDED : new DateRange(start, end);
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public boolean isUnbounded() {
+        return from == null && to == null;
+    }
+
+    /**
+     * Whether a publication time falls in the range. Articles without one only match the unbounded range.
+     */
+    public boolean contains(Instant publishedAt) {
+        if (publishedAt == null) {
+            return isUnbounded();
+        }
+        return (from == null || !publishedAt.isBefore(from)) && (to == null || publishedAt.isBefore(to));
+    }
+
+    @Override
+    public String toString() {
+        return "[" + from + "," + to + ")";
+    }
+}
@@ -0,0 +1,53 @@
+package com.news.model;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Order of a listing sorted by publication time ({@code sort=date_desc|date_asc}).
+ * Ties are broken by document ID in the same direction, like the Firestore queries.
+ */
+public enum DateSort {
+    DATE_DESC,
+    DATE_ASC;
+
+    private static final Comparator<NewsArticle> ASCENDING = Comparator
+            .comparing(NewsArticle::getPublishedAt, Comparator.nullsFirst(Comparator.<Instant>naturalOrder()))
+            .thenComparing(NewsArticle::getId);
+
+    /**
+     * Parse the sort request parameter
+     * @param value "date_desc" or "date_asc" (case-insensitive), or null
+     * @return The sort, or null for the default document ID order
+     * @throws IllegalArgumentException if the value is not a known sort
+     */
+    public static DateSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sort: " + value + " (expected date_desc or date_asc)");
+        }
+    }
+
+    public boolean isDescending() {
+        return this == DATE_DESC;
+    }
+
+    /**
+     * Comparator putting articles in this order
+     */
+    public Comparator<NewsArticle> comparator() {
+        return isDescending() ? ASCENDING.reversed() : ASCENDING;
+    }
+
+    /**
+     * Ascending (publishedAt, document ID) order, shared by every sorted in-memory listing
+     */
+    public static Comparator<NewsArticle> ascending() {
+        return ASCENDING;
+    }
+}
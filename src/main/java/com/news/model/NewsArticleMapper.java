@@ -0,0 +1,150 @@
+package com.news.model;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.news.util.PublishDates;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps articles to and from stored documents. Reads look each field up once, and
+ * {@link #fromSnapshot(DocumentSnapshot)} decodes only the article fields of a Firestore
+ * document instead of building its full data map first. Values are coerced leniently:
+ * strings from any type by toString(), booleans from Boolean or its string form.
+ */
+public final class NewsArticleMapper {
+
+    private static final String TITLE_ENGLISH = "titleEnglish";
+    private static final String TITLE_ARABIC = "titleArabic";
+    private static final String DESCRIPTION_ENGLISH = "descriptionEnglish";
+    private static final String DESCRIPTION_ARABIC = "descriptionArabic";
+    private static final String IMAGE = "image";
+    private static final String IMAGE_STATUS = "imageStatus";
+    private static final String DATE = "date";
+    private static final String CATEGORY = "category";
+    private static final String IS_ARABIC = "isArabic";
+    private static final String IS_ENGLISH = "isEnglish";
+    private static final String IS_FEATURED = "isFeatured";
+
+    // Parsed once; DocumentSnapshot.get(String) would split the dotted path on every call
+    private static final FieldPath TITLE_ENGLISH_PATH = FieldPath.of(TITLE_ENGLISH);
+    private static final FieldPath TITLE_ARABIC_PATH = FieldPath.of(TITLE_ARABIC);
+    private static final FieldPath DESCRIPTION_ENGLISH_PATH = FieldPath.of(DESCRIPTION_ENGLISH);
+    private static final FieldPath DESCRIPTION_ARABIC_PATH = FieldPath.of(DESCRIPTION_ARABIC);
+    private static final FieldPath IMAGE_PATH = FieldPath.of(IMAGE);
+    private static final FieldPath IMAGE_STATUS_PATH = FieldPath.of(IMAGE_STATUS);
+    private static final FieldPath DATE_PATH = FieldPath.of(DATE);
+    private static final FieldPath PUBLISHED_AT_PATH = FieldPath.of(NewsArticle.PUBLISHED_AT_FIELD);
+    private static final FieldPath CATEGORY_PATH = FieldPath.of(CATEGORY);
+    private static final FieldPath IS_ARABIC_PATH = FieldPath.of(IS_ARABIC);
+    private static final FieldPath IS_ENGLISH_PATH = FieldPath.of(IS_ENGLISH);
+    private static final FieldPath IS_FEATURED_PATH = FieldPath.of(IS_FEATURED);
+
+    // Room for every article field without resizing
+    private static final int MAP_CAPACITY = 16;
+
+    private NewsArticleMapper() {
+    }
+
+    /**
+     * Create an article from document data
+     * @param id The document ID
+     * @param data The document fields
+     * @return The article
+     */
+    public static NewsArticle fromMap(String id, Map<String, Object> data) {
+        NewsArticle article = new NewsArticle();
+        article.setId(id);
+        article.setTitleEnglish(string(data.get(TITLE_ENGLISH)));
+        article.setTitleArabic(string(data.get(TITLE_ARABIC)));
+        article.setDescriptionEnglish(string(data.get(DESCRIPTION_ENGLISH)));
+        article.setDescriptionArabic(string(data.get(DESCRIPTION_ARABIC)));
+        article.setImage(string(data.get(IMAGE)));
+        article.setImageStatus(string(data.get(IMAGE_STATUS)));
+        article.setDate(string(data.get(DATE)));
+        article.setPublishedAt(publishedAt(data.get(NewsArticle.PUBLISHED_AT_FIELD), article.getDate()));
+        article.setCategory(string(data.get(CATEGORY)));
+        article.setIsArabic(bool(data.get(IS_ARABIC)));
+        article.setIsEnglish(bool(data.get(IS_ENGLISH)));
+        article.setIsFeatured(bool(data.get(IS_FEATURED)));
+        return article;
+    }
+
+    /**
+     * Create an article from a Firestore document, decoding only the article fields
+     * @param document The document, which must exist
+     * @return The article
+     */
+    public static NewsArticle fromSnapshot(DocumentSnapshot document) {
+        NewsArticle article = new NewsArticle();
+        article.setId(document.getId());
+        article.setTitleEnglish(string(document.get(TITLE_ENGLISH_PATH)));
+        article.setTitleArabic(string(document.get(TITLE_ARABIC_PATH)));
+        article.setDescriptionEnglish(string(document.get(DESCRIPTION_ENGLISH_PATH)));
+        article.setDescriptionArabic(string(document.get(DESCRIPTION_ARABIC_PATH)));
+        article.setImage(string(document.get(IMAGE_PATH)));
+        article.setImageStatus(string(document.get(IMAGE_STATUS_PATH)));
+        article.setDate(string(document.get(DATE_PATH)));
+        article.setPublishedAt(publishedAt(document.get(PUBLISHED_AT_PATH), article.getDate()));
+        article.setCategory(string(document.get(CATEGORY_PATH)));
+        article.setIsArabic(bool(document.get(IS_ARABIC_PATH)));
+        article.setIsEnglish(bool(document.get(IS_ENGLISH_PATH)));
+        article.setIsFeatured(bool(document.get(IS_FEATURED_PATH)));
+        return article;
+    }
+
+    /**
+     * Convert an article to document data, leaving out unset fields
+     * @param article The article
+     * @return The document fields, with publishedAt resolved from the date
+     */
+    public static Map<String, Object> toMap(NewsArticle article) {
+        Map<String, Object> map = new HashMap<>(MAP_CAPACITY);
+        putIfSet(map, TITLE_ENGLISH, article.getTitleEnglish());
+        putIfSet(map, TITLE_ARABIC, article.getTitleArabic());
+        putIfSet(map, DESCRIPTION_ENGLISH, article.getDescriptionEnglish());
+        putIfSet(map, DESCRIPTION_ARABIC, article.getDescriptionArabic());
+        putIfSet(map, IMAGE, article.getImage());
+        putIfSet(map, IMAGE_STATUS, article.getImageStatus());
+        putIfSet(map, DATE, article.getDate());
+        Instant published = article.resolvePublishedAt();
+        if (published != null) {
+            map.put(NewsArticle.PUBLISHED_AT_FIELD,
+                    Timestamp.ofTimeSecondsAndNanos(published.getEpochSecond(), published.getNano()));
+        }
+        putIfSet(map, CATEGORY, article.getCategory());
+        putIfSet(map, IS_ARABIC, article.getIsArabic());
+        putIfSet(map, IS_ENGLISH, article.getIsEnglish());
+        putIfSet(map, IS_FEATURED, article.getIsFeatured());
+        return map;
+    }
+
+    private static void putIfSet(Map<String, Object> map, String field, Object value) {
+        if (value != null) {
+            map.put(field, value);
+        }
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static Boolean bool(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return Boolean.parseBoolean(value.toString());
+    }
+
+    private static Instant publishedAt(Object value, String date) {
+        if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            return Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
+        }
+        // Documents written before publishedAt existed and not backfilled yet
+        return PublishDates.parse(date);
+    }
+}
@@ -0,0 +1,125 @@
+package com.news.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque keyset pagination cursor.
+ * Encodes the orderBy value and the document ID of the last item of a page so the next
+ * page can be read with startAfter instead of an offset.
+ */
+public class PageCursor {
+
+    private static final String SEPARATOR = ".";
+
+    private final String lastValue;
+    private final String documentId;
+
+    public PageCursor(String lastValue, String documentId) {
+        this.lastValue = lastValue;
+        this.documentId = documentId;
+    }
+
+    public String getLastValue() {
+        return lastValue;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    /**
+     * Cursor token pointing after the last article of a page in document ID order
+     * @param articles The articles of the page
+     * @return The encoded cursor, or null if the page is empty
+     */
+    public static String after(List<NewsArticle> articles) {
+        if (articles.isEmpty()) {
+            return null;
+        }
+        return new PageCursor(null, articles.get(articles.size() - 1).getId()).encode();
+    }
+
+    /**
+     * Cursor token pointing after the last article of a page in publication order
+     * @param articles The articles of the page
+     * @return The encoded cursor, or null if the page is empty
+     */
+    public static String afterDate(List<NewsArticle> articles) {
+        if (articles.isEmpty()) {
+            return null;
+        }
+        NewsArticle last = articles.get(articles.size() - 1);
+        return new PageCursor(String.valueOf(last.getPublishedAt()), last.getId()).encode();
+    }
+
+    /**
+     * Publication time of the last article, for cursors from {@link #afterDate(List)}
+     * @throws IllegalArgumentException if the cursor carries no publication time
+     */
+    public Instant getLastPublishedAt() {
+        return parsePublishedAt(lastValue);
+    }
+
+    /**
+     * Whether a page read after a cursor has articles before it. Exact for the last page,
+     * whose articles are all those after the cursor; a page with more after it is taken to
+     * follow an earlier page, as cursors come from one.
+     * @param totalElements Articles in the listing
+     * @param pageElements Articles on the page
+     * @param hasMore Whether more articles follow the page
+     */
+    public static boolean hasPrevious(long totalElements, int pageElements, boolean hasMore) {
+        return hasMore || totalElements > pageElements;
+    }
+
+    /**
+     * Encode the cursor as a URL-safe token
+     */
+    public String encode() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String value = lastValue != null ? encoder.encodeToString(lastValue.getBytes(StandardCharsets.UTF_8)) : "";
+        return value + SEPARATOR + encoder.encodeToString(documentId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        int separatorIndex = token.indexOf(SEPARATOR);
+        if (separatorIndex < 0 || separatorIndex == token.length() - 1) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        String value = separatorIndex > 0
+                ? new String(decoder.decode(token.substring(0, separatorIndex)), StandardCharsets.UTF_8)
+                : null;
+        String documentId = new String(decoder.decode(token.substring(separatorIndex + 1)), StandardCharsets.UTF_8);
+        return new PageCursor(value, documentId);
+    }
+
+    /**
+     * Decode a token produced by {@link #afterDate(List)}, for pages in publication order
+     * @throws IllegalArgumentException if the token is malformed or carries no publication time
+     */
+    public static PageCursor decodeDate(String token) {
+        PageCursor cursor = decode(token);
+        parsePublishedAt(cursor.lastValue); // Throws for a cursor without a valid publication time
+        return cursor;
+    }
+
+    private static Instant parsePublishedAt(String lastValue) {
+        if (lastValue == null) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            return Instant.parse(lastValue);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.news.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,5 +18,13 @@ public class PaginatedResponse<T> {
     private int totalPages;
     private boolean hasNext;
     private boolean hasPrevious;
+    // Opaque keyset cursor for the next page (omitted when there is none)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    public PaginatedResponse(List<T> content, int page, int size, long totalElements, int totalPages,
+                             boolean hasNext, boolean hasPrevious) {
+        this(content, page, size, totalElements, totalPages, hasNext, hasPrevious, null);
+    }
 }
 
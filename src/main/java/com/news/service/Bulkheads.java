@@ -0,0 +1,93 @@
+package com.news.service;
+
+import com.news.util.AdaptiveLimiter;
+import com.news.util.NewsMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Concurrency limits, so no one downstream or request class can take every thread and
+ * connection: requests in flight (fixed, applied by {@link com.news.filter.AdmissionFilter}),
+ * and one latency-adapted {@link AdaptiveLimiter} each for Firestore reads, Firestore writes
+ * and image host calls. Calls over a limit fail fast with
+ * {@link com.news.util.OverloadedException}.
+ */
+@Component
+public class Bulkheads {
+
+    private final AdaptiveLimiter requests;
+    private final AdaptiveLimiter firestoreReads;
+    private final AdaptiveLimiter firestoreWrites;
+    private final AdaptiveLimiter images;
+    private final long retryAfterSeconds;
+
+    public Bulkheads(NewsMetrics metrics,
+                     @Value("${news.bulkhead.retry-after-seconds:1}") long retryAfterSeconds,
+                     @Value("${news.bulkhead.latency-tolerance:2.0}") double tolerance,
+                     @Value("${news.bulkhead.requests.max:400}") int maxRequests,
+                     @Value("${news.bulkhead.firestore-reads.min:8}") int minReads,
+                     @Value("${news.bulkhead.firestore-reads.initial:64}") int initialReads,
+                     @Value("${news.bulkhead.firestore-reads.max:256}") int maxReads,
+                     @Value("${news.bulkhead.firestore-writes.min:4}") int minWrites,
+                     @Value("${news.bulkhead.firestore-writes.initial:32}") int initialWrites,
+                     @Value("${news.bulkhead.firestore-writes.max:64}") int maxWrites,
+                     @Value("${news.bulkhead.images.min:2}") int minImages,
+                     @Value("${news.bulkhead.images.initial:8}") int initialImages,
+                     @Value("${news.bulkhead.images.max:16}") int maxImages) {
+        this.requests = new AdaptiveLimiter("requests", maxRequests, maxRequests, maxRequests,
+                tolerance, retryAfterSeconds, metrics);
+        this.firestoreReads = new AdaptiveLimiter("firestore-reads", initialReads, minReads, maxReads,
+                tolerance, retryAfterSeconds, metrics);
+        this.firestoreWrites = new AdaptiveLimiter("firestore-writes", initialWrites, minWrites, maxWrites,
+                tolerance, retryAfterSeconds, metrics);
+        this.images = new AdaptiveLimiter("images", initialImages, minImages, maxImages,
+                tolerance, retryAfterSeconds, metrics);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Requests being handled, including async ones waiting on a downstream
+     */
+    public AdaptiveLimiter requests() {
+        return requests;
+    }
+
+    public AdaptiveLimiter firestoreReads() {
+        return firestoreReads;
+    }
+
+    public AdaptiveLimiter firestoreWrites() {
+        return firestoreWrites;
+    }
+
+    /**
+     * Calls to the image host (uploads, deletions, listings)
+     */
+    public AdaptiveLimiter images() {
+        return images;
+    }
+
+    /**
+     * Retry-After, in seconds, given to turned away callers
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Current limit and calls in flight of each limit
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (AdaptiveLimiter limiter : new AdaptiveLimiter[] {requests, firestoreReads, firestoreWrites, images}) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("limit", limiter.getLimit());
+            entry.put("inFlight", limiter.getInFlight());
+            stats.put(limiter.getName(), entry);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,18 @@
+package com.news.service;
+
+import java.util.Collection;
+
+/**
+ * Invalidates cached HTTP responses in front of the API (CDN or reverse proxy) by surrogate
+ * key, see {@link com.news.util.HttpCachePolicy}. Selected with news.http.cache.purger:
+ * "none" (default) or "http", which posts the keys to a purge endpoint.
+ */
+public interface CachePurger {
+
+    /**
+     * Purge every cached response tagged with any of these keys. Runs in the background;
+     * failures are logged, cached copies then expire on their own.
+     * @param surrogateKeys Surrogate keys to purge
+     */
+    void purge(Collection<String> surrogateKeys);
+}
@@ -2,19 +2,95 @@ package com.news.service;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import com.news.util.AdaptiveLimiter;
+import com.news.util.NewsMetrics;
+import com.news.util.OverloadedException;
+import com.news.util.RequestPriority;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
-public class CloudinaryImageService {
+@ConditionalOnProperty(name = "news.images.uploader", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryImageService implements ImageUploader {
+
+    private static final String FOLDER = "news";
+    // Uploads of content that is being deleted wait for the deletion, then upload again
+    private static final int REGISTER_ATTEMPTS = 3;
+    private static final long DELETION_WAIT_MILLIS = 1000;
 
     private final Cloudinary cloudinary;
+    private final Executor uploadExecutor;
+    private final ImageSpool imageSpool;
+    private final ImageHashIndex hashIndex; // Null with in-memory storage: no deduplication, no deletions
+    private final NewsMetrics metrics;
+    private final Bulkheads bulkheads;
 
-    public CloudinaryImageService(Cloudinary cloudinary) {
+    public CloudinaryImageService(Cloudinary cloudinary, @Qualifier("imageUploadExecutor") Executor uploadExecutor,
+                                  ImageSpool imageSpool, ObjectProvider<ImageHashIndex> hashIndex, NewsMetrics metrics,
+                                  Bulkheads bulkheads) {
         this.cloudinary = cloudinary;
+        this.uploadExecutor = uploadExecutor;
+        this.imageSpool = imageSpool;
+        this.hashIndex = hashIndex.getIfAvailable();
+        this.metrics = metrics;
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * Upload image to Cloudinary on the upload pool
+     * @see #uploadImage(MultipartFile)
+     */
+    @Override
+    public CompletableFuture<String> uploadImageAsync(MultipartFile file) {
+        return runAsync(() -> uploadImage(file));
+    }
+
+    /**
+     * Upload image file to Cloudinary on the upload pool
+     * @see #uploadImage(Path)
+     */
+    @Override
+    public CompletableFuture<String> uploadImageAsync(Path imageFile) {
+        return runAsync(() -> uploadImage(imageFile));
+    }
+
+    /**
+     * Upload base64 image to Cloudinary on the upload pool
+     * @see #uploadBase64Image(String)
+     */
+    @Override
+    public CompletableFuture<String> uploadBase64ImageAsync(String base64Image) {
+        return runAsync(() -> uploadBase64Image(base64Image));
+    }
+
+    /**
+     * Delete image from Cloudinary on the upload pool
+     * @see #deleteImage(String)
+     */
+    @Override
+    public CompletableFuture<Void> deleteImageAsync(String imageUrl) {
+        return runAsync(() -> {
+            deleteImage(imageUrl);
+            return null;
+        });
     }
 
     /**
@@ -22,6 +98,7 @@ public class CloudinaryImageService {
      * @param file MultipartFile to upload
      * @return URL of the uploaded image
      */
+    @Override
     public String uploadImage(MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
@@ -38,17 +115,70 @@ public class CloudinaryImageService {
             throw new IllegalArgumentException("Image size exceeds 10MB limit");
         }
 
-        // Upload to Cloudinary
-        Map<?, ?> uploadResult = cloudinary.uploader().upload(
-                file.getBytes(),
-                ObjectUtils.asMap(
-                        "folder", "news",
-                        "resource_type", "image"
-                )
-        );
+        // Move the part (already on disk) into the spool and stream it from there
+        Path imageFile = imageSpool.transfer(file);
+        try {
+            return uploadImage(imageFile);
+        } finally {
+            imageSpool.delete(imageFile);
+        }
+    }
+
+    /**
+     * Upload image file to Cloudinary. The file is streamed from disk, never read into memory.
+     * Content already hosted is not uploaded again: the existing URL is returned and its
+     * reference count incremented. New images are named after their SHA-256.
+     * @param imageFile Image file to upload
+     * @return URL of the uploaded image
+     */
+    @Override
+    public String uploadImage(Path imageFile) throws IOException {
+        long size = Files.size(imageFile);
+        if (size == 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (size > imageSpool.getMaxBytes()) {
+            throw new IllegalArgumentException("Image size exceeds 10MB limit");
+        }
+
+        String hash = ImageHashIndex.hash(imageFile);
+        for (int attempt = 1; ; attempt++) {
+            String existingUrl = hashIndex != null ? hashIndex.acquire(hash) : null;
+            if (existingUrl != null) {
+                return existingUrl;
+            }
+
+            // Upload to Cloudinary; a concurrent upload of the same content lands on the same asset
+            Map<?, ?> uploadResult = call("upload", size, () -> cloudinary.uploader().upload(
+                    imageFile.toFile(),
+                    ObjectUtils.asMap(
+                            "folder", FOLDER,
+                            "public_id", hash,
+                            "overwrite", false,
+                            "resource_type", "image"
+                    )
+            ));
 
-        // Return the secure URL
-        return uploadResult.get("secure_url").toString();
+            // Return the secure URL
+            String url = uploadResult.get("secure_url").toString();
+            if (hashIndex == null) {
+                return url;
+            }
+            String registered = hashIndex.register(hash, url);
+            if (registered != null) {
+                return registered;
+            }
+            // The content is being deleted: the upload may have found the asset about to be destroyed
+            if (attempt >= REGISTER_ATTEMPTS) {
+                throw new IOException("Image is being deleted from Cloudinary, try again later");
+            }
+            try {
+                Thread.sleep(DELETION_WAIT_MILLIS * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for an image deletion");
+            }
+        }
     }
 
     /**
@@ -56,37 +186,25 @@ public class CloudinaryImageService {
      * @param base64Image Base64 encoded image string
      * @return URL of the uploaded image
      */
+    @Override
     public String uploadBase64Image(String base64Image) throws IOException {
         if (base64Image == null || base64Image.isEmpty()) {
             throw new IllegalArgumentException("Base64 image is empty");
         }
 
-        // Remove data URL prefix if present
-        String base64Data = base64Image;
-        if (base64Image.startsWith("data:image/")) {
-            int commaIndex = base64Image.indexOf(",");
-            if (commaIndex > 0) {
-                base64Data = base64Image.substring(commaIndex + 1);
-            }
+        Path imageFile = imageSpool.spoolBase64(base64Image);
+        try {
+            return uploadImage(imageFile);
+        } finally {
+            imageSpool.delete(imageFile);
         }
-
-        // Upload to Cloudinary
-        Map<?, ?> uploadResult = cloudinary.uploader().upload(
-                base64Data,
-                ObjectUtils.asMap(
-                        "folder", "news",
-                        "resource_type", "image"
-                )
-        );
-
-        // Return the secure URL
-        return uploadResult.get("secure_url").toString();
     }
 
     /**
-     * Delete image from Cloudinary
+     * Drop a reference to an image, deleting it from Cloudinary once no upload refers to it
      * @param imageUrl The Cloudinary URL of the image
      */
+    @Override
     public void deleteImage(String imageUrl) throws IOException {
         if (imageUrl == null || imageUrl.isEmpty()) {
             return;
@@ -95,15 +213,95 @@ public class CloudinaryImageService {
         try {
             // Extract public ID from URL
             // Cloudinary URL format: https://res.cloudinary.com/{cloud_name}/image/upload/{folder}/{public_id}.{format}
-            String publicId = extractPublicId(imageUrl);
-            if (publicId != null) {
-                cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+            String publicId = assetId(imageUrl);
+            // Without reference counts the image may be shared, so it is kept
+            if (publicId != null && hashIndex != null && hashIndex.release(publicId)) {
+                Set<String> claimed = hashIndex.claimForDeletion(List.of(publicId));
+                try {
+                    if (!claimed.isEmpty()) {
+                        call("delete", -1, () -> cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap()));
+                    }
+                } finally {
+                    hashIndex.releaseClaims(claimed);
+                }
             }
         } catch (Exception e) {
             // Ignore deletion errors (image might not exist or URL might be invalid)
         }
     }
 
+    /**
+     * Public ID of a Cloudinary image URL
+     * @param imageUrl The Cloudinary URL of the image
+     * @return The public ID, or null for URLs not hosted on Cloudinary
+     */
+    @Override
+    public String assetId(String imageUrl) {
+        if (imageUrl == null || !imageUrl.contains("cloudinary.com")) {
+            return null;
+        }
+        return extractPublicId(imageUrl);
+    }
+
+    /**
+     * Delete up to 100 images with a single Admin API call. Images that are already gone count as deleted.
+     * @param assetIds Public IDs of the images
+     */
+    @Override
+    public void deleteImages(List<String> assetIds) throws IOException {
+        if (assetIds.isEmpty()) {
+            return;
+        }
+        call("delete-batch", -1, () -> {
+            try {
+                return cloudinary.api().deleteResources(assetIds, ObjectUtils.asMap("type", "upload", "resource_type", "image"));
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Error deleting images from Cloudinary: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * List a page of the images in the news folder
+     * @param cursor next_cursor of the previous page (null for the first page)
+     * @param size Page size
+     * @return The page of images
+     */
+    @Override
+    public ImagePage listImages(String cursor, int size) throws IOException {
+        Map<String, Object> options = new HashMap<>();
+        options.put("type", "upload");
+        options.put("resource_type", "image");
+        options.put("prefix", FOLDER + "/");
+        options.put("max_results", Math.min(size, MAX_BATCH_SIZE));
+        if (cursor != null) {
+            options.put("next_cursor", cursor);
+        }
+
+        Map<?, ?> result = call("list", -1, () -> {
+            try {
+                return cloudinary.api().resources(options);
+            } catch (Exception e) {
+                throw new IOException("Error listing images on Cloudinary: " + e.getMessage(), e);
+            }
+        });
+
+        List<HostedImage> images = new ArrayList<>();
+        Object resources = result.get("resources");
+        if (resources instanceof List<?> list) {
+            for (Object resource : list) {
+                Map<?, ?> fields = (Map<?, ?>) resource;
+                Object createdAt = fields.get("created_at");
+                images.add(new HostedImage(fields.get("public_id").toString(),
+                        createdAt != null ? Instant.parse(createdAt.toString()) : Instant.EPOCH));
+            }
+        }
+        Object nextCursor = result.get("next_cursor");
+        return new ImagePage(images, nextCursor != null ? nextCursor.toString() : null);
+    }
+
     /**
      * Extract public ID from Cloudinary URL
      */
@@ -114,11 +312,8 @@ public class CloudinaryImageService {
             if (uploadIndex > 0) {
                 String path = url.substring(uploadIndex + "/upload/".length());
                 // Remove version if present (v1234567890/)
-                if (path.contains("/v")) {
-                    int versionEnd = path.indexOf("/", path.indexOf("/v"));
-                    if (versionEnd > 0) {
-                        path = path.substring(versionEnd + 1);
-                    }
+                if (path.matches("v\\d+/.*")) {
+                    path = path.substring(path.indexOf("/") + 1);
                 }
                 // Remove file extension
                 int lastDot = path.lastIndexOf(".");
@@ -132,5 +327,48 @@ public class CloudinaryImageService {
         }
         return null;
     }
-}
 
+    private <T> CompletableFuture<T> runAsync(CloudinaryCall<T> call) {
+        // The pool thread runs the call for the request, with its priority
+        RequestPriority priority = RequestPriority.current();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                RequestPriority.setCurrent(priority);
+                try {
+                    return call.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    RequestPriority.setCurrent(null);
+                }
+            }, uploadExecutor);
+        } catch (RejectedExecutionException e) {
+            // Upload pool saturated
+            return CompletableFuture.failedFuture(
+                    new OverloadedException("image-upload-pool", true, bulkheads.getRetryAfterSeconds()));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Make a call to Cloudinary in a slot of the image bulkhead, timing it
+     * @throws OverloadedException If the bulkhead has no slot for the current priority
+     */
+    private <T> T call(String operation, long bytes, NewsMetrics.ImageCall<T> call) throws IOException {
+        AdaptiveLimiter.Permit permit = bulkheads.images().acquire(RequestPriority.current());
+        boolean failed = true;
+        try {
+            T result = metrics.imageCall(operation, bytes, call);
+            failed = false;
+            return result;
+        } finally {
+            permit.release(failed);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CloudinaryCall<T> {
+        T run() throws IOException;
+    }
+}
@@ -0,0 +1,230 @@
+package com.news.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.cloud.Timestamp;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Two-tier read-through cache for single-document lookups.
+ * L1 is a bounded in-process cache (size + TTL eviction); L2 is an optional
+ * {@link SharedDocumentCache} shared by all instances. Entries are evicted from
+ * both tiers when the document is written through {@link FirestoreService}.
+ *
+ * L2 holds documents as JSON. Timestamps are written in a tagged form and restored on read,
+ * so a document served from L2 has the same types as one read from Firestore.
+ */
+@Component
+public class DocumentCache {
+
+    private static final TypeReference<Map<String, Object>> DOCUMENT_TYPE = new TypeReference<>() {};
+    // Eviction counters are shared by the keys of a stripe, which bounds their memory
+    private static final int VERSION_STRIPES = 1024;
+    // Key of the JSON object standing for a Timestamp in L2
+    private static final String TIMESTAMP_TAG = "$timestamp";
+
+    private final Cache<String, Map<String, Object>> local;
+    private final SharedDocumentCache shared;
+    private final long sharedTtlMillis;
+    private final ObjectMapper objectMapper;
+
+    // Bumped by every eviction of a key in the stripe, so a load that started before one is not stored
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final LongAdder sharedHits = new LongAdder();
+    private final LongAdder sharedMisses = new LongAdder();
+
+    public DocumentCache(@Value("${news.cache.l1.max-size:10000}") long localMaxSize,
+                         @Value("${news.cache.l1.ttl-ms:60000}") long localTtlMillis,
+                         @Value("${news.cache.l2.ttl-ms:300000}") long sharedTtlMillis,
+                         ObjectProvider<SharedDocumentCache> shared,
+                         ObjectMapper objectMapper) {
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofMillis(localTtlMillis))
+                .recordStats()
+                .build();
+        this.shared = shared.getIfAvailable();
+        this.sharedTtlMillis = sharedTtlMillis;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Get a document, loading it on a miss in both tiers
+     * @param collectionName The name of the collection
+     * @param documentId The document ID
+     * @param loader Loads the document from Firestore (completes with null if not found)
+     * @return A copy of the document data, or null if not found
+     */
+    public CompletableFuture<Map<String, Object>> get(String collectionName, String documentId,
+                                                      Supplier<CompletableFuture<Map<String, Object>>> loader) {
+        String key = key(collectionName, documentId);
+        Map<String, Object> data = local.getIfPresent(key);
+        if (data != null) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>(data));
+        }
+
+        int stripe = stripe(key);
+        long version = versions.get(stripe);
+        data = getShared(key);
+        if (data != null) {
+            local.put(key, Collections.unmodifiableMap(data));
+            unlessEvictedSince(key, stripe, version, false);
+            return CompletableFuture.completedFuture(new LinkedHashMap<>(data));
+        }
+
+        return loader.get().thenApply(loaded -> {
+            if (loaded == null) {
+                return null; // Missing documents are not cached
+            }
+            if (versions.get(stripe) == version) {
+                putShared(key, loaded);
+                local.put(key, Collections.unmodifiableMap(new LinkedHashMap<>(loaded)));
+                unlessEvictedSince(key, stripe, version, true);
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Evict a document from both tiers
+     * @param collectionName The name of the collection
+     * @param documentId The document ID
+     */
+    public void evict(String collectionName, String documentId) {
+        String key = key(collectionName, documentId);
+        // Before invalidating, so a load that read the old document sees it and does not store it
+        versions.incrementAndGet(stripe(key));
+        local.invalidate(key);
+        if (shared != null) {
+            shared.evict(key);
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counters of both tiers
+     */
+    public Map<String, Object> getStats() {
+        CacheStats localStats = local.stats();
+        Map<String, Object> l1 = new LinkedHashMap<>();
+        l1.put("size", local.estimatedSize());
+        l1.put("hits", localStats.hitCount());
+        l1.put("misses", localStats.missCount());
+        l1.put("hitRate", localStats.hitRate());
+        l1.put("evictions", localStats.evictionCount());
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("l1", l1);
+        if (shared != null) {
+            Map<String, Object> l2 = new LinkedHashMap<>();
+            l2.put("hits", sharedHits.sum());
+            l2.put("misses", sharedMisses.sum());
+            stats.put("l2", l2);
+        }
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getShared(String key) {
+        if (shared == null) {
+            return null;
+        }
+        String json = shared.get(key);
+        if (json == null) {
+            sharedMisses.increment();
+            return null;
+        }
+        try {
+            Map<String, Object> data = objectMapper.readValue(json, DOCUMENT_TYPE);
+            sharedHits.increment();
+            return (Map<String, Object>) fromShared(data);
+        } catch (Exception e) {
+            sharedMisses.increment();
+            return null;
+        }
+    }
+
+    private void putShared(String key, Map<String, Object> data) {
+        if (shared == null) {
+            return;
+        }
+        try {
+            shared.put(key, objectMapper.writeValueAsString(toShared(data)), sharedTtlMillis);
+        } catch (Exception e) {
+            // Ignore serialization errors, the document is still cached locally
+        }
+    }
+
+    /**
+     * A value as written to L2, with Timestamps tagged
+     */
+    private static Object toShared(Object value) {
+        if (value instanceof Timestamp) {
+            return Collections.singletonMap(TIMESTAMP_TAG, value.toString());
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((field, fieldValue) -> copy.put(field, toShared(fieldValue)));
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(DocumentCache::toShared).collect(Collectors.toList());
+        }
+        return value;
+    }
+
+    /**
+     * A value as read from L2, with tagged Timestamps restored
+     */
+    private static Object fromShared(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            if (map.size() == 1 && map.get(TIMESTAMP_TAG) instanceof String timestamp) {
+                return Timestamp.parseTimestamp(timestamp);
+            }
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((field, fieldValue) -> copy.put(field, fromShared(fieldValue)));
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(DocumentCache::fromShared).collect(Collectors.toList());
+        }
+        return value;
+    }
+
+    /**
+     * Drop an entry just stored if its key was evicted since the document was read: the
+     * eviction may have run before the entry was stored
+     * @param sharedToo Whether the entry was stored in L2 as well
+     */
+    private void unlessEvictedSince(String key, int stripe, long version, boolean sharedToo) {
+        if (versions.get(stripe) != version) {
+            local.invalidate(key);
+            if (sharedToo && shared != null) {
+                shared.evict(key);
+            }
+        }
+    }
+
+    private static int stripe(String key) {
+        return Math.floorMod(key.hashCode(), VERSION_STRIPES);
+    }
+
+    private static String key(String collectionName, String documentId) {
+        return "doc:" + collectionName + "/" + documentId;
+    }
+}
@@ -0,0 +1,458 @@
+package com.news.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.FirestoreException;
+import com.news.util.AdaptiveLimiter;
+import com.news.util.CircuitBreaker;
+import com.news.util.CircuitOpenException;
+import com.news.util.DeadlineExceededException;
+import com.news.util.FutureUtil;
+import com.news.util.NewsMetrics;
+import com.news.util.OverloadedException;
+import com.news.util.RequestDeadline;
+import com.news.util.RequestPriority;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Makes the Firestore calls of {@link FirestoreService} and the services working on their own
+ * collections (image references, the deletion queue, migrations): through the circuit breaker, in a slot
+ * of the call's {@link Bulkheads} limit, within a deadline, timed and with billed reads counted.
+ *
+ * Each {@link Type} of call has its own deadline, shortened to what is left of the request's
+ * {@link RequestDeadline}; a call still running at its deadline is cancelled and fails with
+ * {@link DeadlineExceededException}, so no caller waits on Firestore indefinitely. Calls made
+ * for a request are cancelled when it ends early. Reads are idempotent and are retried on
+ * transient errors, with jittered exponential backoff, while their deadline allows; writes are
+ * never retried here. With {@link HedgedReads} on, slow document reads and queries are hedged.
+ */
+@Component
+@ConditionalOnProperty(name = "news.storage", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreCalls {
+
+    /**
+     * Kinds of Firestore calls
+     */
+    public enum Type {
+        // A single document
+        READ,
+        // A page, a count or a filtered query
+        QUERY,
+        // A whole collection
+        SCAN,
+        // A single write
+        WRITE,
+        // A write queued on a BulkWriter, which paces, batches and retries its writes itself
+        BULK
+    }
+
+    // Errors caused by the request itself rather than by Firestore
+    private static final Set<StatusCode.Code> CLIENT_ERRORS = EnumSet.of(StatusCode.Code.NOT_FOUND,
+            StatusCode.Code.ALREADY_EXISTS, StatusCode.Code.INVALID_ARGUMENT, StatusCode.Code.FAILED_PRECONDITION,
+            StatusCode.Code.OUT_OF_RANGE);
+    // Errors a retried read may not get again
+    private static final Set<StatusCode.Code> TRANSIENT_ERRORS = EnumSet.of(StatusCode.Code.UNAVAILABLE,
+            StatusCode.Code.DEADLINE_EXCEEDED, StatusCode.Code.RESOURCE_EXHAUSTED, StatusCode.Code.ABORTED,
+            StatusCode.Code.INTERNAL);
+
+    private final NewsMetrics metrics;
+    private final Bulkheads bulkheads;
+    private final HedgedReads hedging; // Null unless hedging is on
+    // Fails calls fast while Firestore is failing or slow, so it can recover
+    private final CircuitBreaker breaker;
+    private final long readTimeoutMillis;
+    private final long queryTimeoutMillis;
+    private final long scanTimeoutMillis;
+    private final long writeTimeoutMillis;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    public FirestoreCalls(NewsMetrics metrics, Bulkheads bulkheads, ObjectProvider<HedgedReads> hedging,
+                          @Value("${news.firestore.circuit.window:20}") int circuitWindow,
+                          @Value("${news.firestore.circuit.minimum-calls:10}") int circuitMinimumCalls,
+                          @Value("${news.firestore.circuit.failure-rate:0.5}") double circuitFailureRate,
+                          @Value("${news.firestore.circuit.slow-call-ms:2000}") long circuitSlowCallMillis,
+                          @Value("${news.firestore.circuit.open-ms:10000}") long circuitOpenMillis,
+                          @Value("${news.firestore.circuit.trial-calls:3}") int circuitTrialCalls,
+                          @Value("${news.firestore.deadline.read-ms:2000}") long readTimeoutMillis,
+                          @Value("${news.firestore.deadline.query-ms:5000}") long queryTimeoutMillis,
+                          @Value("${news.firestore.deadline.scan-ms:60000}") long scanTimeoutMillis,
+                          @Value("${news.firestore.deadline.write-ms:5000}") long writeTimeoutMillis,
+                          @Value("${news.firestore.retry.max-attempts:3}") int maxAttempts,
+                          @Value("${news.firestore.retry.initial-backoff-ms:50}") long initialBackoffMillis,
+                          @Value("${news.firestore.retry.max-backoff-ms:1000}") long maxBackoffMillis) {
+        this.metrics = metrics;
+        this.bulkheads = bulkheads;
+        this.hedging = hedging.getIfAvailable();
+        this.breaker = new CircuitBreaker("firestore", circuitWindow, circuitMinimumCalls, circuitFailureRate,
+                circuitSlowCallMillis, circuitOpenMillis, circuitTrialCalls, metrics);
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.queryTimeoutMillis = queryTimeoutMillis;
+        this.scanTimeoutMillis = scanTimeoutMillis;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        // Deadlines of completed calls are cancelled, so the queue only holds calls in flight
+        this.scheduler = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("firestore-deadline-"));
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Start a Firestore call and adapt it to a CompletableFuture
+     * @param operation Operation tag of the metrics, e.g. "get"
+     * @param collectionName Collection tag of the metrics
+     * @param type Kind of call, which sets its deadline, bulkhead and whether it is retried
+     * @param request Starts the call; invoked again for a retry
+     * @param message Message of the RuntimeException reporting a failure
+     * @param documentsRead Billed reads of a successful call (null for writes)
+     * @return The result; fails with OverloadedException when the breaker is open or the
+     *         bulkhead full, and with DeadlineExceededException when the deadline passes.
+     *         Cancelling it cancels the call.
+     */
+    public <T> CompletableFuture<T> call(String operation, String collectionName, Type type,
+                                         Supplier<ApiFuture<T>> request, String message,
+                                         ToLongFunction<T> documentsRead) {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis(type));
+        // Bulk writes outlive the request that queues them
+        RequestDeadline requestDeadline = type != Type.BULK ? RequestDeadline.current() : null;
+        if (requestDeadline != null) {
+            timeoutNanos = timeoutNanos > 0
+                    ? Math.min(timeoutNanos, requestDeadline.remainingNanos())
+                    : requestDeadline.remainingNanos();
+            if (timeoutNanos <= 0) {
+                return CompletableFuture.failedFuture(new DeadlineExceededException("firestore " + operation, 0));
+            }
+        }
+        Call<T> call = new Call<>(operation, collectionName, type, request, message, documentsRead, timeoutNanos);
+        call.attempt(1);
+        if (requestDeadline != null) {
+            requestDeadline.register(call.result);
+        }
+        return call.result;
+    }
+
+    /**
+     * Make a Firestore call and wait for it, for callers that block, such as upload workers
+     * and scheduled jobs
+     * @see #call
+     * @return The result
+     * @throws RuntimeException with the message, caused by the failure; OverloadedException
+     *         when the breaker is open or the bulkhead full, DeadlineExceededException when
+     *         the deadline passes
+     */
+    public <T> T await(String operation, String collectionName, Type type,
+                       Supplier<ApiFuture<T>> request, String message,
+                       ToLongFunction<T> documentsRead) {
+        CompletableFuture<T> future = call(operation, collectionName, type, request, message, documentsRead);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(message, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(message, cause);
+        }
+    }
+
+    /**
+     * Whether a call failed because its document does not exist, as opposed to Firestore
+     * failing or the call being turned away or out of time
+     * @param error The failure, as thrown or completed by {@link #call} or {@link #await}
+     */
+    public static boolean isNotFound(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiException apiException) {
+                return apiException.getStatusCode().getCode() == StatusCode.Code.NOT_FOUND;
+            }
+            if (cause instanceof FirestoreException firestoreException && firestoreException.getStatus() != null) {
+                return firestoreException.getStatus().getCode() == Status.Code.NOT_FOUND;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deadline of a kind of call, for reads made inside a transaction, which the
+     * transaction's own deadline does not interrupt
+     * @return The deadline in milliseconds, 0 for none
+     */
+    public long timeoutMillis(Type type) {
+        switch (type) {
+            case READ:
+                return readTimeoutMillis;
+            case QUERY:
+                return queryTimeoutMillis;
+            case SCAN:
+                return scanTimeoutMillis;
+            case WRITE:
+                return writeTimeoutMillis;
+            default:
+                return 0; // BulkWriter writes wait for their batch, however long the import
+        }
+    }
+
+    private AdaptiveLimiter bulkhead(Type type) {
+        if (type == Type.WRITE) {
+            return bulkheads.firestoreWrites();
+        }
+        return type == Type.BULK ? null : bulkheads.firestoreReads();
+    }
+
+    /**
+     * Whether a failed call points at Firestore itself (unavailable, overloaded, timing out),
+     * rather than at the request (a missing document, an invalid query)
+     */
+    private static boolean isBackendFailure(Throwable cause) {
+        if (cause instanceof ApiException apiException) {
+            return !CLIENT_ERRORS.contains(apiException.getStatusCode().getCode());
+        }
+        return true;
+    }
+
+    /**
+     * Whether a read that failed this way may succeed when retried
+     */
+    private static boolean isTransient(Throwable cause) {
+        return cause instanceof ApiException apiException
+                && (apiException.isRetryable() || TRANSIENT_ERRORS.contains(apiException.getStatusCode().getCode()));
+    }
+
+    /**
+     * A call and its attempts
+     */
+    private class Call<T> {
+        private final String operation;
+        private final String collectionName;
+        private final Type type;
+        private final Supplier<ApiFuture<T>> request;
+        private final String message;
+        private final ToLongFunction<T> documentsRead;
+        private final long timeoutNanos;
+        private final long deadlineNanos;
+        // Retries happen on the scheduler thread, so the caller's priority is kept
+        private final RequestPriority priority = RequestPriority.current();
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private volatile CompletableFuture<T> current;
+
+        Call(String operation, String collectionName, Type type, Supplier<ApiFuture<T>> request, String message,
+             ToLongFunction<T> documentsRead, long timeoutNanos) {
+            this.operation = operation;
+            this.collectionName = collectionName;
+            this.type = type;
+            this.request = request;
+            this.message = message;
+            this.documentsRead = documentsRead;
+            this.timeoutNanos = timeoutNanos;
+            this.deadlineNanos = System.nanoTime() + timeoutNanos;
+            result.whenComplete((value, error) -> {
+                CompletableFuture<T> attempt = current;
+                if (result.isCancelled() && attempt != null) {
+                    attempt.cancel(true);
+                }
+            });
+        }
+
+        void attempt(int attempt) {
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<T> future = startHedged();
+            current = future;
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+            future.whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                } else if (!retry(attempt, error)) {
+                    result.completeExceptionally(FutureUtil.unwrap(error));
+                }
+            });
+        }
+
+        /**
+         * Schedule another attempt of a failed read, if it may succeed and there is time for it
+         */
+        private boolean retry(int attempt, Throwable error) {
+            if (type == Type.WRITE || type == Type.BULK || attempt >= maxAttempts || result.isDone()
+                    || !isTransient(error.getCause())) {
+                return false;
+            }
+            // Exponential backoff with full jitter, so the retries of a failed burst are spread out
+            long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+            long delayNanos = TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextLong(backoff + 1));
+            if (timeoutNanos > 0 && System.nanoTime() + delayNanos >= deadlineNanos) {
+                return false;
+            }
+            metrics.firestoreRetry(operation, collectionName);
+            scheduler.schedule(() -> attempt(attempt + 1), delayNanos, TimeUnit.NANOSECONDS);
+            return true;
+        }
+
+        /**
+         * Make an attempt; a read that is slow to answer is sent a second time when hedging is
+         * on, the first answer wins and the other call is cancelled
+         */
+        private CompletableFuture<T> startHedged() {
+            long delayNanos = hedging != null && (type == Type.READ || type == Type.QUERY)
+                    ? hedging.delayNanos(operation) : -1;
+            long startNanos = System.nanoTime();
+            CompletableFuture<T> primary = start(false);
+            if (delayNanos < 0 || primary.isDone()) {
+                return primary;
+            }
+
+            CompletableFuture<T> first = new CompletableFuture<>();
+            AtomicReference<CompletableFuture<T>> hedge = new AtomicReference<>();
+            // Calls that may still answer; the attempt fails only when none can
+            AtomicInteger pending = new AtomicInteger(1);
+            ScheduledFuture<?> timer = scheduler.schedule(() -> {
+                if (first.isDone() || !hedging.tryHedge(operation)) {
+                    return;
+                }
+                pending.incrementAndGet();
+                CompletableFuture<T> second = start(true);
+                hedge.set(second);
+                second.whenComplete((value, error) -> {
+                    if (error == null) {
+                        if (first.complete(value)) {
+                            hedging.hedgeWon(operation);
+                            // The primary took at least this long
+                            hedging.record(operation, System.nanoTime() - startNanos);
+                            primary.cancel(true);
+                        }
+                    } else if (pending.decrementAndGet() == 0) {
+                        first.completeExceptionally(error);
+                    }
+                });
+                if (first.isDone()) {
+                    second.cancel(true);
+                }
+            }, delayNanos, TimeUnit.NANOSECONDS);
+            primary.whenComplete((value, error) -> {
+                if (error == null) {
+                    CompletableFuture<T> second = hedge.get();
+                    if (first.complete(value) && second != null) {
+                        second.cancel(true);
+                    }
+                } else if (pending.decrementAndGet() == 0) {
+                    first.completeExceptionally(error);
+                }
+            });
+            first.whenComplete((value, error) -> {
+                timer.cancel(false);
+                if (first.isCancelled()) {
+                    primary.cancel(true);
+                    CompletableFuture<T> second = hedge.get();
+                    if (second != null) {
+                        second.cancel(true);
+                    }
+                }
+            });
+            return first;
+        }
+
+        /**
+         * Make one call through the breaker, in a slot of the bulkhead, within the deadline
+         * @param hedge Whether the call hedges another; its latency is not a sample of the operation's
+         */
+        private CompletableFuture<T> start(boolean hedge) {
+            try {
+                breaker.acquire();
+            } catch (CircuitOpenException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            AdaptiveLimiter limiter = bulkhead(type);
+            AdaptiveLimiter.Permit permit;
+            try {
+                permit = limiter != null ? limiter.acquire(priority) : null;
+            } catch (OverloadedException e) {
+                breaker.cancel();
+                return CompletableFuture.failedFuture(e);
+            }
+
+            long startNanos = System.nanoTime();
+            Timer.Sample sample = metrics.start();
+            CompletableFuture<T> call;
+            try {
+                call = FutureUtil.toCompletableFuture(request.get());
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<T> underlying = call;
+            CompletableFuture<T> attempt = new CompletableFuture<>();
+            ScheduledFuture<?> deadline = timeoutNanos > 0
+                    ? scheduler.schedule(() -> timeout(attempt, underlying),
+                            deadlineNanos - startNanos, TimeUnit.NANOSECONDS)
+                    : null;
+            underlying.whenComplete((value, error) -> {
+                if (error != null) {
+                    attempt.completeExceptionally(new RuntimeException(message, FutureUtil.unwrap(error)));
+                } else {
+                    attempt.complete(value);
+                }
+            });
+            attempt.whenComplete((value, error) -> {
+                if (deadline != null) {
+                    deadline.cancel(false);
+                }
+                // Given up on: stop the underlying call
+                if (!underlying.isDone()) {
+                    underlying.cancel(true);
+                }
+                // A caller giving up is not a sign of an overloaded or failing Firestore
+                Throwable cause = error != null ? FutureUtil.unwrap(error) : null;
+                boolean failed = cause != null && !attempt.isCancelled()
+                        && (cause instanceof DeadlineExceededException || isBackendFailure(cause.getCause()));
+                long latencyNanos = System.nanoTime() - startNanos;
+                breaker.record(failed, latencyNanos);
+                if (error == null && hedging != null && !hedge) {
+                    hedging.record(operation, latencyNanos);
+                }
+                if (permit != null) {
+                    permit.release(failed);
+                }
+                metrics.firestoreCall(sample, operation, collectionName, error,
+                        error == null && documentsRead != null ? documentsRead.applyAsLong(value) : -1);
+            });
+            return attempt;
+        }
+
+        private void timeout(CompletableFuture<T> attempt, CompletableFuture<T> underlying) {
+            attempt.completeExceptionally(new DeadlineExceededException("firestore " + operation,
+                    TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+            underlying.cancel(true);
+        }
+    }
+}
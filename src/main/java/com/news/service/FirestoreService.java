@@ -1,25 +1,74 @@
 package com.news.service;
 
-import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
+import com.news.model.DateRange;
+import com.news.model.DateSort;
+import com.news.model.NewsArticle;
+import com.news.model.NewsArticleMapper;
+import com.news.model.PageCursor;
+import com.news.util.FutureUtil;
+import com.news.util.NewsMetrics;
+import com.news.util.OverloadedException;
+import com.news.util.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Firestore storage (news.storage=firestore, the default). Every operation has a non-blocking
+ * *Async flavor returning a CompletableFuture adapted from the SDK's ApiFuture; the blocking
+ * methods wait for it. Failures are reported as RuntimeException (wrapped in the future for
+ * async calls). Every call is timed and its billed document reads recorded (see {@link NewsMetrics}).
+ * Concurrent identical reads (a document, a page or a count) are coalesced into one call by
+ * {@link SingleFlight}; a write keeps later reads of its collection from joining earlier ones.
+ * Calls are made by {@link FirestoreCalls}: through a circuit breaker, in a slot of their
+ * {@link Bulkheads} limit and within a deadline, failing fast with {@link OverloadedException}
+ * or {@link com.news.util.DeadlineExceededException}; reads are retried on transient errors.
+ *
+ * Bulk writes and direct access to the client ({@link #getFirestore()}) are Firestore-only;
+ * features built on them are not available with the in-memory storage.
+ */
 @Service
-public class FirestoreService {
+@ConditionalOnProperty(name = "news.storage", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreService implements NewsRepository {
 
     private final Firestore firestore;
+    private final DocumentCache documentCache;
+    private final NewsMetrics metrics;
+    private final FirestoreCalls calls;
+    private final long countCacheTtlMillis;
+    private final Map<String, CachedCount> countCache = new ConcurrentHashMap<>();
+    // Bumped per collection by invalidateCounts, so a count read before a write is not cached after it
+    private final Map<String, AtomicLong> countGenerations = new ConcurrentHashMap<>();
+    // Concurrent identical reads share one Firestore call
+    private final SingleFlight reads;
 
-    public FirestoreService() {
-        this.firestore = FirestoreClient.getFirestore();
+    public FirestoreService(Firestore firestore,
+                            DocumentCache documentCache,
+                            NewsMetrics metrics,
+                            @Value("${news.firestore.count-cache-ttl-ms:60000}") long countCacheTtlMillis,
+                            @Value("${news.firestore.single-flight:true}") boolean singleFlight,
+                            FirestoreCalls calls) {
+        this.firestore = firestore;
+        this.documentCache = documentCache;
+        this.metrics = metrics;
+        this.calls = calls;
+        this.countCacheTtlMillis = countCacheTtlMillis;
+        this.reads = new SingleFlight(metrics, singleFlight);
     }
 
-    
+
     /**
      * Save a document to a collection
      * @param collectionName The name of the collection
@@ -27,41 +76,127 @@ public class FirestoreService {
      * @param data The data to save
      * @return The document ID
      */
+    @Override
     public String save(String collectionName, String documentId, Map<String, Object> data) {
-        try {
-            DocumentReference docRef;
-            if (documentId != null && !documentId.isEmpty()) {
-                docRef = firestore.collection(collectionName).document(documentId);
-            } else {
-                docRef = firestore.collection(collectionName).document();
-            }
-            ApiFuture<WriteResult> result = docRef.set(data);
-            result.get(); // Wait for the write to complete
-            return docRef.getId();
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error saving document to Firestore", e);
+        return await(saveAsync(collectionName, documentId, data));
+    }
+
+    /**
+     * Save a document to a collection without blocking
+     * @see #save(String, String, Map)
+     */
+    @Override
+    public CompletableFuture<String> saveAsync(String collectionName, String documentId, Map<String, Object> data) {
+        DocumentReference docRef;
+        if (documentId != null && !documentId.isEmpty()) {
+            docRef = firestore.collection(collectionName).document(documentId);
+        } else {
+            docRef = firestore.collection(collectionName).document();
+        }
+        Map<String, Object> document = new HashMap<>(data);
+        document.put(UPDATED_AT_FIELD, FieldValue.serverTimestamp());
+        return calls.call("save", collectionName, FirestoreCalls.Type.WRITE, () -> docRef.set(document),
+                        "Error saving document to Firestore", null)
+                .thenApply(writeResult -> {
+                    documentCache.evict(collectionName, docRef.getId());
+                    reads.forget(collectionName);
+                    invalidateCounts(collectionName);
+                    return docRef.getId();
+                });
+    }
+
+    /**
+     * Open a BulkWriter for high-volume writes. Queue documents with
+     * {@link #bulkSaveAsync} and close the writer to flush the last batch.
+     * BulkWriter batches writes, retries transient failures and ramps up its write rate itself.
+     * @return A new BulkWriter
+     */
+    public BulkWriter bulkWriter() {
+        return firestore.bulkWriter();
+    }
+
+    /**
+     * Queue a document write on a BulkWriter. Like {@link #saveAsync}, the document is
+     * stamped with updatedAt and cached copies are evicted once it is written.
+     * @param writer The BulkWriter from {@link #bulkWriter()}
+     * @param collectionName The name of the collection
+     * @param documentId The document ID (null for auto-generated)
+     * @param data The data to save
+     * @return Future of the document ID, completed when the write is committed
+     */
+    public CompletableFuture<String> bulkSaveAsync(BulkWriter writer, String collectionName, String documentId,
+                                                   Map<String, Object> data) {
+        DocumentReference docRef;
+        if (documentId != null && !documentId.isEmpty()) {
+            docRef = firestore.collection(collectionName).document(documentId);
+        } else {
+            docRef = firestore.collection(collectionName).document();
         }
+        Map<String, Object> document = new HashMap<>(data);
+        document.put(UPDATED_AT_FIELD, FieldValue.serverTimestamp());
+        // BulkWriter paces its own writes, so bulk writes skip the write bulkhead
+        return calls.call("bulk-save", collectionName, FirestoreCalls.Type.BULK,
+                        () -> writer.set(docRef, document),
+                        "Error saving document to Firestore", null)
+                .thenApply(writeResult -> {
+                    documentCache.evict(collectionName, docRef.getId());
+                    reads.forget(collectionName);
+                    invalidateCounts(collectionName);
+                    return docRef.getId();
+                });
     }
 
     /**
-     * Get a document by ID
+     * Queue a field update on a BulkWriter, stamped with updatedAt like {@link #updateAsync}
+     * @param writer The BulkWriter from {@link #bulkWriter()}
+     * @param collectionName The name of the collection
+     * @param documentId The document ID
+     * @param data The fields to update
+     * @param lastUpdateTime Update time the document was read at; the write fails if it changed since
+     * @return Future completed when the write is committed
+     */
+    public CompletableFuture<Void> bulkUpdateAsync(BulkWriter writer, String collectionName, String documentId,
+                                                   Map<String, Object> data, Timestamp lastUpdateTime) {
+        DocumentReference docRef = firestore.collection(collectionName).document(documentId);
+        Map<String, Object> fields = new HashMap<>(data);
+        fields.put(UPDATED_AT_FIELD, FieldValue.serverTimestamp());
+        return calls.call("bulk-update", collectionName, FirestoreCalls.Type.BULK,
+                        () -> writer.update(docRef, fields, Precondition.updatedAt(lastUpdateTime)),
+                        "Error updating document in Firestore", null)
+                .thenAccept(writeResult -> {
+                    documentCache.evict(collectionName, documentId);
+                    reads.forget(collectionName);
+                });
+    }
+
+    /**
+     * Get a document by ID, served from the document cache when possible
      * @param collectionName The name of the collection
      * @param documentId The document ID
      * @return The document data, or null if not found
      */
+    @Override
     public Map<String, Object> get(String collectionName, String documentId) {
-        try {
-            DocumentReference docRef = firestore.collection(collectionName).document(documentId);
-            ApiFuture<DocumentSnapshot> future = docRef.get();
-            DocumentSnapshot document = future.get();
-            
-            if (document.exists()) {
-                return document.getData();
-            }
-            return null;
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error getting document from Firestore", e);
-        }
+        return await(getAsync(collectionName, documentId));
+    }
+
+    /**
+     * Get a document by ID without blocking
+     * @see #get(String, String)
+     */
+    @Override
+    public CompletableFuture<Map<String, Object>> getAsync(String collectionName, String documentId) {
+        // Callers may modify the document they get, so each gets its own copy of the shared read
+        return documentCache.get(collectionName, documentId, () ->
+                reads.load("get", collectionName + "|get|" + documentId, () -> load(collectionName, documentId))
+                        .thenApply(data -> data != null ? new HashMap<>(data) : null));
+    }
+
+    private CompletableFuture<Map<String, Object>> load(String collectionName, String documentId) {
+        DocumentReference docRef = firestore.collection(collectionName).document(documentId);
+        return calls.call("get", collectionName, FirestoreCalls.Type.READ, docRef::get,
+                        "Error getting document from Firestore", document -> 1)
+                .thenApply(document -> document.exists() ? document.getData() : null);
     }
 
     /**
@@ -69,24 +204,49 @@ public class FirestoreService {
      * @param collectionName The name of the collection
      * @return List of document data
      */
+    @Override
     public List<Map<String, Object>> getAll(String collectionName) {
-        try {
-            ApiFuture<QuerySnapshot> future = firestore.collection(collectionName).get();
-            QuerySnapshot querySnapshot = future.get();
-            List<Map<String, Object>> documents = new ArrayList<>();
-            
-            for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                Map<String, Object> data = document.getData();
-                if (data != null) {
-                    data.put("id", document.getId()); // Include document ID
-                    documents.add(data);
-                }
-            }
-            
-            return documents;
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error getting documents from Firestore", e);
-        }
+        return await(getAllAsync(collectionName));
+    }
+
+    /**
+     * Get all documents from a collection without blocking
+     * @see #getAll(String)
+     */
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> getAllAsync(String collectionName) {
+        CollectionReference collection = firestore.collection(collectionName);
+        return calls.call("get-all", collectionName, FirestoreCalls.Type.SCAN, collection::get,
+                        "Error getting documents from Firestore", FirestoreService::documentsRead)
+                .thenApply(querySnapshot -> toDocuments(querySnapshot, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Get all documents from a collection as articles, decoded straight from the snapshots
+     * @param collectionName The name of the collection
+     * @return List of articles
+     */
+    @Override
+    public List<NewsArticle> getAllArticles(String collectionName) {
+        return await(getAllArticlesAsync(collectionName));
+    }
+
+    /**
+     * Get all documents from a collection as articles without blocking
+     * @see #getAllArticles(String)
+     */
+    @Override
+    public CompletableFuture<List<NewsArticle>> getAllArticlesAsync(String collectionName) {
+        CollectionReference collection = firestore.collection(collectionName);
+        return calls.call("get-all", collectionName, FirestoreCalls.Type.SCAN, collection::get,
+                        "Error getting documents from Firestore", FirestoreService::documentsRead)
+                .thenApply(querySnapshot -> {
+                    List<NewsArticle> articles = new ArrayList<>(querySnapshot.size());
+                    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+                        articles.add(NewsArticleMapper.fromSnapshot(document));
+                    }
+                    return articles;
+                });
     }
 
     /**
@@ -96,38 +256,18 @@ public class FirestoreService {
      * @param size Page size
      * @return PaginationResult containing documents and pagination info
      */
+    @Override
     public PaginationResult getAllPaginated(String collectionName, int page, int size) {
-        try {
-            // Get total count
-            ApiFuture<QuerySnapshot> countFuture = firestore.collection(collectionName).get();
-            QuerySnapshot countSnapshot = countFuture.get();
-            long totalElements = countSnapshot.size();
-            
-            // Calculate pagination
-            int offset = page * size;
-            int totalPages = (int) Math.ceil((double) totalElements / size);
-            
-            // Get paginated documents
-            Query query = firestore.collection(collectionName)
-                    .limit(size)
-                    .offset(offset);
-            
-            ApiFuture<QuerySnapshot> future = query.get();
-            QuerySnapshot querySnapshot = future.get();
-            List<Map<String, Object>> documents = new ArrayList<>();
-            
-            for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                Map<String, Object> data = document.getData();
-                if (data != null) {
-                    data.put("id", document.getId());
-                    documents.add(data);
-                }
-            }
-            
-            return new PaginationResult(documents, totalElements, totalPages);
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error getting paginated documents from Firestore", e);
-        }
+        return await(getAllPaginatedAsync(collectionName, page, size));
+    }
+
+    /**
+     * Get all documents from a collection with pagination without blocking
+     * @see #getAllPaginated(String, int, int)
+     */
+    @Override
+    public CompletableFuture<PaginationResult> getAllPaginatedAsync(String collectionName, int page, int size) {
+        return queryPaginatedAsync(collectionName, null, null, page, size);
     }
 
     /**
@@ -137,25 +277,21 @@ public class FirestoreService {
      * @param value The value to compare against
      * @return List of matching documents
      */
+    @Override
     public List<Map<String, Object>> query(String collectionName, String field, Object value) {
-        try {
-            Query query = firestore.collection(collectionName).whereEqualTo(field, value);
-            ApiFuture<QuerySnapshot> future = query.get();
-            QuerySnapshot querySnapshot = future.get();
-            List<Map<String, Object>> documents = new ArrayList<>();
-            
-            for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                Map<String, Object> data = document.getData();
-                if (data != null) {
-                    data.put("id", document.getId());
-                    documents.add(data);
-                }
-            }
-            
-            return documents;
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error querying documents from Firestore", e);
-        }
+        return await(queryAsync(collectionName, field, value));
+    }
+
+    /**
+     * Query documents with a where clause (equality) without blocking
+     * @see #query(String, String, Object)
+     */
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> queryAsync(String collectionName, String field, Object value) {
+        Query query = firestore.collection(collectionName).whereEqualTo(field, value);
+        return calls.call("query", collectionName, FirestoreCalls.Type.QUERY, query::get,
+                        "Error querying documents from Firestore", FirestoreService::documentsRead)
+                .thenApply(querySnapshot -> toDocuments(querySnapshot, Integer.MAX_VALUE));
     }
 
     /**
@@ -167,66 +303,249 @@ public class FirestoreService {
      * @param size Page size
      * @return PaginationResult containing documents and pagination info
      */
+    @Override
     public PaginationResult queryPaginated(String collectionName, String field, Object value, int page, int size) {
-        try {
-            // Get total count
-            Query countQuery = firestore.collection(collectionName).whereEqualTo(field, value);
-            ApiFuture<QuerySnapshot> countFuture = countQuery.get();
-            QuerySnapshot countSnapshot = countFuture.get();
-            long totalElements = countSnapshot.size();
-            
-            // Calculate pagination
-            int offset = page * size;
+        return await(queryPaginatedAsync(collectionName, field, value, page, size));
+    }
+
+    /**
+     * Query documents with a where clause (equality) with pagination without blocking.
+     * The count and the page query run concurrently.
+     * @param field The field to filter on (null for the whole collection)
+     * @see #queryPaginated(String, String, Object, int, int)
+     */
+    @Override
+    public CompletableFuture<PaginationResult> queryPaginatedAsync(String collectionName, String field, Object value,
+                                                                   int page, int size) {
+        return reads.load("query-page", collectionName + "|query-page|" + field + "=" + value + "|" + page + "|" + size,
+                () -> loadPage(collectionName, field, value, page, size));
+    }
+
+    private CompletableFuture<PaginationResult> loadPage(String collectionName, String field, Object value,
+                                                         int page, int size) {
+        // Get total count
+        CompletableFuture<Long> countFuture = countAsync(collectionName, field, value);
+
+        // Get paginated documents
+        Query query = firestore.collection(collectionName);
+        if (field != null) {
+            query = query.whereEqualTo(field, value);
+        }
+        Query pageQuery = query.limit(size).offset(page * size);
+        CompletableFuture<List<Map<String, Object>>> documentsFuture =
+                calls.call("query-page", collectionName, FirestoreCalls.Type.QUERY, pageQuery::get,
+                        "Error querying paginated documents from Firestore",
+                        // Documents skipped by the offset are billed too
+                        querySnapshot -> (long) page * size + documentsRead(querySnapshot))
+                        .thenApply(querySnapshot -> toDocuments(querySnapshot, size));
+
+        return countFuture.thenCombine(documentsFuture, (totalElements, documents) -> {
             int totalPages = (int) Math.ceil((double) totalElements / size);
-            
-            // Get paginated documents
-            Query query = firestore.collection(collectionName)
-                    .whereEqualTo(field, value)
-                    .limit(size)
-                    .offset(offset);
-            
-            ApiFuture<QuerySnapshot> future = query.get();
-            QuerySnapshot querySnapshot = future.get();
-            List<Map<String, Object>> documents = new ArrayList<>();
-            
-            for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                Map<String, Object> data = document.getData();
-                if (data != null) {
-                    data.put("id", document.getId());
-                    documents.add(data);
-                }
-            }
-            
             return new PaginationResult(documents, totalElements, totalPages);
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error querying paginated documents from Firestore", e);
+        });
+    }
+
+    /**
+     * Get the page of documents that follows a cursor (keyset pagination).
+     * Documents are ordered by document ID and the query starts after the cursor,
+     * so Firestore only reads the documents of the page instead of scanning skipped ones.
+     * @param collectionName The name of the collection
+     * @param field The field to filter on (null for the whole collection)
+     * @param value The value to compare against
+     * @param afterDocumentId ID of the last document of the previous page (null for the first page)
+     * @param size Page size
+     * @return CursorPaginationResult containing documents and whether more documents follow
+     */
+    @Override
+    public CursorPaginationResult queryPageAfter(String collectionName, String field, Object value,
+                                                 String afterDocumentId, int size) {
+        return await(queryPageAfterAsync(collectionName, field, value, afterDocumentId, size));
+    }
+
+    /**
+     * Get the page of documents that follows a cursor without blocking
+     * @see #queryPageAfter(String, String, Object, String, int)
+     */
+    @Override
+    public CompletableFuture<CursorPaginationResult> queryPageAfterAsync(String collectionName, String field, Object value,
+                                                                         String afterDocumentId, int size) {
+        return reads.load("query-page-after",
+                collectionName + "|query-page-after|" + field + "=" + value + "|" + afterDocumentId + "|" + size,
+                () -> loadPageAfter(collectionName, field, value, afterDocumentId, size));
+    }
+
+    private CompletableFuture<CursorPaginationResult> loadPageAfter(String collectionName, String field, Object value,
+                                                                    String afterDocumentId, int size) {
+        // Get total count
+        CompletableFuture<Long> countFuture = countAsync(collectionName, field, value);
+
+        Query query = firestore.collection(collectionName);
+        if (field != null) {
+            query = query.whereEqualTo(field, value);
         }
+        query = query.orderBy(FieldPath.documentId());
+        if (afterDocumentId != null) {
+            query = query.startAfter(afterDocumentId);
+        }
+        // Read one extra document to know whether there is a next page
+        Query pageQuery = query.limit(size + 1);
+
+        CompletableFuture<QuerySnapshot> pageFuture =
+                calls.call("query-page-after", collectionName, FirestoreCalls.Type.QUERY, pageQuery::get,
+                        "Error getting cursor-paginated documents from Firestore",
+                        FirestoreService::documentsRead);
+
+        return countFuture.thenCombine(pageFuture, (totalElements, querySnapshot) ->
+                new CursorPaginationResult(toDocuments(querySnapshot, size), totalElements, querySnapshot.size() > size));
     }
 
     /**
-     * Inner class to hold pagination results
+     * Get a page of documents in publication order, optionally within a publication time range.
+     * The query filters on the equality field, ranges and orders on publishedAt and breaks ties
+     * by document ID, which the composite indexes in firestore.indexes.json (category and
+     * isFeatured, each with publishedAt in both directions) serve without reading skipped
+     * documents. Documents without publishedAt are not listed.
+     * @param collectionName The name of the collection
+     * @param field The field to filter on (null for the whole collection)
+     * @param value The value to compare against
+     * @param range Publication time range
+     * @param sort Publication order
+     * @param after Cursor from {@link PageCursor#afterDate(List)} (null to use the page number)
+     * @param page Page number (0-indexed), used when no cursor is given
+     * @param size Page size
+     * @return CursorPaginationResult containing documents and whether more documents follow
      */
-    public static class PaginationResult {
-        private final List<Map<String, Object>> documents;
-        private final long totalElements;
-        private final int totalPages;
-
-        public PaginationResult(List<Map<String, Object>> documents, long totalElements, int totalPages) {
-            this.documents = documents;
-            this.totalElements = totalElements;
-            this.totalPages = totalPages;
+    @Override
+    public CursorPaginationResult queryByDate(String collectionName, String field, Object value, DateRange range,
+                                              DateSort sort, PageCursor after, int page, int size) {
+        return await(queryByDateAsync(collectionName, field, value, range, sort, after, page, size));
+    }
+
+    /**
+     * Get a page of documents in publication order without blocking
+     * @see #queryByDate(String, String, Object, DateRange, DateSort, PageCursor, int, int)
+     */
+    @Override
+    public CompletableFuture<CursorPaginationResult> queryByDateAsync(String collectionName, String field, Object value,
+                                                                      DateRange range, DateSort sort, PageCursor after,
+                                                                      int page, int size) {
+        String position = after != null ? after.encode() : String.valueOf(page);
+        return reads.load("query-by-date",
+                collectionName + "|query-by-date|" + field + "=" + value + "|" + range + "|" + sort + "|" + position + "|" + size,
+                () -> loadByDate(collectionName, field, value, range, sort, after, page, size));
+    }
+
+    private CompletableFuture<CursorPaginationResult> loadByDate(String collectionName, String field, Object value,
+                                                                 DateRange range, DateSort sort, PageCursor after,
+                                                                 int page, int size) {
+        Query filtered = firestore.collection(collectionName);
+        if (field != null) {
+            filtered = filtered.whereEqualTo(field, value);
         }
+        if (range.getFrom() != null) {
+            filtered = filtered.whereGreaterThanOrEqualTo(NewsArticle.PUBLISHED_AT_FIELD, toTimestamp(range.getFrom()));
+        }
+        if (range.getTo() != null) {
+            filtered = filtered.whereLessThan(NewsArticle.PUBLISHED_AT_FIELD, toTimestamp(range.getTo()));
+        }
+        String countKey = collectionName + "|" + (field == null ? "" : field + "=" + value)
+                + "|" + NewsArticle.PUBLISHED_AT_FIELD + range;
+        CompletableFuture<Long> countFuture = range.isUnbounded()
+                ? countAsync(collectionName, field, value)
+                : countAsync(collectionName, countKey, filtered);
 
-        public List<Map<String, Object>> getDocuments() {
-            return documents;
+        Query.Direction direction = sort.isDescending() ? Query.Direction.DESCENDING : Query.Direction.ASCENDING;
+        Query query = filtered
+                .orderBy(NewsArticle.PUBLISHED_AT_FIELD, direction)
+                .orderBy(FieldPath.documentId(), direction);
+        if (after != null) {
+            query = query.startAfter(toTimestamp(after.getLastPublishedAt()), after.getDocumentId());
+        } else if (page > 0) {
+            query = query.offset(page * size);
         }
+        // Read one extra document to know whether there is a next page
+        Query pageQuery = query.limit(size + 1);
+
+        CompletableFuture<QuerySnapshot> pageFuture =
+                calls.call("query-by-date", collectionName, FirestoreCalls.Type.QUERY, pageQuery::get,
+                        "Error getting date-ordered documents from Firestore",
+                        querySnapshot -> (after == null ? (long) page * size : 0) + documentsRead(querySnapshot));
+
+        return countFuture.thenCombine(pageFuture, (totalElements, querySnapshot) ->
+                new CursorPaginationResult(toDocuments(querySnapshot, size), totalElements, querySnapshot.size() > size));
+    }
 
-        public long getTotalElements() {
-            return totalElements;
+    /**
+     * Count documents in a collection, optionally filtered by a where clause (equality).
+     * Uses a Firestore aggregation query, which is billed per 1000 index entries instead of
+     * per document, and caches the result until a write to the collection or the TTL expires.
+     * @param collectionName The name of the collection
+     * @param field The field to filter on (null for the whole collection)
+     * @param value The value to compare against
+     * @return Number of matching documents
+     */
+    @Override
+    public long count(String collectionName, String field, Object value) {
+        return await(countAsync(collectionName, field, value));
+    }
+
+    /**
+     * Count documents without blocking
+     * @see #count(String, String, Object)
+     */
+    @Override
+    public CompletableFuture<Long> countAsync(String collectionName, String field, Object value) {
+        String key = field == null ? collectionName : collectionName + "|" + field + "=" + value;
+        Query query = firestore.collection(collectionName);
+        if (field != null) {
+            query = query.whereEqualTo(field, value);
         }
+        return countAsync(collectionName, key, query);
+    }
 
-        public int getTotalPages() {
-            return totalPages;
+    private CompletableFuture<Long> countAsync(String collectionName, String key, Query query) {
+        CachedCount cached = countCache.get(key);
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.expiresAt > now) {
+            return CompletableFuture.completedFuture(cached.count);
+        }
+
+        AtomicLong generation = countGenerations.computeIfAbsent(collectionName, name -> new AtomicLong());
+        long startedGeneration = generation.get();
+        return reads.load("count", collectionName + "|count|" + startedGeneration + "|" + key, () -> {
+            return calls.call("count", collectionName, FirestoreCalls.Type.QUERY, () -> query.count().get(),
+                            "Error counting documents in Firestore",
+                            // Aggregations are billed one read per batch of up to 1000 index entries
+                            snapshot -> Math.max(1, (snapshot.getCount() + 999) / 1000))
+                    .thenApply(snapshot -> {
+                        long count = snapshot.getCount();
+                        CachedCount entry = new CachedCount(collectionName, count, now + countCacheTtlMillis);
+                        if (generation.get() == startedGeneration) {
+                            countCache.put(key, entry);
+                            // Counts may have been invalidated between the check and the put
+                            if (generation.get() != startedGeneration) {
+                                countCache.remove(key, entry);
+                            }
+                        }
+                        return count;
+                    });
+        });
+    }
+
+    private void invalidateCounts(String collectionName) {
+        countGenerations.computeIfAbsent(collectionName, name -> new AtomicLong()).incrementAndGet();
+        countCache.values().removeIf(cached -> cached.collectionName.equals(collectionName));
+    }
+
+    private static class CachedCount {
+        private final String collectionName;
+        private final long count;
+        private final long expiresAt;
+
+        private CachedCount(String collectionName, long count, long expiresAt) {
+            this.collectionName = collectionName;
+            this.count = count;
+            this.expiresAt = expiresAt;
         }
     }
 
@@ -236,14 +555,27 @@ public class FirestoreService {
      * @param documentId The document ID
      * @param data The data to update
      */
+    @Override
     public void update(String collectionName, String documentId, Map<String, Object> data) {
-        try {
-            DocumentReference docRef = firestore.collection(collectionName).document(documentId);
-            ApiFuture<WriteResult> result = docRef.update(data);
-            result.get(); // Wait for the update to complete
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error updating document in Firestore", e);
-        }
+        await(updateAsync(collectionName, documentId, data));
+    }
+
+    /**
+     * Update a document without blocking
+     * @see #update(String, String, Map)
+     */
+    @Override
+    public CompletableFuture<Void> updateAsync(String collectionName, String documentId, Map<String, Object> data) {
+        DocumentReference docRef = firestore.collection(collectionName).document(documentId);
+        Map<String, Object> fields = new HashMap<>(data);
+        fields.put(UPDATED_AT_FIELD, FieldValue.serverTimestamp());
+        return calls.call("update", collectionName, FirestoreCalls.Type.WRITE, () -> docRef.update(fields),
+                        "Error updating document in Firestore", null)
+                .thenAccept(writeResult -> {
+                    documentCache.evict(collectionName, documentId);
+                    reads.forget(collectionName);
+                    invalidateCounts(collectionName); // Filtered fields (e.g. category) may have changed
+                });
     }
 
     /**
@@ -251,14 +583,25 @@ public class FirestoreService {
      * @param collectionName The name of the collection
      * @param documentId The document ID
      */
+    @Override
     public void delete(String collectionName, String documentId) {
-        try {
-            DocumentReference docRef = firestore.collection(collectionName).document(documentId);
-            ApiFuture<WriteResult> result = docRef.delete();
-            result.get(); // Wait for the delete to complete
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error deleting document from Firestore", e);
-        }
+        await(deleteAsync(collectionName, documentId));
+    }
+
+    /**
+     * Delete a document without blocking
+     * @see #delete(String, String)
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(String collectionName, String documentId) {
+        DocumentReference docRef = firestore.collection(collectionName).document(documentId);
+        return calls.call("delete", collectionName, FirestoreCalls.Type.WRITE, docRef::delete,
+                        "Error deleting document from Firestore", null)
+                .thenAccept(writeResult -> {
+                    documentCache.evict(collectionName, documentId);
+                    reads.forget(collectionName);
+                    invalidateCounts(collectionName);
+                });
     }
 
     /**
@@ -268,5 +611,49 @@ public class FirestoreService {
     public Firestore getFirestore() {
         return firestore;
     }
-}
 
+    private static Timestamp toTimestamp(Instant instant) {
+        return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+    }
+
+    private static List<Map<String, Object>> toDocuments(QuerySnapshot querySnapshot, int limit) {
+        List<Map<String, Object>> documents = new ArrayList<>();
+        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+            if (documents.size() == limit) {
+                break;
+            }
+            Map<String, Object> data = document.getData();
+            if (data != null) {
+                data.put("id", document.getId()); // Include document ID
+                documents.add(data);
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Reads billed for a query: one per returned document, and one for a query returning none
+     */
+    static long documentsRead(QuerySnapshot querySnapshot) {
+        return Math.max(1, querySnapshot.size());
+    }
+
+    /**
+     * Block until an async operation completes, rethrowing its failure
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new RuntimeException("Interrupted while waiting for Firestore", e);
+        } catch (ExecutionException e) {
+            Throwable cause = FutureUtil.unwrap(e);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+}
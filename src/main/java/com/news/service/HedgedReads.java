@@ -0,0 +1,121 @@
+package com.news.service;
+
+import com.news.util.NewsMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hedging policy for Firestore reads (news.firestore.hedge.enabled=true): a read that has not
+ * answered by the latency percentile of its operation's recent calls is sent a second time,
+ * and {@link FirestoreCalls} takes the first answer and cancels the other. This cuts the tail
+ * latency that occasional slow Firestore responses add, at the cost of a few extra reads.
+ *
+ * The extra reads are capped by a budget: every read earns a fraction of a hedge, and a hedge
+ * is only sent if one has been earned, so hedges never exceed the budget percentage of reads
+ * (with a small allowance for bursts). Until an operation has enough samples it is not hedged.
+ */
+@Component
+@ConditionalOnProperty(name = "news.firestore.hedge.enabled", havingValue = "true")
+public class HedgedReads {
+
+    // Latencies kept per operation, and how many new ones trigger recomputing the threshold
+    private static final int WINDOW = 512;
+    private static final int RECOMPUTE_EVERY = 64;
+    // Hedges that may be saved up for a burst
+    private static final double MAX_SAVED_HEDGES = 10;
+
+    private final double percentile;
+    private final double budget;
+    private final int minSamples;
+    private final long minDelayNanos;
+    private final NewsMetrics metrics;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private double savedHedges;
+
+    public HedgedReads(@Value("${news.firestore.hedge.percentile:95}") double percentile,
+                       @Value("${news.firestore.hedge.budget-percent:5}") double budgetPercent,
+                       @Value("${news.firestore.hedge.min-samples:100}") int minSamples,
+                       @Value("${news.firestore.hedge.min-delay-ms:5}") long minDelayMillis,
+                       NewsMetrics metrics) {
+        this.percentile = Math.max(1, Math.min(99.9, percentile));
+        this.budget = budgetPercent / 100;
+        this.minSamples = Math.max(1, Math.min(WINDOW, minSamples));
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.metrics = metrics;
+    }
+
+    /**
+     * How long to wait for a read before hedging it; the read earns its share of the budget
+     * @param operation The read operation, e.g. "get" or "query-page"
+     * @return The delay in nanoseconds, or -1 if the operation is not hedged yet
+     */
+    public long delayNanos(String operation) {
+        synchronized (this) {
+            savedHedges = Math.min(MAX_SAVED_HEDGES, savedHedges + budget);
+        }
+        LatencyWindow window = latencies.get(operation);
+        long threshold = window != null ? window.threshold : -1;
+        return threshold < 0 ? -1 : Math.max(minDelayNanos, threshold);
+    }
+
+    /**
+     * Take a hedge from the budget
+     * @return Whether the hedge may be sent
+     */
+    public boolean tryHedge(String operation) {
+        boolean allowed;
+        synchronized (this) {
+            allowed = savedHedges >= 1;
+            if (allowed) {
+                savedHedges -= 1;
+            }
+        }
+        metrics.hedge(operation, allowed ? "fired" : "over-budget");
+        return allowed;
+    }
+
+    /**
+     * The hedge answered first
+     */
+    public void hedgeWon(String operation) {
+        metrics.hedge(operation, "won");
+    }
+
+    /**
+     * Record the latency of a successful read
+     */
+    public void record(String operation, long latencyNanos) {
+        latencies.computeIfAbsent(operation, key -> new LatencyWindow()).add(latencyNanos);
+    }
+
+    /**
+     * Recent latencies of an operation and their percentile
+     */
+    private class LatencyWindow {
+        private final long[] samples = new long[WINDOW];
+        private int next;
+        private int count;
+        private int sinceRecompute;
+        private volatile long threshold = -1;
+
+        synchronized void add(long latencyNanos) {
+            samples[next] = latencyNanos;
+            next = (next + 1) % WINDOW;
+            count = Math.min(WINDOW, count + 1);
+            if (count >= minSamples && (++sinceRecompute >= RECOMPUTE_EVERY || threshold < 0)) {
+                sinceRecompute = 0;
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                threshold = sorted[(int) Math.min(count - 1, Math.ceil(count * percentile / 100) - 1)];
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.news.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.news.model.DateSort;
+import com.news.model.NewsArticle;
+import com.news.model.PaginatedResponse;
+import com.news.util.HttpCachePolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ready-to-send bytes of the hottest listing pages: the first pages of each category in the
+ * common page sizes, in document ID or publication order. Each page is serialized to JSON once, plus a gzip variant, together with
+ * its caching headers, so {@link com.news.filter.HotPageFilter} can answer a hit by writing
+ * the bytes straight to the response.
+ *
+ * Pages are rebuilt in the background: right away when an article they list or their
+ * category changes on this instance, and periodically (refresh-ahead) to pick up writes made
+ * by other instances. A page not rebuilt within the TTL is dropped.
+ */
+@Service
+public class HotPageCache {
+
+    private final ObjectMapper objectMapper;
+    private final HttpCachePolicy cachePolicy;
+    private final boolean enabled;
+    private final int maxPage;
+    private final Set<Integer> sizes;
+    private final long refreshMillis;
+    private final Cache<String, RenderedPage> pages;
+    // Bumped by every invalidation, so a rebuild that started before one is not stored
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public HotPageCache(ObjectMapper objectMapper,
+                        HttpCachePolicy cachePolicy,
+                        @Value("${news.hot-pages.enabled:true}") boolean enabled,
+                        @Value("${news.hot-pages.max-page:0}") int maxPage,
+                        @Value("${news.hot-pages.sizes:10,20}") List<Integer> sizes,
+                        @Value("${news.hot-pages.max-entries:256}") long maxEntries,
+                        @Value("${news.hot-pages.refresh-ms:10000}") long refreshMillis,
+                        @Value("${news.hot-pages.ttl-ms:60000}") long ttlMillis) {
+        this.objectMapper = objectMapper;
+        this.cachePolicy = cachePolicy;
+        this.enabled = enabled;
+        this.maxPage = maxPage;
+        this.sizes = new HashSet<>(sizes);
+        this.refreshMillis = refreshMillis;
+        // Bounded, since any category name in a URL makes a key
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Whether pages with this number and size are kept
+     */
+    public boolean isHot(int page, int size) {
+        return enabled && page <= maxPage && sizes.contains(size);
+    }
+
+    /**
+     * Get a rendered page, starting a background rebuild if it is due for a refresh
+     * @param category Category of the listing (null for every category)
+     * @param sort Publication order of the listing (null for document ID order)
+     * @return The page, or null if it is not cached
+     */
+    public RenderedPage get(String category, DateSort sort, int page, int size) {
+        if (!isHot(page, size)) {
+            return null;
+        }
+        RenderedPage rendered = pages.getIfPresent(key(category, sort, page, size));
+        if (rendered == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - rendered.builtAt > refreshMillis && rendered.refreshing.compareAndSet(false, true)) {
+            rebuild(category, sort, page, size, rendered.loader);
+        }
+        hits.incrementAndGet();
+        return rendered;
+    }
+
+    /**
+     * Keep a freshly loaded page if it is hot
+     * @param category Category of the listing (null for every category)
+     * @param sort Publication order of the listing (null for document ID order)
+     * @param response The page as loaded
+     * @param loader Loads the page again, for background rebuilds
+     */
+    public void store(String category, DateSort sort, int page, int size, PaginatedResponse<NewsArticle> response,
+                      Supplier<CompletableFuture<PaginatedResponse<NewsArticle>>> loader) {
+        if (isHot(page, size)) {
+            pages.put(key(category, sort, page, size), render(category, sort, response, loader));
+        }
+    }
+
+    /**
+     * Drop and rebuild the pages tagged with any of these surrogate keys
+     * @param surrogateKeys Keys from {@link HttpCachePolicy}
+     */
+    public void invalidate(Collection<String> surrogateKeys) {
+        generation.incrementAndGet();
+        for (Map.Entry<String, RenderedPage> entry : pages.asMap().entrySet()) {
+            RenderedPage rendered = entry.getValue();
+            if (!Collections.disjoint(rendered.surrogateKeys, surrogateKeys)
+                    && pages.asMap().remove(entry.getKey(), rendered)) {
+                rebuild(rendered.category, rendered.sort, rendered.page, rendered.size, rendered.loader);
+            }
+        }
+    }
+
+    /**
+     * Entry count and hit/rebuild counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", pages.estimatedSize());
+        stats.put("hits", hits.get());
+        stats.put("rebuilds", rebuilds.get());
+        return stats;
+    }
+
+    private void rebuild(String category, DateSort sort, int page, int size,
+                         Supplier<CompletableFuture<PaginatedResponse<NewsArticle>>> loader) {
+        long startedAt = generation.get();
+        rebuilds.incrementAndGet();
+        loader.get().whenComplete((response, failure) -> {
+            if (failure == null && generation.get() == startedAt) {
+                pages.put(key(category, sort, page, size), render(category, sort, response, loader));
+                return;
+            }
+            // Failed or raced with a write: keep the current page (if any) and retry on a later hit.
+            // A page that keeps failing is dropped at the TTL; requests then go through the controller.
+            RenderedPage current = pages.getIfPresent(key(category, sort, page, size));
+            if (current != null) {
+                current.refreshing.set(false);
+            }
+        });
+    }
+
+    private RenderedPage render(String category, DateSort sort, PaginatedResponse<NewsArticle> response,
+                                Supplier<CompletableFuture<PaginatedResponse<NewsArticle>>> loader) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize page", e);
+        }
+        Set<String> keys = HttpCachePolicy.pageKeys(response, category);
+        String etag = HttpCachePolicy.etag(response);
+        return new RenderedPage(category, sort, response.getPage(), response.getSize(), response.getContent().size(),
+                json, gzip(json), etag,
+                // The gzip variant is a different representation, so it gets its own strong ETag
+                etag.substring(0, etag.length() - 1) + "-gz\"",
+                cachePolicy.getCacheControl(), String.join(" ", keys), keys, loader);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String key(String category, DateSort sort, int page, int size) {
+        return (category == null ? "" : "c:" + category) + "|" + (sort == null ? "" : sort.name()) + "|" + page + "|" + size;
+    }
+
+    /**
+     * A serialized page and the headers sent with it
+     */
+    public static class RenderedPage {
+        private final String category;
+        private final DateSort sort;
+        private final int page;
+        private final int size;
+        private final int itemCount;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+        private final String cacheControl;
+        private final String surrogateKeyHeaderValue;
+        private final Set<String> surrogateKeys;
+        private final Supplier<CompletableFuture<PaginatedResponse<NewsArticle>>> loader;
+        private final long builtAt = System.currentTimeMillis();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private RenderedPage(String category, DateSort sort, int page, int size, int itemCount, byte[] json,
+                             byte[] gzip, String etag,
+                             String gzipEtag, String cacheControl, String surrogateKeyHeaderValue,
+                             Set<String> surrogateKeys,
+                             Supplier<CompletableFuture<PaginatedResponse<NewsArticle>>> loader) {
+            this.category = category;
+            this.sort = sort;
+            this.page = page;
+            this.size = size;
+            this.itemCount = itemCount;
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag;
+            this.gzipEtag = gzipEtag;
+            this.cacheControl = cacheControl;
+            this.surrogateKeyHeaderValue = surrogateKeyHeaderValue;
+            this.surrogateKeys = surrogateKeys;
+            this.loader = loader;
+        }
+
+        public int getItemCount() {
+            return itemCount;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getGzipEtag() {
+            return gzipEtag;
+        }
+
+        public String getCacheControl() {
+            return cacheControl;
+        }
+
+        public String getSurrogateKeyHeaderValue() {
+            return surrogateKeyHeaderValue;
+        }
+    }
+}
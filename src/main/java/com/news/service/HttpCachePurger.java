@@ -0,0 +1,72 @@
+package com.news.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Purges by surrogate key with a POST of {@code {"surrogate_keys": [...]}} to a configurable
+ * URL (news.http.cache.purger=http). Point news.http.cache.purge-url at the CDN's purge API,
+ * or at a local stand-in during development.
+ */
+@Service
+@ConditionalOnProperty(name = "news.http.cache.purger", havingValue = "http")
+public class HttpCachePurger implements CachePurger {
+
+    private final ObjectMapper objectMapper;
+    private final URI purgeUrl;
+    private final String token;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    public HttpCachePurger(ObjectMapper objectMapper,
+                           @Value("${news.http.cache.purge-url}") String purgeUrl,
+                           @Value("${news.http.cache.purge-token:}") String token,
+                           @Value("${news.http.cache.purge-timeout-ms:5000}") long timeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.purgeUrl = URI.create(purgeUrl);
+        this.token = token;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void purge(Collection<String> surrogateKeys) {
+        if (surrogateKeys.isEmpty()) {
+            return;
+        }
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(Map.of("surrogate_keys", new ArrayList<>(surrogateKeys)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(purgeUrl)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (!token.isEmpty()) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (failure != null) {
+                        System.err.println("Warning: Cache purge failed: " + failure.getMessage());
+                    } else if (response.statusCode() >= 300) {
+                        System.err.println("Warning: Cache purge returned HTTP " + response.statusCode());
+                    }
+                });
+    }
+}
@@ -0,0 +1,227 @@
+package com.news.service;
+
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.news.util.RequestContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable queue of hosted images to delete, kept in Firestore ({@code image_deletions}) so
+ * deletions survive restarts and never run on the request path. Enqueuing drops the image's
+ * reference in the {@link ImageHashIndex}; only images nothing references anymore are queued.
+ *
+ * A scheduled job drains the queue in batches of up to 100, each deleted with one bulk call
+ * to the image host. Failed batches are retried with exponential backoff; images still
+ * failing after the last attempt are dropped and left to the {@link ImageReconciler}.
+ */
+@Service
+@ConditionalOnProperty(name = "news.storage", havingValue = "firestore", matchIfMissing = true)
+public class ImageDeletionQueue {
+
+    private static final String COLLECTION_NAME = "image_deletions";
+
+    private final FirestoreService firestoreService;
+    private final FirestoreCalls calls;
+    private final ImageUploader uploader;
+    private final ImageHashIndex hashIndex;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    public ImageDeletionQueue(FirestoreService firestoreService,
+                              FirestoreCalls calls,
+                              ImageUploader uploader,
+                              ImageHashIndex hashIndex,
+                              @Value("${news.images.deletion.batch-size:100}") int batchSize,
+                              @Value("${news.images.deletion.max-attempts:8}") int maxAttempts,
+                              @Value("${news.images.deletion.initial-backoff-ms:60000}") long initialBackoffMillis,
+                              @Value("${news.images.deletion.max-backoff-ms:3600000}") long maxBackoffMillis) {
+        this.firestoreService = firestoreService;
+        this.calls = calls;
+        this.uploader = uploader;
+        this.hashIndex = hashIndex;
+        this.batchSize = Math.min(batchSize, ImageUploader.MAX_BATCH_SIZE);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Drop an article's reference to an image and queue the image for deletion if nothing
+     * else references it. URLs not hosted by the image backend are ignored.
+     * @param imageUrl URL returned by an upload, or null
+     * @return Completes once the image is released and, if unreferenced, durably queued
+     */
+    public CompletableFuture<Void> enqueue(String imageUrl) {
+        String assetId = uploader.assetId(imageUrl);
+        if (assetId == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        RequestContext context = RequestContext.capture();
+        return hashIndex.releaseAsync(assetId).thenCompose(context.wrap(unreferenced -> {
+            if (!unreferenced) {
+                skipped.incrementAndGet();
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            return write(assetId);
+        }));
+    }
+
+    /**
+     * Queue images for deletion as they are, without touching reference counts.
+     * Used for orphans whose references were already dropped.
+     * @param assetIds Hosted asset IDs
+     */
+    public void enqueueOrphans(Collection<String> assetIds) {
+        WriteBatch batch = firestore().batch();
+        assetIds.forEach(assetId -> batch.set(entry(assetId), newEntry(assetId)));
+        commit(batch);
+    }
+
+    /**
+     * Queue counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("deleted", deleted.get());
+        stats.put("retried", retried.get());
+        stats.put("abandoned", abandoned.get());
+        stats.put("stillReferenced", skipped.get());
+        return stats;
+    }
+
+    /**
+     * Delete the queued images that are due, one bulk call per batch. Stops at the first
+     * failed batch; it is retried after its backoff.
+     */
+    @Scheduled(fixedDelayString = "${news.images.deletion.interval-ms:30000}",
+            initialDelayString = "${news.images.deletion.interval-ms:30000}")
+    public void drain() {
+        try {
+            while (true) {
+                List<QueryDocumentSnapshot> entries = due();
+                if (entries.isEmpty() || !deleteBatch(entries) || entries.size() < batchSize) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Failed to drain image deletion queue: " + e.getMessage());
+        }
+    }
+
+    private CompletableFuture<Void> write(String assetId) {
+        DocumentReference entry = entry(assetId);
+        return calls.call("save", COLLECTION_NAME, FirestoreCalls.Type.WRITE, () -> entry.set(newEntry(assetId)),
+                "Error queuing image deletion", null).thenApply(result -> null);
+    }
+
+    private DocumentReference entry(String assetId) {
+        // Keyed by asset, so queuing the same image twice is one entry
+        return firestore().collection(COLLECTION_NAME).document(URLEncoder.encode(assetId, StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, Object> newEntry(String assetId) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("assetId", assetId);
+        data.put("attempts", 0);
+        data.put("notBefore", 0L);
+        data.put(FirestoreService.UPDATED_AT_FIELD, FieldValue.serverTimestamp());
+        return data;
+    }
+
+    private List<QueryDocumentSnapshot> due() {
+        Query query = firestore().collection(COLLECTION_NAME)
+                .whereLessThanOrEqualTo("notBefore", System.currentTimeMillis())
+                .orderBy("notBefore")
+                .limit(batchSize);
+        return calls.await("query", COLLECTION_NAME, FirestoreCalls.Type.QUERY, query::get,
+                "Error reading image deletion queue", FirestoreService::documentsRead).getDocuments();
+    }
+
+    /**
+     * @return True if the batch was deleted
+     */
+    private boolean deleteBatch(List<QueryDocumentSnapshot> entries) {
+        List<String> assetIds = new ArrayList<>();
+        entries.forEach(entry -> assetIds.add(entry.getString("assetId")));
+
+        // Content uploaded again since it was released reuses the same asset, which must stay.
+        // Claiming the rest keeps uploads of their content from reusing them until they are gone.
+        Set<String> claimed = hashIndex.claimForDeletion(assetIds);
+        skipped.addAndGet(assetIds.size() - claimed.size());
+
+        try {
+            uploader.deleteImages(new ArrayList<>(claimed));
+        } catch (Exception e) {
+            System.err.println("Warning: Failed to delete " + claimed.size() + " images: " + e.getMessage());
+            reschedule(entries);
+            return false;
+        } finally {
+            hashIndex.releaseClaims(claimed);
+        }
+
+        WriteBatch batch = firestore().batch();
+        entries.forEach(entry -> batch.delete(entry.getReference()));
+        commit(batch);
+        deleted.addAndGet(claimed.size());
+        return true;
+    }
+
+    private void reschedule(List<QueryDocumentSnapshot> entries) {
+        WriteBatch batch = firestore().batch();
+        long now = System.currentTimeMillis();
+        for (QueryDocumentSnapshot entry : entries) {
+            Long previous = entry.getLong("attempts");
+            int attempts = (previous != null ? previous.intValue() : 0) + 1;
+            if (attempts >= maxAttempts) {
+                batch.delete(entry.getReference());
+                abandoned.incrementAndGet();
+                continue;
+            }
+            // Exponential backoff with jitter, so an outage of the image host isn't retried in lockstep
+            long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempts - 1, 20));
+            long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            Map<String, Object> patch = new HashMap<>();
+            patch.put("attempts", attempts);
+            patch.put("notBefore", now + delay);
+            patch.put(FirestoreService.UPDATED_AT_FIELD, FieldValue.serverTimestamp());
+            batch.update(entry.getReference(), patch);
+            retried.incrementAndGet();
+        }
+        commit(batch);
+    }
+
+    private void commit(WriteBatch batch) {
+        calls.await("commit", COLLECTION_NAME, FirestoreCalls.Type.WRITE, batch::commit,
+                "Error updating image deletion queue", null);
+    }
+
+    private Firestore firestore() {
+        return firestoreService.getFirestore();
+    }
+}
@@ -0,0 +1,404 @@
+package com.news.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.WriteBatch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Content-addressed index of hosted images, so identical bytes are uploaded once.
+ * Each image is stored in Firestore under its SHA-256 ({@code image_hashes/<sha256>})
+ * with its URL and a reference count of the uploads that returned it. A bounded
+ * in-memory cache fronts the hash to URL lookup.
+ *
+ * Uploads increment the count and deletions decrement it; the hosted asset is only
+ * destroyed when the count drops to zero. Before destroying it, the deleter claims the
+ * content ({@code image_hash_claims/<sha256>}), so an upload of the same content meanwhile
+ * cannot register the URL of the asset being destroyed.
+ */
+@Service
+@ConditionalOnProperty(name = "news.storage", havingValue = "firestore", matchIfMissing = true)
+public class ImageHashIndex {
+
+    private static final String COLLECTION_NAME = "image_hashes";
+    private static final String CLAIMS_COLLECTION_NAME = "image_hash_claims";
+    private static final String CLAIMED_AT_FIELD = "claimedAt";
+    // Far longer than destroying a batch takes, so only the claims of a deleter that died lapse
+    private static final Duration CLAIM_TTL = Duration.ofMinutes(10);
+
+    private final FirestoreService firestoreService;
+    private final FirestoreCalls calls;
+    private final Cache<String, String> urls;
+
+    public ImageHashIndex(FirestoreService firestoreService,
+                          FirestoreCalls calls,
+                          @Value("${news.images.hash-cache-size:10000}") long cacheSize) {
+        this.firestoreService = firestoreService;
+        this.calls = calls;
+        this.urls = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * SHA-256 of a file's content, read as a stream
+     * @param file The file to hash
+     * @return Lowercase hex digest
+     */
+    public static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Whether a hosted asset ID was named after its content hash by {@link #register}
+     * @param assetId Hosted asset ID, e.g. "news/3f2a..."
+     * @return The content hash, or null for assets not tracked by this index
+     */
+    public static String hashOf(String assetId) {
+        if (assetId == null) {
+            return null;
+        }
+        String name = assetId.substring(assetId.lastIndexOf('/') + 1);
+        return name.length() == 64 && name.chars().allMatch(c -> Character.digit(c, 16) >= 0) ? name : null;
+    }
+
+    /**
+     * Take a reference on an already hosted image with this content
+     * @param hash Content hash from {@link #hash(Path)}
+     * @return The image URL, or null if the content is not hosted yet
+     */
+    public String acquire(String hash) {
+        DocumentReference docRef = document(hash);
+        String url = urls.getIfPresent(hash);
+        if (url != null) {
+            try {
+                calls.await("update", COLLECTION_NAME, FirestoreCalls.Type.WRITE,
+                        () -> docRef.update("refCount", FieldValue.increment(1),
+                                FirestoreService.UPDATED_AT_FIELD, FieldValue.serverTimestamp()),
+                        "Error updating image reference", null);
+                return url;
+            } catch (RuntimeException e) {
+                if (!FirestoreCalls.isNotFound(e)) {
+                    throw e;
+                }
+                urls.invalidate(hash); // Released to zero meanwhile
+                return null;
+            }
+        }
+
+        url = transaction(docRef, (transaction, snapshot) -> {
+            if (!snapshot.exists()) {
+                return null;
+            }
+            long refCount = snapshot.getLong("refCount") != null ? snapshot.getLong("refCount") : 0;
+            return new Write(snapshot.getString("url"), refCount + 1);
+        });
+        if (url != null) {
+            urls.put(hash, url);
+        }
+        return url;
+    }
+
+    /**
+     * Record a newly hosted image, or take a reference on the existing entry if a
+     * concurrent upload of the same content registered first
+     * @param hash Content hash from {@link #hash(Path)}
+     * @param url URL of the uploaded image
+     * @return The URL to use: the existing one if the content was registered meanwhile. Null if
+     *         the content is being deleted: the upload may have found the asset about to be
+     *         destroyed, so it must be uploaded again once the deletion is done.
+     */
+    public String register(String hash, String url) {
+        String registered = transaction(document(hash), (transaction, snapshot) -> {
+            if (snapshot.exists()) {
+                long refCount = snapshot.getLong("refCount") != null ? snapshot.getLong("refCount") : 0;
+                return new Write(snapshot.getString("url"), refCount + 1);
+            }
+            return isClaimed(read(transaction, claimDocument(hash))) ? null : new Write(url, 1);
+        });
+        if (registered != null) {
+            urls.put(hash, registered);
+        }
+        return registered;
+    }
+
+    /**
+     * Drop a reference to a hosted image
+     * @param assetId Hosted asset ID of the image
+     * @return True if nothing references the image anymore (or it is not tracked), so it can be destroyed
+     */
+    public boolean release(String assetId) {
+        try {
+            return releaseAsync(assetId).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while releasing image reference", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException : new RuntimeException("Error releasing image reference", e.getCause());
+        }
+    }
+
+    /**
+     * Drop a reference to a hosted image without blocking
+     * @see #release(String)
+     */
+    public CompletableFuture<Boolean> releaseAsync(String assetId) {
+        String hash = hashOf(assetId);
+        if (hash == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        DocumentReference docRef = document(hash);
+        CompletableFuture<Boolean> future = calls.call("transaction", COLLECTION_NAME, FirestoreCalls.Type.WRITE,
+                () -> firestoreService.getFirestore().runTransaction(transaction -> {
+                    DocumentSnapshot snapshot = read(transaction, docRef);
+                    if (!snapshot.exists()) {
+                        return true;
+                    }
+                    long refCount = snapshot.getLong("refCount") != null ? snapshot.getLong("refCount") : 0;
+                    if (refCount <= 1) {
+                        transaction.delete(docRef);
+                        return true;
+                    }
+                    transaction.update(docRef, "refCount", refCount - 1);
+                    return false;
+                }), "Error releasing image reference", null);
+        return future.thenApply(unreferenced -> {
+            if (unreferenced) {
+                urls.invalidate(hash);
+            }
+            return unreferenced;
+        });
+    }
+
+    /**
+     * Claim released images before destroying them: until {@link #releaseClaims} (or the claim
+     * lapses), {@link #register} does not hand out their content's URL. Images taken again
+     * since they were released, e.g. by an upload of the same content, are not claimed and
+     * must not be destroyed.
+     * @param assetIds Hosted asset IDs
+     * @return The asset IDs claimed, which may be destroyed
+     */
+    public Set<String> claimForDeletion(Collection<String> assetIds) {
+        Map<String, CompletableFuture<Boolean>> claims = new LinkedHashMap<>();
+        for (String assetId : assetIds) {
+            String hash = hashOf(assetId);
+            // Assets not named after their content are never shared
+            claims.put(assetId, hash == null ? CompletableFuture.completedFuture(true) : claimAsync(hash));
+        }
+        Set<String> claimed = new HashSet<>();
+        RuntimeException failure = null;
+        for (Map.Entry<String, CompletableFuture<Boolean>> claim : claims.entrySet()) {
+            try {
+                if (claim.getValue().join()) {
+                    claimed.add(claim.getKey());
+                }
+            } catch (CompletionException e) {
+                failure = e.getCause() instanceof RuntimeException runtimeException
+                        ? runtimeException : new RuntimeException("Error claiming images for deletion", e.getCause());
+            }
+        }
+        if (failure != null) {
+            releaseClaims(claimed);
+            throw failure;
+        }
+        return claimed;
+    }
+
+    /**
+     * Drop the claims of {@link #claimForDeletion} once the images are destroyed, or were not
+     * @param assetIds Hosted asset IDs that were claimed
+     */
+    public void releaseClaims(Collection<String> assetIds) {
+        WriteBatch batch = firestoreService.getFirestore().batch();
+        boolean hasDeletes = false;
+        for (String assetId : assetIds) {
+            String hash = hashOf(assetId);
+            if (hash != null) {
+                batch.delete(claimDocument(hash));
+                hasDeletes = true;
+            }
+        }
+        if (hasDeletes) {
+            calls.await("commit", CLAIMS_COLLECTION_NAME, FirestoreCalls.Type.WRITE, batch::commit,
+                    "Error releasing image deletion claims", null);
+        }
+    }
+
+    /**
+     * Drop the entries of hosted images that no article uses anymore, correcting reference
+     * counts that drifted (e.g. articles deleted without releasing their image). Entries
+     * written or taken since the cutoff are kept, as an upload may be about to attach them.
+     * @param assetIds Hosted asset IDs no article refers to
+     * @param cutoff Entries updated after this are kept
+     * @return The asset IDs whose entries were kept, so the images must stay
+     */
+    public Set<String> forgetIdle(Collection<String> assetIds, Instant cutoff) {
+        Set<String> kept = new HashSet<>();
+        WriteBatch batch = firestoreService.getFirestore().batch();
+        boolean hasDeletes = false;
+        for (DocumentSnapshot snapshot : entries(assetIds)) {
+            if (!snapshot.exists()) {
+                continue;
+            }
+            Timestamp updatedAt = snapshot.getTimestamp(FirestoreService.UPDATED_AT_FIELD);
+            if (updatedAt != null && updatedAt.toDate().toInstant().isAfter(cutoff)) {
+                kept.add(snapshot.getReference().getId());
+            } else {
+                // Only delete if untouched since it was read
+                batch.delete(snapshot.getReference(), Precondition.updatedAt(snapshot.getUpdateTime()));
+                urls.invalidate(snapshot.getReference().getId());
+                hasDeletes = true;
+            }
+        }
+        if (hasDeletes) {
+            try {
+                calls.await("commit", COLLECTION_NAME, FirestoreCalls.Type.WRITE, batch::commit,
+                        "Error dropping image references", null);
+            } catch (RuntimeException e) {
+                // An entry was taken meanwhile, or Firestore failed; keep everything and let the next run retry
+                return new HashSet<>(assetIds);
+            }
+        }
+        return assetIds.stream().filter(id -> kept.contains(hashOf(id))).collect(Collectors.toSet());
+    }
+
+    private List<DocumentSnapshot> entries(Collection<String> assetIds) {
+        DocumentReference[] refs = assetIds.stream()
+                .map(ImageHashIndex::hashOf)
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(this::document)
+                .toArray(DocumentReference[]::new);
+        if (refs.length == 0) {
+            return Collections.emptyList();
+        }
+        return calls.await("get-batch", COLLECTION_NAME, FirestoreCalls.Type.READ,
+                () -> firestoreService.getFirestore().getAll(refs),
+                "Error reading image references", List::size);
+    }
+
+    private DocumentReference document(String hash) {
+        return firestoreService.getFirestore().collection(COLLECTION_NAME).document(hash);
+    }
+
+    private DocumentReference claimDocument(String hash) {
+        return firestoreService.getFirestore().collection(CLAIMS_COLLECTION_NAME).document(hash);
+    }
+
+    /**
+     * Claim content that has no entry, in the same transaction as checking for the entry, so
+     * it cannot be registered in between
+     * @return Completes with true if claimed, false if the content is referenced
+     */
+    private CompletableFuture<Boolean> claimAsync(String hash) {
+        DocumentReference docRef = document(hash);
+        DocumentReference claimRef = claimDocument(hash);
+        return calls.call("transaction", CLAIMS_COLLECTION_NAME, FirestoreCalls.Type.WRITE,
+                () -> firestoreService.getFirestore().runTransaction(transaction -> {
+                    if (read(transaction, docRef).exists()) {
+                        return false;
+                    }
+                    transaction.set(claimRef, Map.of(CLAIMED_AT_FIELD, FieldValue.serverTimestamp()));
+                    return true;
+                }), "Error claiming image for deletion", null);
+    }
+
+    private static boolean isClaimed(DocumentSnapshot claim) {
+        if (!claim.exists()) {
+            return false;
+        }
+        Timestamp claimedAt = claim.getTimestamp(CLAIMED_AT_FIELD);
+        return claimedAt == null || claimedAt.toDate().toInstant().isAfter(Instant.now().minus(CLAIM_TTL));
+    }
+
+    /**
+     * Read an entry and write back its URL and new reference count in one transaction
+     * @return The URL written, or null if nothing was written
+     */
+    private String transaction(DocumentReference docRef, Update update) {
+        return calls.await("transaction", COLLECTION_NAME, FirestoreCalls.Type.WRITE,
+                () -> firestoreService.getFirestore().runTransaction(transaction -> {
+                    Write write = update.apply(transaction, read(transaction, docRef));
+                    if (write == null) {
+                        return null;
+                    }
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("url", write.url);
+                    data.put("refCount", write.refCount);
+                    data.put(FirestoreService.UPDATED_AT_FIELD, FieldValue.serverTimestamp());
+                    transaction.set(docRef, data);
+                    return write.url;
+                }), "Error updating image reference", null);
+    }
+
+    /**
+     * Read an entry in a transaction, within the read deadline: the transaction's deadline
+     * fails its caller, but does not interrupt the read
+     */
+    private DocumentSnapshot read(Transaction transaction, DocumentReference docRef) throws Exception {
+        return transaction.get(docRef).get(calls.timeoutMillis(FirestoreCalls.Type.READ), TimeUnit.MILLISECONDS);
+    }
+
+    private interface Update {
+        /**
+         * @param transaction The transaction, for further reads
+         * @param entry The entry as read in the transaction
+         * @return The entry to write, or null to write nothing
+         */
+        Write apply(Transaction transaction, DocumentSnapshot entry) throws Exception;
+    }
+
+    private static class Write {
+        private final String url;
+        private final long refCount;
+
+        private Write(String url, long refCount) {
+            this.url = url;
+            this.refCount = refCount;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.news.service;
+
+import com.google.cloud.firestore.FieldValue;
+import com.news.model.NewsArticle;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background image ingestion for news articles. Article writes are saved right away with
+ * {@code imageStatus = "pending"}; a bounded worker pool uploads the image and then patches
+ * the document's {@code image} field. Failed uploads, and patches that fail while the
+ * article still exists, are retried with exponential backoff, after which the article is
+ * marked {@code imageStatus = "failed"}.
+ *
+ * Only the latest image submitted for a document is attached: an upload that finishes after
+ * a newer one was submitted (or after the article was deleted) is discarded.
+ */
+@Service
+public class ImageIngestionService {
+
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_FAILED = "failed";
+    private static final String COLLECTION_NAME = "news";
+
+    private final ImageUploader uploader;
+    private final ImageSpool imageSpool;
+    private final ImageDeletionQueue deletionQueue; // Null with in-memory storage
+    private final NewsRepository repository;
+    private final NewsSearchIndex searchIndex;
+    private final NewsReplica replica;
+    private final NewsCacheInvalidator cacheInvalidator;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService retryScheduler;
+    private final Map<String, Long> latestJobs = new ConcurrentHashMap<>();
+    private final AtomicLong jobSequence = new AtomicLong();
+    private final AtomicLong retrying = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public ImageIngestionService(ImageUploader uploader,
+                                 ImageSpool imageSpool,
+                                 ObjectProvider<ImageDeletionQueue> deletionQueue,
+                                 NewsRepository repository,
+                                 NewsSearchIndex searchIndex,
+                                 NewsReplica replica,
+                                 NewsCacheInvalidator cacheInvalidator,
+                                 @Value("${news.images.ingest.workers:4}") int workerCount,
+                                 @Value("${news.images.ingest.queue-capacity:200}") int queueCapacity,
+                                 @Value("${news.images.ingest.max-attempts:5}") int maxAttempts,
+                                 @Value("${news.images.ingest.initial-backoff-ms:1000}") long initialBackoffMillis,
+                                 @Value("${news.images.ingest.max-backoff-ms:60000}") long maxBackoffMillis) {
+        this.uploader = uploader;
+        this.imageSpool = imageSpool;
+        this.deletionQueue = deletionQueue.getIfAvailable();
+        this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.replica = replica;
+        this.cacheInvalidator = cacheInvalidator;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("image-ingest-"));
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("image-retry-"));
+    }
+
+    /**
+     * Queue an image for upload to an article that was saved with {@link #STATUS_PENDING}
+     * @param documentId The article's document ID
+     * @param imageFile Claimed {@link ImageSpool} file; deleted once the job is done
+     * @param replacedImage Image URL to release once the new one is attached, or null
+     */
+    public void submit(String documentId, Path imageFile, String replacedImage) {
+        UploadJob job = new UploadJob(jobSequence.incrementAndGet(), documentId, imageFile, replacedImage);
+        latestJobs.put(documentId, job.id);
+        execute(job, 1);
+    }
+
+    /**
+     * Whether the upload queue is full, in which case new images should be refused
+     */
+    public boolean isSaturated() {
+        return workers.getQueue().remainingCapacity() == 0;
+    }
+
+    /**
+     * Queue depth and outcome counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", workers.getQueue().size());
+        stats.put("active", workers.getActiveCount());
+        stats.put("retrying", retrying.get());
+        stats.put("workers", workers.getMaximumPoolSize());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() {
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+    }
+
+    private void execute(UploadJob job, int attempt) {
+        try {
+            workers.execute(() -> process(job, attempt));
+        } catch (RejectedExecutionException e) {
+            markFailed(job, "Image upload queue is full");
+        }
+    }
+
+    private void process(UploadJob job, int attempt) {
+        if (!isLatest(job)) {
+            imageSpool.delete(job.imageFile); // Superseded before it was uploaded
+            return;
+        }
+
+        String imageUrl;
+        try {
+            imageUrl = uploader.uploadImage(job.imageFile);
+        } catch (IllegalArgumentException e) {
+            markFailed(job, e.getMessage()); // Not retryable
+            return;
+        } catch (Exception e) {
+            if (attempt >= maxAttempts) {
+                markFailed(job, e.getMessage());
+                return;
+            }
+            scheduleRetry(job, attempt);
+            return;
+        }
+
+        imageSpool.delete(job.imageFile);
+        attach(job, imageUrl, 1);
+    }
+
+    private void scheduleRetry(UploadJob job, int attempt) {
+        if (!retryLater(attempt, () -> execute(job, attempt + 1))) {
+            imageSpool.delete(job.imageFile); // Shutting down
+        }
+    }
+
+    private void scheduleAttach(UploadJob job, String imageUrl, int attempt) {
+        retryLater(attempt, () -> {
+            try {
+                workers.execute(() -> attach(job, imageUrl, attempt + 1));
+            } catch (RejectedExecutionException e) {
+                release(imageUrl);
+                markFailed(job, "Image upload queue is full");
+            }
+        });
+    }
+
+    /**
+     * Run a retry after exponential backoff with jitter, so an outage of Cloudinary or
+     * Firestore isn't hit by every job at once
+     * @return False if shutting down
+     */
+    private boolean retryLater(int attempt, Runnable retry) {
+        long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        retrying.incrementAndGet();
+        try {
+            retryScheduler.schedule(() -> {
+                retrying.decrementAndGet();
+                retry.run();
+            }, delay, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            retrying.decrementAndGet();
+            return false;
+        }
+    }
+
+    private void attach(UploadJob job, String imageUrl, int attempt) {
+        if (!isLatest(job)) {
+            release(imageUrl);
+            return;
+        }
+
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("image", imageUrl);
+        patch.put("imageStatus", FieldValue.delete());
+        Map<String, Object> data;
+        try {
+            repository.update(COLLECTION_NAME, job.documentId, patch);
+            data = repository.get(COLLECTION_NAME, job.documentId);
+        } catch (RuntimeException e) {
+            if (isDeleted(job.documentId)) {
+                // Deleted while the image was uploading
+                release(imageUrl);
+                failed.incrementAndGet();
+                latestJobs.remove(job.documentId, job.id);
+            } else if (attempt >= maxAttempts) {
+                release(imageUrl);
+                markFailed(job, e.getMessage());
+            } else {
+                // Firestore failing, out of time or shedding load; the article still waits for its image
+                scheduleAttach(job, imageUrl, attempt);
+            }
+            return;
+        }
+
+        refresh(job.documentId, data);
+        if (job.replacedImage != null) {
+            release(job.replacedImage);
+        }
+        completed.incrementAndGet();
+        latestJobs.remove(job.documentId, job.id);
+    }
+
+    private void markFailed(UploadJob job, String reason) {
+        imageSpool.delete(job.imageFile);
+        failed.incrementAndGet();
+        System.err.println("Warning: Giving up on image for news " + job.documentId + ": " + reason);
+        if (!latestJobs.remove(job.documentId, job.id)) {
+            return; // A newer image owns the status now
+        }
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("imageStatus", STATUS_FAILED);
+        repository.updateAsync(COLLECTION_NAME, job.documentId, patch)
+                .thenCompose(ignored -> repository.getAsync(COLLECTION_NAME, job.documentId))
+                .thenAccept(data -> refresh(job.documentId, data))
+                .exceptionally(e -> null); // The article may be gone
+    }
+
+    private void refresh(String documentId, Map<String, Object> data) {
+        if (data != null) {
+            NewsArticle article = NewsArticle.fromMap(documentId, data);
+            searchIndex.put(article);
+            replica.recordWrite(article);
+            cacheInvalidator.articleChanged(documentId, article.getCategory());
+        }
+    }
+
+    /**
+     * Whether an article is known to be gone; false when that can't be told
+     */
+    private boolean isDeleted(String documentId) {
+        try {
+            return repository.get(COLLECTION_NAME, documentId) == null;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private boolean isLatest(UploadJob job) {
+        Long latest = latestJobs.get(job.documentId);
+        return latest != null && latest == job.id;
+    }
+
+    private void release(String imageUrl) {
+        if (deletionQueue == null) {
+            return;
+        }
+        deletionQueue.enqueue(imageUrl).exceptionally(e -> {
+            System.err.println("Warning: Failed to queue image " + imageUrl + " for deletion: " + e.getMessage());
+            return null;
+        });
+    }
+
+    private static class UploadJob {
+        private final long id;
+        private final String documentId;
+        private final Path imageFile;
+        private final String replacedImage;
+
+        private UploadJob(long id, String documentId, Path imageFile, String replacedImage) {
+            this.id = id;
+            this.documentId = documentId;
+            this.imageFile = imageFile;
+            this.replacedImage = replacedImage;
+        }
+    }
+}
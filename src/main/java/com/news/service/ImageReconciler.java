@@ -0,0 +1,154 @@
+package com.news.service;
+
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Garbage collector for hosted images no article refers to, e.g. left behind by articles
+ * deleted before their images were queued for deletion, or by failed deletions.
+ *
+ * Collects the image of every article (paging through Firestore, reading only the
+ * {@code image} field), then pages through the hosted images and queues the unreferenced
+ * ones on the {@link ImageDeletionQueue}. Images younger than the grace period are left
+ * alone, since an upload in progress is not attached to its article yet.
+ */
+@Service
+@ConditionalOnProperty(name = "news.storage", havingValue = "firestore", matchIfMissing = true)
+public class ImageReconciler {
+
+    private static final String COLLECTION_NAME = "news";
+
+    private final FirestoreService firestoreService;
+    private final FirestoreCalls calls;
+    private final ImageUploader uploader;
+    private final ImageHashIndex hashIndex;
+    private final ImageDeletionQueue deletionQueue;
+    private final boolean enabled;
+    private final int pageSize;
+    private final long graceMillis;
+    private final AtomicReference<Map<String, Object>> lastRun = new AtomicReference<>();
+
+    public ImageReconciler(FirestoreService firestoreService,
+                           FirestoreCalls calls,
+                           ImageUploader uploader,
+                           ImageHashIndex hashIndex,
+                           ImageDeletionQueue deletionQueue,
+                           @Value("${news.images.reconcile.enabled:true}") boolean enabled,
+                           @Value("${news.images.reconcile.page-size:500}") int pageSize,
+                           @Value("${news.images.reconcile.grace-ms:86400000}") long graceMillis) {
+        this.firestoreService = firestoreService;
+        this.calls = calls;
+        this.uploader = uploader;
+        this.hashIndex = hashIndex;
+        this.deletionQueue = deletionQueue;
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+        this.graceMillis = graceMillis;
+    }
+
+    /**
+     * Outcome of the last run, or null if none finished yet
+     */
+    public Map<String, Object> getLastRun() {
+        return lastRun.get();
+    }
+
+    @Scheduled(fixedDelayString = "${news.images.reconcile.interval-ms:86400000}",
+            initialDelayString = "${news.images.reconcile.initial-delay-ms:3600000}")
+    public void scheduledReconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Image reconciliation failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queue every hosted image that no article refers to and that is older than the grace period
+     * @return Counts of hosted, referenced and orphaned images
+     */
+    public Map<String, Object> reconcile() {
+        Instant cutoff = Instant.now().minusMillis(graceMillis);
+        Set<String> referenced = referencedImages();
+
+        long hosted = 0;
+        long orphaned = 0;
+        String cursor = null;
+        do {
+            ImageUploader.ImagePage page;
+            try {
+                page = uploader.listImages(cursor, ImageUploader.MAX_BATCH_SIZE);
+            } catch (IOException e) {
+                throw new RuntimeException("Error listing hosted images", e);
+            }
+            List<String> candidates = new ArrayList<>();
+            for (ImageUploader.HostedImage image : page.getImages()) {
+                hosted++;
+                if (!referenced.contains(image.getAssetId()) && image.getCreatedAt().isBefore(cutoff)) {
+                    candidates.add(image.getAssetId());
+                }
+            }
+            if (!candidates.isEmpty()) {
+                // Drop stale reference counts; images taken again since the cutoff stay
+                candidates.removeAll(hashIndex.forgetIdle(candidates, cutoff));
+                deletionQueue.enqueueOrphans(candidates);
+                orphaned += candidates.size();
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("finishedAt", Instant.now().toString());
+        result.put("hosted", hosted);
+        result.put("referenced", referenced.size());
+        result.put("orphaned", orphaned);
+        lastRun.set(result);
+        return result;
+    }
+
+    /**
+     * Asset IDs of all article images, read a page at a time with a projection on the image field
+     */
+    private Set<String> referencedImages() {
+        Set<String> referenced = new HashSet<>();
+        Query query = firestoreService.getFirestore().collection(COLLECTION_NAME)
+                .select("image")
+                .orderBy(FieldPath.documentId())
+                .limit(pageSize);
+        QueryDocumentSnapshot last = null;
+        while (true) {
+            Query pageQuery = last == null ? query : query.startAfter(last);
+            QuerySnapshot snapshot = calls.await("scan-page", COLLECTION_NAME, FirestoreCalls.Type.QUERY,
+                    pageQuery::get, "Error reading article images", FirestoreService::documentsRead);
+            for (QueryDocumentSnapshot document : snapshot.getDocuments()) {
+                String assetId = uploader.assetId(document.getString("image"));
+                if (assetId != null) {
+                    referenced.add(assetId);
+                }
+            }
+            if (snapshot.size() < pageSize) {
+                return referenced;
+            }
+            last = snapshot.getDocuments().get(snapshot.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.news.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Local disk area holding uploaded images until they are sent to the image host, so image
+ * payloads never have to sit in the heap. Files written while a request body is parsed are
+ * referred to by a {@code spool:<uuid>} token that replaces the image in the parsed JSON;
+ * the handler {@link #claim claims} the file, and unclaimed files are deleted when the
+ * request ends. Anything left behind by a crash is swept after news.images.spool-max-age-ms.
+ */
+@Component
+public class ImageSpool {
+
+    public static final String TOKEN_PREFIX = "spool:";
+    private static final String SPOOLED_SUFFIX = ".img";
+    private static final String CLAIMED_SUFFIX = ".claimed";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+
+    public ImageSpool(@Value("${news.images.spool-dir:${java.io.tmpdir}/news-image-spool}") String directory,
+                      @Value("${news.images.max-bytes:10485760}") long maxBytes,
+                      @Value("${news.images.spool-max-age-ms:3600000}") long maxAgeMillis) throws IOException {
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        Files.createDirectories(this.directory);
+    }
+
+    /**
+     * Largest accepted image, in decoded bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Create an empty spool file for an image being received
+     * @return The new file
+     */
+    public Path newFile() throws IOException {
+        return Files.createFile(directory.resolve(UUID.randomUUID() + SPOOLED_SUFFIX));
+    }
+
+    /**
+     * @param file A file from {@link #newFile()}
+     * @return The token standing in for the file's content
+     */
+    public String tokenFor(Path file) {
+        String name = file.getFileName().toString();
+        return TOKEN_PREFIX + name.substring(0, name.length() - SPOOLED_SUFFIX.length());
+    }
+
+    /**
+     * Whether a value is a spool token rather than image data or a URL
+     */
+    public static boolean isToken(String value) {
+        return value != null && value.startsWith(TOKEN_PREFIX);
+    }
+
+    /**
+     * Take ownership of a spooled file, so it survives the end of the request. The caller
+     * must {@link #delete} it when done.
+     * @param token Token from the request body
+     * @return The claimed file
+     * @throws IllegalArgumentException If the token does not refer to a spooled file
+     */
+    public Path claim(String token) throws IOException {
+        UUID id;
+        try {
+            id = UUID.fromString(token.substring(TOKEN_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid image reference");
+        }
+        try {
+            return Files.move(directory.resolve(id + SPOOLED_SUFFIX), directory.resolve(id + CLAIMED_SUFFIX),
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("Invalid image reference");
+        }
+    }
+
+    /**
+     * Decode a base64 image that was not spooled during parsing into a claimed file
+     * @param base64Image Base64 image, with or without a data URL prefix
+     * @return The claimed file
+     * @throws IllegalArgumentException If the payload is empty, not base64 or too large
+     */
+    public Path spoolBase64(String base64Image) throws IOException {
+        String base64Data = base64Image;
+        if (base64Image.startsWith("data:image/")) {
+            int commaIndex = base64Image.indexOf(",");
+            if (commaIndex > 0) {
+                base64Data = base64Image.substring(commaIndex + 1);
+            }
+        }
+        Path file = directory.resolve(UUID.randomUUID() + CLAIMED_SUFFIX);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            copy(Base64.getDecoder().wrap(new ByteArrayInputStream(base64Data.getBytes(StandardCharsets.ISO_8859_1))), out);
+        } catch (IOException | RuntimeException e) {
+            delete(file);
+            throw e;
+        }
+        if (Files.size(file) == 0) {
+            delete(file);
+            throw new IllegalArgumentException("Base64 image is empty");
+        }
+        return file;
+    }
+
+    /**
+     * Move an uploaded multipart file into a claimed spool file. Parts the servlet
+     * container already wrote to disk are moved rather than copied.
+     * @param file Uploaded file
+     * @return The claimed file
+     */
+    public Path transfer(MultipartFile file) throws IOException {
+        Path target = directory.resolve(UUID.randomUUID() + CLAIMED_SUFFIX);
+        file.transferTo(target.toFile()); // The File overload lets the container rename its temp file
+        return target;
+    }
+
+    /**
+     * Delete a spool file, ignoring errors
+     */
+    public void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Swept later
+        }
+    }
+
+    /**
+     * Delete spool files left behind by crashed requests or jobs
+     */
+    @Scheduled(fixedDelayString = "${news.images.spool-max-age-ms:3600000}")
+    public void sweep() {
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    delete(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to sweep image spool: " + e.getMessage());
+        }
+    }
+
+    private void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        while (true) {
+            int read;
+            try {
+                read = in.read(buffer);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid image: " + e.getMessage());
+            }
+            if (read == -1) {
+                return;
+            }
+            total += read;
+            if (total > maxBytes) {
+                throw new IllegalArgumentException("Image size exceeds " + (maxBytes / (1024 * 1024)) + "MB limit");
+            }
+            out.write(buffer, 0, read);
+        }
+    }
+}
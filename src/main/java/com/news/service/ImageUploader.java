@@ -0,0 +1,138 @@
+package com.news.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Image hosting backend. Selected with news.images.uploader: "cloudinary" (default)
+ * or "stub", which stores nothing and is meant for local runs and tests.
+ */
+public interface ImageUploader {
+
+    /**
+     * Upload an image file
+     * @param file MultipartFile to upload
+     * @return URL of the uploaded image
+     * @throws IllegalArgumentException If the file is not an acceptable image
+     */
+    String uploadImage(MultipartFile file) throws IOException;
+
+    /**
+     * Upload an image file from local disk, streaming it from the file
+     * @param imageFile Image file, e.g. from the {@link ImageSpool}
+     * @return URL of the uploaded image
+     * @throws IllegalArgumentException If the file is empty or too large
+     */
+    String uploadImage(Path imageFile) throws IOException;
+
+    /**
+     * Upload a base64 image, with or without a data URL prefix
+     * @param base64Image Base64 encoded image string
+     * @return URL of the uploaded image
+     * @throws IllegalArgumentException If the payload is empty
+     */
+    String uploadBase64Image(String base64Image) throws IOException;
+
+    /**
+     * Delete a previously uploaded image. Errors are ignored.
+     * @param imageUrl URL returned by an upload
+     */
+    void deleteImage(String imageUrl) throws IOException;
+
+    /**
+     * Hosted asset ID of an image URL, as used by {@link #deleteImages} and {@link #listImages}
+     * @param imageUrl URL returned by an upload
+     * @return The asset ID, or null if the URL is not hosted by this backend
+     */
+    String assetId(String imageUrl);
+
+    /**
+     * Delete several hosted images in one call. Unlike {@link #deleteImage(String)} this does
+     * not check reference counts and reports errors, so the caller can retry.
+     * @param assetIds Asset IDs from {@link #assetId(String)}, at most {@link #MAX_BATCH_SIZE}
+     */
+    void deleteImages(List<String> assetIds) throws IOException;
+
+    /**
+     * List a page of the hosted images
+     * @param cursor nextCursor of the previous page (null for the first page)
+     * @param size Page size, at most {@link #MAX_BATCH_SIZE}
+     * @return The page of images
+     */
+    ImagePage listImages(String cursor, int size) throws IOException;
+
+    /**
+     * Largest batch accepted by {@link #deleteImages} and {@link #listImages}
+     */
+    int MAX_BATCH_SIZE = 100;
+
+    /**
+     * @see #uploadImage(MultipartFile)
+     */
+    CompletableFuture<String> uploadImageAsync(MultipartFile file);
+
+    /**
+     * @see #uploadImage(Path)
+     */
+    CompletableFuture<String> uploadImageAsync(Path imageFile);
+
+    /**
+     * @see #uploadBase64Image(String)
+     */
+    CompletableFuture<String> uploadBase64ImageAsync(String base64Image);
+
+    /**
+     * @see #deleteImage(String)
+     */
+    CompletableFuture<Void> deleteImageAsync(String imageUrl);
+
+    /**
+     * A page of hosted images
+     */
+    class ImagePage {
+        private final List<HostedImage> images;
+        private final String nextCursor;
+
+        public ImagePage(List<HostedImage> images, String nextCursor) {
+            this.images = images;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<HostedImage> getImages() {
+            return images;
+        }
+
+        /**
+         * @return Cursor of the next page, or null if this is the last one
+         */
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+
+    /**
+     * A hosted image and when it was uploaded
+     */
+    class HostedImage {
+        private final String assetId;
+        private final Instant createdAt;
+
+        public HostedImage(String assetId, Instant createdAt) {
+            this.assetId = assetId;
+            this.createdAt = createdAt;
+        }
+
+        public String getAssetId() {
+            return assetId;
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+    }
+}
@@ -0,0 +1,521 @@
+package com.news.service;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.FieldValue;
+import com.news.model.DateRange;
+import com.news.model.DateSort;
+import com.news.model.NewsArticle;
+import com.news.model.NewsArticleMapper;
+import com.news.model.PageCursor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process storage (news.storage=memory) for local runs and load tests without Firebase
+ * credentials. Nothing is persisted.
+ *
+ * Each collection keeps its documents in ID order, a (publishedAt, ID) index for date
+ * listings and, for every field queried by equality, a value to IDs index built on the first
+ * query. Equality pages and counts come straight from the indexes; date pages walk the date
+ * index within the range, skipping documents the equality filter excludes. Ordering, cursor
+ * and offset semantics are those of {@link FirestoreService}.
+ * Async methods complete before they return.
+ */
+@Service
+@ConditionalOnProperty(name = "news.storage", havingValue = "memory")
+public class InMemoryNewsRepository implements NewsRepository {
+
+    private static final String ID_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final int ID_LENGTH = 20;
+
+    private final Map<String, MemoryCollection> collections = new ConcurrentHashMap<>();
+
+    @Override
+    public String save(String collectionName, String documentId, Map<String, Object> data) {
+        String id = documentId != null && !documentId.isEmpty() ? documentId : newId();
+        collection(collectionName).put(id, resolve(null, data));
+        return id;
+    }
+
+    @Override
+    public CompletableFuture<String> saveAsync(String collectionName, String documentId, Map<String, Object> data) {
+        return async(() -> save(collectionName, documentId, data));
+    }
+
+    @Override
+    public Map<String, Object> get(String collectionName, String documentId) {
+        Map<String, Object> data = collection(collectionName).get(documentId);
+        return data != null ? new HashMap<>(data) : null;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getAsync(String collectionName, String documentId) {
+        return async(() -> get(collectionName, documentId));
+    }
+
+    @Override
+    public List<Map<String, Object>> getAll(String collectionName) {
+        return collection(collectionName).page(null, null, null, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> getAllAsync(String collectionName) {
+        return async(() -> getAll(collectionName));
+    }
+
+    @Override
+    public List<NewsArticle> getAllArticles(String collectionName) {
+        return collection(collectionName).articles();
+    }
+
+    @Override
+    public CompletableFuture<List<NewsArticle>> getAllArticlesAsync(String collectionName) {
+        return async(() -> getAllArticles(collectionName));
+    }
+
+    @Override
+    public PaginationResult getAllPaginated(String collectionName, int page, int size) {
+        return queryPaginated(collectionName, null, null, page, size);
+    }
+
+    @Override
+    public CompletableFuture<PaginationResult> getAllPaginatedAsync(String collectionName, int page, int size) {
+        return async(() -> getAllPaginated(collectionName, page, size));
+    }
+
+    @Override
+    public List<Map<String, Object>> query(String collectionName, String field, Object value) {
+        return collection(collectionName).page(field, value, null, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> queryAsync(String collectionName, String field, Object value) {
+        return async(() -> query(collectionName, field, value));
+    }
+
+    @Override
+    public PaginationResult queryPaginated(String collectionName, String field, Object value, int page, int size) {
+        MemoryCollection collection = collection(collectionName);
+        long totalElements = collection.count(field, value);
+        List<Map<String, Object>> documents = collection.page(field, value, null, (long) page * size, size);
+        return new PaginationResult(documents, totalElements, (int) Math.ceil((double) totalElements / size));
+    }
+
+    @Override
+    public CompletableFuture<PaginationResult> queryPaginatedAsync(String collectionName, String field, Object value,
+                                                                   int page, int size) {
+        return async(() -> queryPaginated(collectionName, field, value, page, size));
+    }
+
+    @Override
+    public CursorPaginationResult queryPageAfter(String collectionName, String field, Object value,
+                                                 String afterDocumentId, int size) {
+        MemoryCollection collection = collection(collectionName);
+        long totalElements = collection.count(field, value);
+        // Read one extra document to know whether there is a next page
+        List<Map<String, Object>> documents = collection.page(field, value, afterDocumentId, 0, size + 1);
+        return toCursorPage(documents, totalElements, size);
+    }
+
+    @Override
+    public CompletableFuture<CursorPaginationResult> queryPageAfterAsync(String collectionName, String field, Object value,
+                                                                         String afterDocumentId, int size) {
+        return async(() -> queryPageAfter(collectionName, field, value, afterDocumentId, size));
+    }
+
+    @Override
+    public CursorPaginationResult queryByDate(String collectionName, String field, Object value, DateRange range,
+                                              DateSort sort, PageCursor after, int page, int size) {
+        return collection(collectionName).dateQuery(field, value, range, sort, after, page, size);
+    }
+
+    @Override
+    public CompletableFuture<CursorPaginationResult> queryByDateAsync(String collectionName, String field, Object value,
+                                                                      DateRange range, DateSort sort, PageCursor after,
+                                                                      int page, int size) {
+        return async(() -> queryByDate(collectionName, field, value, range, sort, after, page, size));
+    }
+
+    @Override
+    public long count(String collectionName, String field, Object value) {
+        return collection(collectionName).count(field, value);
+    }
+
+    @Override
+    public CompletableFuture<Long> countAsync(String collectionName, String field, Object value) {
+        return async(() -> count(collectionName, field, value));
+    }
+
+    @Override
+    public void update(String collectionName, String documentId, Map<String, Object> data) {
+        if (!collection(collectionName).update(documentId, data)) {
+            throw new RuntimeException("Error updating document: " + collectionName + "/" + documentId + " does not exist");
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> updateAsync(String collectionName, String documentId, Map<String, Object> data) {
+        return async(() -> {
+            update(collectionName, documentId, data);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(String collectionName, String documentId) {
+        collection(collectionName).remove(documentId);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String collectionName, String documentId) {
+        return async(() -> {
+            delete(collectionName, documentId);
+            return null;
+        });
+    }
+
+    private MemoryCollection collection(String collectionName) {
+        return collections.computeIfAbsent(collectionName, name -> new MemoryCollection());
+    }
+
+    /**
+     * Apply written fields to a document like Firestore does: updatedAt and server timestamps
+     * become the write time, {@code FieldValue.delete()} removes the field
+     * @param existing The stored document (null for a set)
+     */
+    private static Map<String, Object> resolve(Map<String, Object> existing, Map<String, Object> data) {
+        Timestamp now = Timestamp.now();
+        Map<String, Object> document = existing != null ? new HashMap<>(existing) : new HashMap<>();
+        for (Map.Entry<String, Object> field : data.entrySet()) {
+            Object value = field.getValue();
+            if (FieldValue.delete().equals(value)) {
+                document.remove(field.getKey());
+            } else if (FieldValue.serverTimestamp().equals(value)) {
+                document.put(field.getKey(), now);
+            } else {
+                document.put(field.getKey(), value);
+            }
+        }
+        document.remove("id");
+        document.put(UPDATED_AT_FIELD, now);
+        return Collections.unmodifiableMap(document);
+    }
+
+    private static CursorPaginationResult toCursorPage(List<Map<String, Object>> documents, long totalElements, int size) {
+        boolean hasMore = documents.size() > size;
+        return new CursorPaginationResult(hasMore ? documents.subList(0, size) : documents, totalElements, hasMore);
+    }
+
+    private static Map<String, Object> withId(String id, Map<String, Object> data) {
+        Map<String, Object> document = new HashMap<>(data);
+        document.put("id", id);
+        return document;
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+    }
+
+    private static String newId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder id = new StringBuilder(ID_LENGTH);
+        for (int i = 0; i < ID_LENGTH; i++) {
+            id.append(ID_ALPHABET.charAt(random.nextInt(ID_ALPHABET.length())));
+        }
+        return id.toString();
+    }
+
+    private static <T> CompletableFuture<T> async(Supplier<T> operation) {
+        try {
+            return CompletableFuture.completedFuture(operation.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * One collection's documents and indexes, guarded by a read-write lock so readers run in
+     * parallel and see each write applied to the documents and all indexes at once
+     */
+    private static class MemoryCollection {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final TreeMap<String, Map<String, Object>> documents = new TreeMap<>();
+        private final TreeSet<DateKey> byDate = new TreeSet<>();
+        private final Map<String, Map<Object, TreeSet<String>>> equalityIndexes = new HashMap<>();
+
+        Map<String, Object> get(String id) {
+            Lock read = lock.readLock();
+            read.lock();
+            try {
+                return documents.get(id);
+            } finally {
+                read.unlock();
+            }
+        }
+
+        void put(String id, Map<String, Object> data) {
+            Lock write = lock.writeLock();
+            write.lock();
+            try {
+                unindex(id, documents.put(id, data));
+                index(id, data);
+            } finally {
+                write.unlock();
+            }
+        }
+
+        boolean update(String id, Map<String, Object> data) {
+            Lock write = lock.writeLock();
+            write.lock();
+            try {
+                Map<String, Object> existing = documents.get(id);
+                if (existing == null) {
+                    return false;
+                }
+                Map<String, Object> updated = resolve(existing, data);
+                documents.put(id, updated);
+                unindex(id, existing);
+                index(id, updated);
+                return true;
+            } finally {
+                write.unlock();
+            }
+        }
+
+        void remove(String id) {
+            Lock write = lock.writeLock();
+            write.lock();
+            try {
+                unindex(id, documents.remove(id));
+            } finally {
+                write.unlock();
+            }
+        }
+
+        /**
+         * All documents as articles in ID order, mapped from the stored fields without copying them
+         */
+        List<NewsArticle> articles() {
+            Lock read = lock.readLock();
+            read.lock();
+            try {
+                List<NewsArticle> articles = new ArrayList<>(documents.size());
+                for (Map.Entry<String, Map<String, Object>> document : documents.entrySet()) {
+                    articles.add(NewsArticleMapper.fromMap(document.getKey(), document.getValue()));
+                }
+                return articles;
+            } finally {
+                read.unlock();
+            }
+        }
+
+        long count(String field, Object value) {
+            if (field != null) {
+                ensureIndex(field);
+            }
+            Lock read = lock.readLock();
+            read.lock();
+            try {
+                return field == null ? documents.size() : matching(field, value).size();
+            } finally {
+                read.unlock();
+            }
+        }
+
+        /**
+         * Documents in ID order, optionally filtered by equality and starting after an ID or an offset
+         */
+        List<Map<String, Object>> page(String field, Object value, String afterId, long offset, int limit) {
+            if (field != null) {
+                ensureIndex(field);
+            }
+            Lock read = lock.readLock();
+            read.lock();
+            try {
+                NavigableSet<String> ids = field == null ? documents.navigableKeySet() : matching(field, value);
+                if (afterId != null) {
+                    ids = ids.tailSet(afterId, false);
+                }
+                List<Map<String, Object>> page = new ArrayList<>(Math.min(limit, ids.size()));
+                Iterator<String> iterator = ids.iterator();
+                for (long skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+                    iterator.next();
+                }
+                while (page.size() < limit && iterator.hasNext()) {
+                    String id = iterator.next();
+                    page.add(withId(id, documents.get(id)));
+                }
+                return page;
+            } finally {
+                read.unlock();
+            }
+        }
+
+        CursorPaginationResult dateQuery(String field, Object value, DateRange range, DateSort sort,
+                                         PageCursor after, int page, int size) {
+            Lock read = lock.readLock();
+            read.lock();
+            try {
+                NavigableSet<DateKey> inRange = byDate;
+                if (range.getFrom() != null) {
+                    inRange = inRange.tailSet(new DateKey(toTimestamp(range.getFrom()), ""), true);
+                }
+                if (range.getTo() != null) {
+                    inRange = inRange.headSet(new DateKey(toTimestamp(range.getTo()), ""), false);
+                }
+                NavigableSet<DateKey> ordered = sort.isDescending() ? inRange.descendingSet() : inRange;
+
+                long totalElements = 0;
+                for (DateKey key : ordered) {
+                    if (field == null || matches(key.id, field, value)) {
+                        totalElements++;
+                    }
+                }
+
+                NavigableSet<DateKey> remaining = ordered;
+                long offset = 0;
+                if (after != null) {
+                    remaining = ordered.tailSet(new DateKey(toTimestamp(after.getLastPublishedAt()), after.getDocumentId()), false);
+                } else {
+                    offset = (long) page * size;
+                }
+                List<Map<String, Object>> documentsPage = new ArrayList<>();
+                for (DateKey key : remaining) {
+                    if (field != null && !matches(key.id, field, value)) {
+                        continue;
+                    }
+                    if (offset > 0) {
+                        offset--;
+                        continue;
+                    }
+                    documentsPage.add(withId(key.id, documents.get(key.id)));
+                    if (documentsPage.size() > size) {
+                        break;
+                    }
+                }
+                return toCursorPage(documentsPage, totalElements, size);
+            } finally {
+                read.unlock();
+            }
+        }
+
+        private boolean matches(String id, String field, Object value) {
+            return Objects.equals(documents.get(id).get(field), value);
+        }
+
+        private NavigableSet<String> matching(String field, Object value) {
+            TreeSet<String> ids = equalityIndexes.get(field).get(value);
+            return ids != null ? ids : Collections.emptyNavigableSet();
+        }
+
+        private void ensureIndex(String field) {
+            Lock read = lock.readLock();
+            read.lock();
+            try {
+                if (equalityIndexes.containsKey(field)) {
+                    return;
+                }
+            } finally {
+                read.unlock();
+            }
+            Lock write = lock.writeLock();
+            write.lock();
+            try {
+                if (!equalityIndexes.containsKey(field)) {
+                    Map<Object, TreeSet<String>> index = new HashMap<>();
+                    documents.forEach((id, data) -> {
+                        Object value = data.get(field);
+                        if (value != null) {
+                            index.computeIfAbsent(value, v -> new TreeSet<>()).add(id);
+                        }
+                    });
+                    equalityIndexes.put(field, index);
+                }
+            } finally {
+                write.unlock();
+            }
+        }
+
+        private void index(String id, Map<String, Object> data) {
+            Object publishedAt = data.get(NewsArticle.PUBLISHED_AT_FIELD);
+            if (publishedAt instanceof Timestamp) {
+                byDate.add(new DateKey((Timestamp) publishedAt, id));
+            }
+            equalityIndexes.forEach((field, index) -> {
+                Object value = data.get(field);
+                if (value != null) {
+                    index.computeIfAbsent(value, v -> new TreeSet<>()).add(id);
+                }
+            });
+        }
+
+        private void unindex(String id, Map<String, Object> data) {
+            if (data == null) {
+                return;
+            }
+            Object publishedAt = data.get(NewsArticle.PUBLISHED_AT_FIELD);
+            if (publishedAt instanceof Timestamp) {
+                byDate.remove(new DateKey((Timestamp) publishedAt, id));
+            }
+            equalityIndexes.forEach((field, index) -> {
+                Object value = data.get(field);
+                TreeSet<String> ids = value != null ? index.get(value) : null;
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        index.remove(value);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Entry of the date index, ordered by publication time and then document ID
+     */
+    private static class DateKey implements Comparable<DateKey> {
+        private final Timestamp publishedAt;
+        private final String id;
+
+        private DateKey(Timestamp publishedAt, String id) {
+            this.publishedAt = publishedAt;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(DateKey other) {
+            int byTime = publishedAt.compareTo(other.publishedAt);
+            return byTime != 0 ? byTime : id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof DateKey && compareTo((DateKey) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(publishedAt, id);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.news.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.news.util.NewsMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Last-known-good copies of recent public responses (listing pages and articles), served when
+ * Firestore fails, its circuit breaker is open or it misses the serving deadline. A load that
+ * missed the deadline keeps running and refreshes the copy when it completes, so the next
+ * reader gets fresh content again. Every successful load replaces the copy; copies older than
+ * the maximum age are not served. Article copies are dropped when the article is written
+ * (see {@link NewsCacheInvalidator}); listing copies are kept, an outdated listing being better
+ * than none during an outage.
+ */
+@Component
+public class LastKnownGoodCache {
+
+    private final Cache<String, Entry> entries;
+    private final long deadlineMillis;
+    private final NewsMetrics metrics;
+    private final Executor deadlineTimer;
+
+    public LastKnownGoodCache(@Value("${news.stale.max-entries:2000}") long maxEntries,
+                              @Value("${news.stale.max-age-ms:86400000}") long maxAgeMillis,
+                              @Value("${news.stale.deadline-ms:1500}") long deadlineMillis,
+                              NewsMetrics metrics) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(maxAgeMillis))
+                .build();
+        this.deadlineMillis = deadlineMillis;
+        this.metrics = metrics;
+        // Completing with a copy is cheap, so it runs on the timer thread
+        this.deadlineTimer = CompletableFuture.delayedExecutor(deadlineMillis, TimeUnit.MILLISECONDS, Runnable::run);
+    }
+
+    /**
+     * Load a response, falling back to its last-known-good copy
+     * @param key Identifies the response, e.g. the listing, page and page size
+     * @param loader Loads the fresh response (completes with null for "not found")
+     * @return The fresh response, or the copy if the load fails or misses the deadline and
+     *         there is one; a failed load without a copy fails the future
+     */
+    public <T> CompletableFuture<Result<T>> get(String key, Supplier<CompletableFuture<T>> loader) {
+        CompletableFuture<T> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Result<T>> result = new CompletableFuture<>();
+        load.whenComplete((value, error) -> {
+            if (error != null) {
+                Entry entry = entries.getIfPresent(key);
+                if (entry != null && result.complete(entry.stale())) {
+                    metrics.staleServed("error");
+                } else {
+                    result.completeExceptionally(error);
+                }
+                return;
+            }
+            if (value != null) {
+                entries.put(key, new Entry(value, System.currentTimeMillis()));
+            } else {
+                entries.invalidate(key); // Deleted since the copy was taken
+            }
+            result.complete(new Result<>(value, -1));
+        });
+
+        if (!result.isDone() && deadlineMillis > 0) {
+            Entry entry = entries.getIfPresent(key);
+            if (entry != null) {
+                deadlineTimer.execute(() -> {
+                    if (result.complete(entry.stale())) {
+                        metrics.staleServed("deadline");
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drop the copy of a response, e.g. of a deleted article
+     */
+    public void forget(String key) {
+        entries.invalidate(key);
+    }
+
+    /**
+     * Key of a single article response
+     */
+    public static String articleKey(String id) {
+        return "article|" + id;
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final long storedAtMillis;
+
+        Entry(Object value, long storedAtMillis) {
+            this.value = value;
+            this.storedAtMillis = storedAtMillis;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> Result<T> stale() {
+            return new Result<>((T) value, (System.currentTimeMillis() - storedAtMillis) / 1000);
+        }
+    }
+
+    /**
+     * A response and whether it is fresh or a last-known-good copy
+     */
+    public static class Result<T> {
+        private final T value;
+        private final long ageSeconds;
+
+        Result(T value, long ageSeconds) {
+            this.value = value;
+            this.ageSeconds = ageSeconds;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public boolean isStale() {
+            return ageSeconds >= 0;
+        }
+
+        /**
+         * Age of a last-known-good copy in seconds (-1 for a fresh response)
+         */
+        public long getAgeSeconds() {
+            return ageSeconds;
+        }
+    }
+}
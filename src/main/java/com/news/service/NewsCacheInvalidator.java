@@ -0,0 +1,47 @@
+package com.news.service;
+
+import com.news.util.HttpCachePolicy;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Single place writes report changed news to, so every response cache hears about them:
+ * the {@link HotPageCache} and {@link LastKnownGoodCache} in this instance and, through the
+ * {@link CachePurger}, the shared cache in front of the API
+ */
+@Service
+public class NewsCacheInvalidator {
+
+    private final CachePurger cachePurger;
+    private final HotPageCache hotPages;
+    private final LastKnownGoodCache lastKnownGood;
+
+    public NewsCacheInvalidator(CachePurger cachePurger, HotPageCache hotPages, LastKnownGoodCache lastKnownGood) {
+        this.cachePurger = cachePurger;
+        this.hotPages = hotPages;
+        this.lastKnownGood = lastKnownGood;
+    }
+
+    /**
+     * An article was created, updated or deleted
+     * @param id The article's document ID
+     * @param categories Its categories before and after the write (nulls are ignored)
+     */
+    public void articleChanged(String id, String... categories) {
+        lastKnownGood.forget(LastKnownGoodCache.articleKey(id));
+        invalidate(HttpCachePolicy.keysForWrite(id, categories));
+    }
+
+    /**
+     * Any number of articles changed, e.g. after a bulk import
+     */
+    public void allChanged() {
+        invalidate(List.of(HttpCachePolicy.ALL_NEWS_KEY));
+    }
+
+    private void invalidate(List<String> surrogateKeys) {
+        hotPages.invalidate(surrogateKeys);
+        cachePurger.purge(surrogateKeys);
+    }
+}
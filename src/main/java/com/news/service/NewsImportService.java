@@ -0,0 +1,192 @@
+package com.news.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.firestore.BulkWriter;
+import com.news.model.NewsArticle;
+import com.news.util.FutureUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bulk import of news articles from NDJSON, one {@link NewsArticle} JSON object per line.
+ *
+ * Records are parsed one line at a time and written through a Firestore BulkWriter with at
+ * most {@code maxInFlight} writes outstanding. Once the limit is reached the reader waits for
+ * writes to complete, so a fast client is slowed down to Firestore's pace instead of the
+ * import buffering the body in memory.
+ */
+@Service
+@ConditionalOnProperty(name = "news.storage", havingValue = "firestore", matchIfMissing = true)
+public class NewsImportService {
+
+    private static final String COLLECTION_NAME = "news";
+
+    private final FirestoreService firestoreService;
+    private final NewsSearchIndex searchIndex;
+    private final ObjectMapper objectMapper;
+    private final NewsCacheInvalidator cacheInvalidator;
+    private final int maxInFlight;
+    private final int progressInterval;
+
+    public NewsImportService(FirestoreService firestoreService,
+                             NewsSearchIndex searchIndex,
+                             ObjectMapper objectMapper,
+                             NewsCacheInvalidator cacheInvalidator,
+                             @Value("${news.import.max-in-flight:500}") int maxInFlight,
+                             @Value("${news.import.progress-interval:1000}") int progressInterval) {
+        this.firestoreService = firestoreService;
+        this.searchIndex = searchIndex;
+        this.objectMapper = objectMapper;
+        this.cacheInvalidator = cacheInvalidator;
+        this.maxInFlight = maxInFlight;
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Import articles from an NDJSON stream. Records carrying an id are written to that
+     * document, so an interrupted import can be re-run; other records get generated IDs.
+     * Events are passed to the listener on the calling thread: "progress" every
+     * progressInterval records and "error" for each failed record (with its line number).
+     * @param input NDJSON input, read until end of stream
+     * @param listener Receives progress and error events
+     * @return Summary event with the final counts
+     */
+    public Map<String, Object> importNdjson(InputStream input, Consumer<Map<String, Object>> listener) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Queue<Map<String, Object>> failures = new ConcurrentLinkedQueue<>();
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long processed = 0;
+
+        BulkWriter writer = firestoreService.bulkWriter();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                processed++;
+                write(writer, line, lineNumber, inFlight, succeeded, failed, failures);
+
+                drain(failures, listener);
+                if (processed % progressInterval == 0) {
+                    listener.accept(counts("progress", processed, succeeded.get(), failed.get()));
+                }
+            }
+        } finally {
+            // Flush the last batch, then wait for the callbacks of every queued write
+            try {
+                writer.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while flushing bulk import", e);
+            } catch (Exception e) {
+                // Individual write failures are reported through their own futures
+            }
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+        drain(failures, listener);
+        if (succeeded.get() > 0) {
+            // One purge for the whole import rather than one per article
+            cacheInvalidator.allChanged();
+        }
+
+        Map<String, Object> summary = counts("summary", processed, succeeded.get(), failed.get());
+        summary.put("elapsedMs", System.currentTimeMillis() - startedAt);
+        return summary;
+    }
+
+    private void write(BulkWriter writer, String line, long lineNumber, Semaphore inFlight,
+                       AtomicLong succeeded, AtomicLong failed, Queue<Map<String, Object>> failures) {
+        NewsArticle article;
+        try {
+            article = objectMapper.readValue(line, NewsArticle.class);
+        } catch (JsonProcessingException e) {
+            failed.incrementAndGet();
+            failures.add(error(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage()));
+            return;
+        }
+
+        // As for articles added through the API: date-ordered listings skip articles without
+        // publishedAt, so an undated article is dated by its import
+        Instant publishedAt = article.resolvePublishedAt();
+        article.setPublishedAt(publishedAt != null ? publishedAt : Instant.now());
+
+        // Backpressure: block the reader until a write slot frees up
+        inFlight.acquireUninterruptibly();
+        try {
+            firestoreService.bulkSaveAsync(writer, COLLECTION_NAME, article.getId(), article.toMap())
+                    .whenComplete((documentId, failure) -> {
+                        inFlight.release();
+                        if (failure == null) {
+                            article.setId(documentId);
+                            // The replica, when enabled, picks imported documents up through its listener
+                            searchIndex.put(article);
+                            succeeded.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                            failures.add(error(lineNumber, article.getId(), describe(FutureUtil.unwrap(failure))));
+                        }
+                    });
+        } catch (RuntimeException e) {
+            // Rejected before it was queued, e.g. an id that is not a valid document ID
+            inFlight.release();
+            failed.incrementAndGet();
+            failures.add(error(lineNumber, article.getId(), e.getMessage()));
+        }
+    }
+
+    private static void drain(Queue<Map<String, Object>> failures, Consumer<Map<String, Object>> listener) {
+        Map<String, Object> failure;
+        while ((failure = failures.poll()) != null) {
+            listener.accept(failure);
+        }
+    }
+
+    private static String describe(Throwable failure) {
+        if (failure.getCause() != null && failure.getCause() != failure) {
+            return failure.getMessage() + ": " + failure.getCause().getMessage();
+        }
+        return failure.getMessage();
+    }
+
+    private static Map<String, Object> counts(String type, long processed, long succeeded, long failed) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type);
+        event.put("processed", processed);
+        event.put("succeeded", succeeded);
+        event.put("failed", failed);
+        return event;
+    }
+
+    private static Map<String, Object> error(long lineNumber, String id, String message) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "error");
+        event.put("line", lineNumber);
+        if (id != null) {
+            event.put("id", id);
+        }
+        event.put("error", message);
+        return event;
+    }
+}
@@ -0,0 +1,644 @@
+package com.news.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.news.model.DateRange;
+import com.news.model.DateSort;
+import com.news.model.NewsArticle;
+import com.news.model.NewsArticleMapper;
+import com.news.model.PageCursor;
+import com.news.model.PaginatedResponse;
+import com.news.util.PublishDates;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Live in-memory replica of the news collection ("replica mode").
+ * When enabled, the replica is kept current by Firestore snapshot listeners and serves
+ * public listings and lookups without a Firestore round trip on the request path.
+ *
+ * Only changes are streamed: the listeners query documents whose {@code updatedAt} is newer
+ * than a watermark, and deletions of older documents arrive as tombstones. The replica is
+ * periodically written to a compact local snapshot so a restart warm-starts from the file
+ * and only applies the changes made since, instead of re-reading the whole collection.
+ */
+@Service
+public class NewsReplica {
+
+    private static final String COLLECTION_NAME = "news";
+    private static final String TOMBSTONE_COLLECTION_NAME = "news_tombstones";
+    // Tombstones are only needed until every instance has persisted a newer snapshot
+    private static final long TOMBSTONE_RETENTION_MILLIS = 30L * 24 * 60 * 60 * 1000;
+
+    private final NewsRepository repository;
+    private final ObjectProvider<Firestore> firestore;
+    private final ObjectProvider<FirestoreCalls> calls;
+    private final NewsSearchIndex searchIndex;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final boolean writeTombstones;
+    private final Path snapshotPath;
+
+    // A ReentrantLock rather than synchronized: checkpoints do file I/O under it, which would pin virtual threads
+    private final Lock lock = new ReentrantLock();
+    // Changes are applied to the articles in place; the view readers see is rebuilt from them
+    // when it is next read, so a burst of writes or an import batch costs one rebuild
+    private final TreeMap<String, NewsArticle> articles = new TreeMap<>(); // Guarded by viewLock
+    private final Lock viewLock = new ReentrantLock();
+    private volatile ReplicaView view;
+    private volatile boolean viewStale;
+    private Timestamp watermark;
+    private Timestamp changesReadTime;
+    private Timestamp tombstonesReadTime;
+    private boolean dirty;
+    private ListenerRegistration changesRegistration;
+    private ListenerRegistration tombstonesRegistration;
+
+    public NewsReplica(NewsRepository repository,
+                       ObjectProvider<Firestore> firestore,
+                       ObjectProvider<FirestoreCalls> calls,
+                       NewsSearchIndex searchIndex,
+                       ObjectMapper objectMapper,
+                       @Value("${news.replica.enabled:false}") boolean enabled,
+                       @Value("${news.replica.tombstones:${news.replica.enabled:false}}") boolean writeTombstones,
+                       @Value("${news.replica.snapshot-path:${java.io.tmpdir}/news-replica.json.gz}") String snapshotPath) {
+        this.repository = repository;
+        this.firestore = firestore;
+        this.calls = calls;
+        this.searchIndex = searchIndex;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.writeTombstones = writeTombstones;
+        this.snapshotPath = Paths.get(snapshotPath);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!writeTombstones) {
+            System.err.println("Warning: news.replica.tombstones is off; replicas miss articles deleted by other instances");
+        }
+        ReplicaSnapshot snapshot = readSnapshot();
+        TreeMap<String, NewsArticle> articles = new TreeMap<>();
+        if (snapshot != null) {
+            // Warm start: serve the snapshot and only stream changes made after it was taken
+            for (NewsArticle article : snapshot.getArticles()) {
+                if (article.getPublishedAt() == null) {
+                    // Snapshots written before publishedAt was kept
+                    article.setPublishedAt(PublishDates.parse(article.getDate()));
+                }
+                articles.put(article.getId(), article);
+            }
+            watermark = Timestamp.ofTimeSecondsAndNanos(snapshot.getWatermarkSeconds(), snapshot.getWatermarkNanos());
+        } else {
+            // Cold start: read the collection once, then stream changes after that read
+            QuerySnapshot querySnapshot = loadCollection();
+            for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+                articles.put(document.getId(), NewsArticleMapper.fromSnapshot(document));
+            }
+            watermark = querySnapshot.getReadTime();
+            dirty = true;
+        }
+        lock.lock();
+        try {
+            viewLock.lock();
+            try {
+                this.articles.putAll(articles);
+                view = new ReplicaView(articles);
+            } finally {
+                viewLock.unlock();
+            }
+            searchIndex.loadFrom(view.byId.values());
+            subscribe();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        lock.lock();
+        try {
+            if (!enabled) {
+                return;
+            }
+            unsubscribe();
+            persistSnapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether reads can be served from the replica
+     */
+    public boolean isServing() {
+        return enabled && view != null;
+    }
+
+    /**
+     * Get an article by ID
+     * @param id The document ID
+     * @return The article, or null if not found
+     */
+    public NewsArticle get(String id) {
+        return view().byId.get(id);
+    }
+
+    /**
+     * Get a page of articles in document ID order, like the Firestore listing queries
+     * @param category Category to list (null for every category)
+     * @param afterDocumentId Keyset cursor position (null to use the page number)
+     * @param page Page number (0-indexed), used when no cursor is given
+     * @param size Page size
+     * @return The page
+     */
+    public PaginatedResponse<NewsArticle> findPage(String category, String afterDocumentId, int page, int size) {
+        ReplicaView current = view();
+        List<NewsArticle> source = category == null
+                ? current.ordered
+                : current.byCategory.getOrDefault(category, Collections.emptyList());
+
+        int start;
+        if (afterDocumentId != null) {
+            start = firstIndexAfter(source, afterDocumentId);
+        } else {
+            start = (int) Math.min((long) page * size, source.size());
+        }
+        int end = Math.min(start + size, source.size());
+        List<NewsArticle> content = new ArrayList<>(source.subList(start, end));
+
+        long totalElements = source.size();
+        int totalPages = (int) Math.ceil((double) totalElements / size);
+        boolean hasNext = end < source.size();
+        return new PaginatedResponse<>(
+                content,
+                page,
+                size,
+                totalElements,
+                totalPages,
+                hasNext,
+                start > 0,
+                hasNext ? PageCursor.after(content) : null
+        );
+    }
+
+    /**
+     * Get a page of articles in publication order, like
+     * {@link NewsRepository#queryByDate(String, String, Object, DateRange, DateSort, PageCursor, int, int)}
+     * @param category Category to list (null for every category)
+     * @param range Publication time range
+     * @param sort Publication order
+     * @param after Keyset cursor from {@link PageCursor#afterDate(List)} (null to use the page number)
+     * @param page Page number (0-indexed), used when no cursor is given
+     * @param size Page size
+     * @return The page
+     */
+    public PaginatedResponse<NewsArticle> findPageByDate(String category, DateRange range, DateSort sort,
+                                                         PageCursor after, int page, int size) {
+        ReplicaView current = view();
+        List<NewsArticle> source = category == null
+                ? current.byDate
+                : current.byCategoryByDate.getOrDefault(category, Collections.emptyList());
+        return datePage(source, range, sort, after, page, size);
+    }
+
+    /**
+     * Get a page of featured articles in publication order
+     * @see #findPageByDate(String, DateRange, DateSort, PageCursor, int, int)
+     */
+    public PaginatedResponse<NewsArticle> findFeaturedPage(DateRange range, DateSort sort, PageCursor after,
+                                                           int page, int size) {
+        return datePage(view().featuredByDate, range, sort, after, page, size);
+    }
+
+    /**
+     * Featured articles, newest first
+     */
+    public List<NewsArticle> getFeatured() {
+        return view().featured;
+    }
+
+    /**
+     * Apply a write made by this instance right away, so it is readable before the listener
+     * delivers it
+     * @param article The written article, including its document ID
+     */
+    public void recordWrite(NewsArticle article) {
+        lock.lock();
+        try {
+            if (!isServing()) {
+                return;
+            }
+            viewLock.lock();
+            try {
+                articles.put(article.getId(), article);
+                viewStale = true;
+            } finally {
+                viewLock.unlock();
+            }
+            dirty = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record a deletion made by this instance. With news.replica.tombstones on (a cluster-wide
+     * setting, independent of this instance's replica mode) a tombstone is written so replicas
+     * on any instance see deletions of documents older than their watermark.
+     * @param id The deleted document ID
+     * @return Future completing once the tombstone is written, at once when tombstones are off
+     */
+    public CompletableFuture<Void> recordDeletion(String id) {
+        lock.lock();
+        try {
+            if (isServing()) {
+                removeArticle(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!writeTombstones) {
+            // No instance runs a replica
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Map<String, Object> tombstone = new HashMap<>();
+        tombstone.put("deletedAt", FieldValue.serverTimestamp());
+        // Lets a Firestore TTL policy on expireAt clean up old tombstones
+        tombstone.put("expireAt", Timestamp.ofTimeMicroseconds((System.currentTimeMillis() + TOMBSTONE_RETENTION_MILLIS) * 1000));
+        return repository.saveAsync(TOMBSTONE_COLLECTION_NAME, id, tombstone).thenAccept(ignored -> { });
+    }
+
+    /**
+     * Periodically write the replica to the local snapshot file and move the listeners'
+     * watermark forward, so a reconnect or restart only replays recent changes
+     */
+    @Scheduled(fixedDelayString = "${news.replica.snapshot-interval-ms:60000}",
+            initialDelayString = "${news.replica.snapshot-interval-ms:60000}")
+    public void checkpoint() {
+        lock.lock();
+        try {
+            if (!isServing() || !dirty) {
+                return;
+            }
+            persistSnapshot();
+            unsubscribe();
+            changesReadTime = null;
+            tombstonesReadTime = null;
+            subscribe();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void subscribe() {
+        Firestore firestore = firestore();
+        changesRegistration = firestore.collection(COLLECTION_NAME)
+                .whereGreaterThan(NewsRepository.UPDATED_AT_FIELD, watermark)
+                .addSnapshotListener((snapshot, error) -> {
+                    if (snapshot != null) {
+                        applyChanges(snapshot);
+                    }
+                });
+        tombstonesRegistration = firestore.collection(TOMBSTONE_COLLECTION_NAME)
+                .whereGreaterThan(NewsRepository.UPDATED_AT_FIELD, watermark)
+                .addSnapshotListener((snapshot, error) -> {
+                    if (snapshot != null) {
+                        applyTombstones(snapshot);
+                    }
+                });
+    }
+
+    private void unsubscribe() {
+        if (changesRegistration != null) {
+            changesRegistration.remove();
+            changesRegistration = null;
+        }
+        if (tombstonesRegistration != null) {
+            tombstonesRegistration.remove();
+            tombstonesRegistration = null;
+        }
+    }
+
+    private void applyChanges(QuerySnapshot snapshot) {
+        lock.lock();
+        try {
+            if (snapshot.getDocumentChanges().isEmpty()) {
+                return;
+            }
+            viewLock.lock();
+            try {
+                for (DocumentChange change : snapshot.getDocumentChanges()) {
+                    String id = change.getDocument().getId();
+                    if (change.getType() == DocumentChange.Type.REMOVED) {
+                        // updatedAt only moves forward, so leaving the result set means the document was deleted
+                        articles.remove(id);
+                        searchIndex.remove(id);
+                    } else {
+                        NewsArticle article = NewsArticleMapper.fromSnapshot(change.getDocument());
+                        articles.put(id, article);
+                        searchIndex.put(article);
+                    }
+                }
+                viewStale = true;
+            } finally {
+                viewLock.unlock();
+            }
+            changesReadTime = snapshot.getReadTime();
+            dirty = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void applyTombstones(QuerySnapshot snapshot) {
+        lock.lock();
+        try {
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                if (change.getType() == DocumentChange.Type.ADDED) {
+                    removeArticle(change.getDocument().getId());
+                }
+            }
+            tombstonesReadTime = snapshot.getReadTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeArticle(String id) {
+        viewLock.lock();
+        try {
+            if (articles.remove(id) != null) {
+                viewStale = true;
+                dirty = true;
+            }
+        } finally {
+            viewLock.unlock();
+        }
+        searchIndex.remove(id);
+    }
+
+    /**
+     * The current view, rebuilt first if articles changed since it was built
+     */
+    private ReplicaView view() {
+        if (!viewStale) {
+            return view;
+        }
+        viewLock.lock();
+        try {
+            if (viewStale) {
+                view = new ReplicaView(new TreeMap<>(articles));
+                viewStale = false;
+            }
+            return view;
+        } finally {
+            viewLock.unlock();
+        }
+    }
+
+    private void persistSnapshot() {
+        // Each listener delivers consistent snapshots as of its read time, so the older
+        // of the two is the point up to which every change has been applied
+        if (changesReadTime != null && tombstonesReadTime != null) {
+            Timestamp applied = changesReadTime.compareTo(tombstonesReadTime) < 0 ? changesReadTime : tombstonesReadTime;
+            if (applied.compareTo(watermark) > 0) {
+                watermark = applied;
+            }
+        }
+        ReplicaSnapshot snapshot = new ReplicaSnapshot(
+                watermark.getSeconds(), watermark.getNanos(), new ArrayList<>(view().byId.values()));
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "news-replica", ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                objectMapper.writeValue(out, snapshot);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to write news replica snapshot: " + e.getMessage());
+        }
+    }
+
+    private ReplicaSnapshot readSnapshot() {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return null;
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshotPath))) {
+            return objectMapper.readValue(in, ReplicaSnapshot.class);
+        } catch (IOException e) {
+            System.err.println("Warning: Ignoring unreadable news replica snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Firestore firestore() {
+        Firestore client = firestore.getIfAvailable();
+        if (client == null) {
+            throw new IllegalStateException("Replica mode needs Firestore storage (news.storage=firestore)");
+        }
+        return client;
+    }
+
+    private QuerySnapshot loadCollection() {
+        Firestore client = firestore();
+        return calls.getObject().await("get-all", COLLECTION_NAME, FirestoreCalls.Type.SCAN,
+                () -> client.collection(COLLECTION_NAME).get(),
+                "Error loading news replica from Firestore", FirestoreService::documentsRead);
+    }
+
+    /**
+     * Slice a page out of articles sorted by {@link DateSort#ascending()}: the range and the
+     * cursor are located by binary search, descending pages are read from the end
+     */
+    private static PaginatedResponse<NewsArticle> datePage(List<NewsArticle> ascending, DateRange range, DateSort sort,
+                                                           PageCursor after, int page, int size) {
+        Instant from = range.getFrom();
+        Instant to = range.getTo();
+        int low = from == null ? 0 : countWhile(ascending, article -> article.getPublishedAt().isBefore(from));
+        int high = to == null ? ascending.size() : countWhile(ascending, article -> article.getPublishedAt().isBefore(to));
+        List<NewsArticle> window = ascending.subList(low, Math.max(low, high));
+
+        Instant afterPublishedAt = after != null ? after.getLastPublishedAt() : null;
+        int start;
+        int end;
+        boolean hasNext;
+        if (sort.isDescending()) {
+            end = after != null
+                    ? countWhile(window, article -> compare(article, afterPublishedAt, after.getDocumentId()) < 0)
+                    : (int) Math.max(window.size() - (long) page * size, 0);
+            start = Math.max(end - size, 0);
+            hasNext = start > 0;
+        } else {
+            start = after != null
+                    ? countWhile(window, article -> compare(article, afterPublishedAt, after.getDocumentId()) <= 0)
+                    : (int) Math.min((long) page * size, window.size());
+            end = Math.min(start + size, window.size());
+            hasNext = end < window.size();
+        }
+        List<NewsArticle> content = new ArrayList<>(window.subList(start, end));
+        if (sort.isDescending()) {
+            Collections.reverse(content);
+        }
+
+        long totalElements = window.size();
+        return new PaginatedResponse<>(
+                content,
+                page,
+                size,
+                totalElements,
+                (int) Math.ceil((double) totalElements / size),
+                hasNext,
+                // Articles before the page in its order
+                sort.isDescending() ? end < window.size() : start > 0,
+                hasNext ? PageCursor.afterDate(content) : null
+        );
+    }
+
+    private static int compare(NewsArticle article, Instant publishedAt, String documentId) {
+        int byDate = article.getPublishedAt().compareTo(publishedAt);
+        return byDate != 0 ? byDate : article.getId().compareTo(documentId);
+    }
+
+    /**
+     * Length of the prefix of a sorted list whose elements satisfy a predicate that holds for
+     * a prefix and fails for the rest
+     */
+    private static int countWhile(List<NewsArticle> articles, Predicate<NewsArticle> predicate) {
+        int low = 0;
+        int high = articles.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (predicate.test(articles.get(mid))) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int firstIndexAfter(List<NewsArticle> articles, String documentId) {
+        int low = 0;
+        int high = articles.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (articles.get(mid).getId().compareTo(documentId) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Immutable indexed copy of the collection, replaced as a whole on every change so
+     * readers never lock
+     */
+    private static class ReplicaView {
+        private final SortedMap<String, NewsArticle> byId;
+        private final List<NewsArticle> ordered;
+        private final Map<String, List<NewsArticle>> byCategory;
+        private final List<NewsArticle> featured;
+        // Articles with a publication time in DateSort.ascending() order, like the Firestore date queries
+        private final List<NewsArticle> byDate;
+        private final Map<String, List<NewsArticle>> byCategoryByDate;
+        private final List<NewsArticle> featuredByDate;
+
+        private ReplicaView(TreeMap<String, NewsArticle> articles) {
+            this.byId = Collections.unmodifiableSortedMap(articles);
+            this.ordered = List.copyOf(articles.values());
+            Map<String, List<NewsArticle>> categories = new HashMap<>();
+            List<NewsArticle> dated = new ArrayList<>();
+            for (NewsArticle article : ordered) {
+                if (article.getCategory() != null) {
+                    categories.computeIfAbsent(article.getCategory(), key -> new ArrayList<>()).add(article);
+                }
+                if (article.getPublishedAt() != null) {
+                    dated.add(article);
+                }
+            }
+            categories.replaceAll((category, list) -> List.copyOf(list));
+            this.byCategory = categories;
+
+            dated.sort(DateSort.ascending());
+            this.byDate = List.copyOf(dated);
+            Map<String, List<NewsArticle>> categoriesByDate = new HashMap<>();
+            List<NewsArticle> featuredArticles = new ArrayList<>();
+            for (NewsArticle article : byDate) {
+                if (article.getCategory() != null) {
+                    categoriesByDate.computeIfAbsent(article.getCategory(), key -> new ArrayList<>()).add(article);
+                }
+                if (Boolean.TRUE.equals(article.getIsFeatured())) {
+                    featuredArticles.add(article);
+                }
+            }
+            categoriesByDate.replaceAll((category, list) -> List.copyOf(list));
+            this.byCategoryByDate = categoriesByDate;
+            this.featuredByDate = List.copyOf(featuredArticles);
+
+            // Newest first, then featured articles without a publication time
+            Collections.reverse(featuredArticles);
+            for (NewsArticle article : ordered) {
+                if (Boolean.TRUE.equals(article.getIsFeatured()) && article.getPublishedAt() == null) {
+                    featuredArticles.add(article);
+                }
+            }
+            this.featured = List.copyOf(featuredArticles);
+        }
+    }
+
+    /**
+     * On-disk format of the replica snapshot
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class ReplicaSnapshot {
+        private long watermarkSeconds;
+        private int watermarkNanos;
+        private List<NewsArticle> articles;
+    }
+}
@@ -0,0 +1,269 @@
+package com.news.service;
+
+import com.news.model.DateRange;
+import com.news.model.DateSort;
+import com.news.model.NewsArticle;
+import com.news.model.PageCursor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Document storage behind the news API. Selected with news.storage: "firestore" (default,
+ * {@link FirestoreService}, also against the Firestore emulator) or "memory"
+ * ({@link InMemoryNewsRepository}, for local runs and load tests without credentials).
+ *
+ * Documents are field maps in named collections. Every operation has a non-blocking *Async
+ * flavor; the blocking methods wait for it. Failures are reported as RuntimeException
+ * (wrapped in the future for async calls). Unordered listings are in document ID order.
+ */
+public interface NewsRepository {
+
+    // Server-side commit time of the last write, stamped on every saved or updated document
+    String UPDATED_AT_FIELD = "updatedAt";
+
+    /**
+     * Save a document to a collection
+     * @param collectionName The name of the collection
+     * @param documentId The document ID (null for auto-generated)
+     * @param data The data to save
+     * @return The document ID
+     */
+    String save(String collectionName, String documentId, Map<String, Object> data);
+
+    /**
+     * Save a document to a collection without blocking
+     * @see #save(String, String, Map)
+     */
+    CompletableFuture<String> saveAsync(String collectionName, String documentId, Map<String, Object> data);
+
+    /**
+     * Get a document by ID
+     * @param collectionName The name of the collection
+     * @param documentId The document ID
+     * @return The document data, or null if not found
+     */
+    Map<String, Object> get(String collectionName, String documentId);
+
+    /**
+     * Get a document by ID without blocking
+     * @see #get(String, String)
+     */
+    CompletableFuture<Map<String, Object>> getAsync(String collectionName, String documentId);
+
+    /**
+     * Get all documents from a collection
+     * @param collectionName The name of the collection
+     * @return List of document data, each with its "id"
+     */
+    List<Map<String, Object>> getAll(String collectionName);
+
+    /**
+     * Get all documents from a collection without blocking
+     * @see #getAll(String)
+     */
+    CompletableFuture<List<Map<String, Object>>> getAllAsync(String collectionName);
+
+    /**
+     * Get all documents from a collection as articles. Cheaper than mapping {@link #getAll(String)},
+     * since stores can skip building each document's field map.
+     * @param collectionName The name of the collection
+     * @return List of articles
+     */
+    List<NewsArticle> getAllArticles(String collectionName);
+
+    /**
+     * Get all documents from a collection as articles without blocking
+     * @see #getAllArticles(String)
+     */
+    CompletableFuture<List<NewsArticle>> getAllArticlesAsync(String collectionName);
+
+    /**
+     * Get all documents from a collection with pagination
+     * @param collectionName The name of the collection
+     * @param page Page number (0-indexed)
+     * @param size Page size
+     * @return PaginationResult containing documents and pagination info
+     */
+    PaginationResult getAllPaginated(String collectionName, int page, int size);
+
+    /**
+     * Get all documents from a collection with pagination without blocking
+     * @see #getAllPaginated(String, int, int)
+     */
+    CompletableFuture<PaginationResult> getAllPaginatedAsync(String collectionName, int page, int size);
+
+    /**
+     * Query documents with a where clause (equality)
+     * @param collectionName The name of the collection
+     * @param field The field to filter on
+     * @param value The value to compare against
+     * @return List of matching documents
+     */
+    List<Map<String, Object>> query(String collectionName, String field, Object value);
+
+    /**
+     * Query documents with a where clause (equality) without blocking
+     * @see #query(String, String, Object)
+     */
+    CompletableFuture<List<Map<String, Object>>> queryAsync(String collectionName, String field, Object value);
+
+    /**
+     * Query documents with a where clause (equality) with pagination
+     * @param collectionName The name of the collection
+     * @param field The field to filter on (null for the whole collection)
+     * @param value The value to compare against
+     * @param page Page number (0-indexed)
+     * @param size Page size
+     * @return PaginationResult containing documents and pagination info
+     */
+    PaginationResult queryPaginated(String collectionName, String field, Object value, int page, int size);
+
+    /**
+     * Query documents with a where clause (equality) with pagination without blocking
+     * @see #queryPaginated(String, String, Object, int, int)
+     */
+    CompletableFuture<PaginationResult> queryPaginatedAsync(String collectionName, String field, Object value,
+                                                            int page, int size);
+
+    /**
+     * Get the page of documents that follows a cursor (keyset pagination), in document ID order
+     * @param collectionName The name of the collection
+     * @param field The field to filter on (null for the whole collection)
+     * @param value The value to compare against
+     * @param afterDocumentId ID of the last document of the previous page (null for the first page)
+     * @param size Page size
+     * @return CursorPaginationResult containing documents and whether more documents follow
+     */
+    CursorPaginationResult queryPageAfter(String collectionName, String field, Object value,
+                                          String afterDocumentId, int size);
+
+    /**
+     * Get the page of documents that follows a cursor without blocking
+     * @see #queryPageAfter(String, String, Object, String, int)
+     */
+    CompletableFuture<CursorPaginationResult> queryPageAfterAsync(String collectionName, String field, Object value,
+                                                                  String afterDocumentId, int size);
+
+    /**
+     * Get a page of documents in publication order (publishedAt, ties broken by document ID),
+     * optionally within a publication time range. Documents without publishedAt are not listed.
+     * @param collectionName The name of the collection
+     * @param field The field to filter on (null for the whole collection)
+     * @param value The value to compare against
+     * @param range Publication time range
+     * @param sort Publication order
+     * @param after Cursor from {@link PageCursor#afterDate(List)} (null to use the page number)
+     * @param page Page number (0-indexed), used when no cursor is given
+     * @param size Page size
+     * @return CursorPaginationResult containing documents and whether more documents follow
+     */
+    CursorPaginationResult queryByDate(String collectionName, String field, Object value, DateRange range,
+                                       DateSort sort, PageCursor after, int page, int size);
+
+    /**
+     * Get a page of documents in publication order without blocking
+     * @see #queryByDate(String, String, Object, DateRange, DateSort, PageCursor, int, int)
+     */
+    CompletableFuture<CursorPaginationResult> queryByDateAsync(String collectionName, String field, Object value,
+                                                               DateRange range, DateSort sort, PageCursor after,
+                                                               int page, int size);
+
+    /**
+     * Count documents in a collection, optionally filtered by a where clause (equality)
+     * @param collectionName The name of the collection
+     * @param field The field to filter on (null for the whole collection)
+     * @param value The value to compare against
+     * @return Number of matching documents
+     */
+    long count(String collectionName, String field, Object value);
+
+    /**
+     * Count documents without blocking
+     * @see #count(String, String, Object)
+     */
+    CompletableFuture<Long> countAsync(String collectionName, String field, Object value);
+
+    /**
+     * Update fields of an existing document
+     * @param collectionName The name of the collection
+     * @param documentId The document ID
+     * @param data The fields to update ({@code FieldValue.delete()} removes a field)
+     * @throws RuntimeException If the document does not exist
+     */
+    void update(String collectionName, String documentId, Map<String, Object> data);
+
+    /**
+     * Update a document without blocking
+     * @see #update(String, String, Map)
+     */
+    CompletableFuture<Void> updateAsync(String collectionName, String documentId, Map<String, Object> data);
+
+    /**
+     * Delete a document
+     * @param collectionName The name of the collection
+     * @param documentId The document ID
+     */
+    void delete(String collectionName, String documentId);
+
+    /**
+     * Delete a document without blocking
+     * @see #delete(String, String)
+     */
+    CompletableFuture<Void> deleteAsync(String collectionName, String documentId);
+
+    /**
+     * Inner class to hold pagination results
+     */
+    class PaginationResult {
+        private final List<Map<String, Object>> documents;
+        private final long totalElements;
+        private final int totalPages;
+
+        public PaginationResult(List<Map<String, Object>> documents, long totalElements, int totalPages) {
+            this.documents = documents;
+            this.totalElements = totalElements;
+            this.totalPages = totalPages;
+        }
+
+        public List<Map<String, Object>> getDocuments() {
+            return documents;
+        }
+
+        public long getTotalElements() {
+            return totalElements;
+        }
+
+        public int getTotalPages() {
+            return totalPages;
+        }
+    }
+
+    /**
+     * Inner class to hold cursor (keyset) pagination results
+     */
+    class CursorPaginationResult {
+        private final List<Map<String, Object>> documents;
+        private final long totalElements;
+        private final boolean hasMore;
+
+        public CursorPaginationResult(List<Map<String, Object>> documents, long totalElements, boolean hasMore) {
+            this.documents = documents;
+            this.totalElements = totalElements;
+            this.hasMore = hasMore;
+        }
+
+        public List<Map<String, Object>> getDocuments() {
+            return documents;
+        }
+
+        public long getTotalElements() {
+            return totalElements;
+        }
+
+        public boolean hasMore() {
+            return hasMore;
+        }
+    }
+}
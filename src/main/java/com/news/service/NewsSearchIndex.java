@@ -0,0 +1,410 @@
+package com.news.service;
+
+import com.news.model.DateRange;
+import com.news.model.DateSort;
+import com.news.model.NewsArticle;
+import com.news.util.NewsMetrics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the searchable fields of news articles.
+ * Articles are tokenized once when they are written (or when the index is loaded),
+ * so a search only touches the posting list of the rarest trigram of the query
+ * instead of reading and scanning the whole collection.
+ */
+@Service
+public class NewsSearchIndex {
+
+    private static final String COLLECTION_NAME = "news";
+    private static final int GRAM_SIZE = 3;
+    // Separates fields in the normalized text so a match never spans two fields
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final NewsRepository repository;
+    private final NewsMetrics metrics;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes full rebuilds; not synchronized, since a rebuild waits on Firestore and would pin a virtual thread
+    private final Lock rebuildLock = new ReentrantLock();
+
+    // Ordered by document ID, which is the order Firestore returns documents in
+    private TreeMap<String, IndexedArticle> articles = new TreeMap<>();
+    private Map<String, Set<String>> postings = new HashMap<>();
+    private volatile boolean loaded;
+    // Set when the replica keeps the index current, so periodic Firestore rebuilds are skipped
+    private volatile boolean fedByReplica;
+
+    // Writes that happen while a rebuild is reading from Firestore, replayed after the swap
+    private Map<String, NewsArticle> pendingWrites;
+
+    public NewsSearchIndex(NewsRepository repository, NewsMetrics metrics) {
+        this.repository = repository;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Search articles whose titles, descriptions, category or date contain the search term
+     * @param category Category to restrict the search to (null or "all" for every category)
+     * @param search The search term (case-insensitive, partial match, Arabic-normalized)
+     * @param page Page number (0-indexed)
+     * @param size Page size
+     * @return SearchResult containing the requested page and the total number of matches
+     */
+    public SearchResult search(String category, String search, int page, int size) {
+        return search(category, search, DateRange.UNBOUNDED, null, page, size);
+    }
+
+    /**
+     * Search articles published within a range, optionally in publication order
+     * @param range Publication time range
+     * @param sort Publication order (null for document ID order)
+     * @see #search(String, String, int, int)
+     */
+    public SearchResult search(String category, String search, DateRange range, DateSort sort, int page, int size) {
+        ensureLoaded();
+        String term = normalize(search.trim());
+        boolean allCategories = category == null || "all".equalsIgnoreCase(category);
+
+        List<NewsArticle> matches = new ArrayList<>();
+        int scanned = 0;
+        lock.readLock().lock();
+        try {
+            for (IndexedArticle candidate : candidates(term)) {
+                scanned++;
+                if (!allCategories && !category.equals(candidate.article.getCategory())) {
+                    continue;
+                }
+                if (!range.contains(candidate.article.getPublishedAt())) {
+                    continue;
+                }
+                if (candidate.text.contains(term)) {
+                    matches.add(candidate.article);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        metrics.search(scanned, matches.size());
+        if (sort != null) {
+            matches.sort(sort.comparator());
+        }
+
+        long totalElements = matches.size();
+        int totalPages = (int) Math.ceil((double) totalElements / size);
+        long start = (long) page * size;
+        List<NewsArticle> content = start < matches.size()
+                ? new ArrayList<>(matches.subList((int) start, (int) Math.min(start + size, matches.size())))
+                : new ArrayList<>();
+        return new SearchResult(content, totalElements, totalPages);
+    }
+
+    /**
+     * Add or replace an article in the index
+     * @param article The article, including its document ID
+     */
+    public void put(NewsArticle article) {
+        if (article == null || article.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingWrites != null) {
+                pendingWrites.put(article.getId(), article);
+            }
+            if (loaded) {
+                removeEntry(article.getId());
+                addEntry(article);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an article from the index
+     * @param id The document ID
+     */
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            if (pendingWrites != null) {
+                pendingWrites.put(id, null);
+            }
+            if (loaded) {
+                removeEntry(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Periodically rebuild the index so writes made by other instances become searchable.
+     * The index is only refreshed once it has been loaded by a search.
+     */
+    @Scheduled(fixedDelayString = "${news.search.refresh-interval-ms:300000}",
+            initialDelayString = "${news.search.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (loaded && !fedByReplica) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Replace the whole index with the given articles. Used by the replica, which then
+     * keeps the index current through {@link #put} and {@link #remove}.
+     * @param source The complete set of articles
+     */
+    public void loadFrom(Collection<NewsArticle> source) {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                articles = new TreeMap<>();
+                postings = new HashMap<>();
+                for (NewsArticle article : source) {
+                    addEntry(article);
+                }
+                pendingWrites = null;
+                fedByReplica = true;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Number of articles currently held by the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return articles.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            rebuildLock.lock();
+            try {
+                if (!loaded) {
+                    rebuild();
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+
+    private void rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                pendingWrites = new LinkedHashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<NewsArticle> stored;
+            try {
+                stored = repository.getAllArticles(COLLECTION_NAME);
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pendingWrites = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                articles = new TreeMap<>();
+                postings = new HashMap<>();
+                for (NewsArticle article : stored) {
+                    addEntry(article);
+                }
+                for (Map.Entry<String, NewsArticle> write : pendingWrites.entrySet()) {
+                    removeEntry(write.getKey());
+                    if (write.getValue() != null) {
+                        addEntry(write.getValue());
+                    }
+                }
+                pendingWrites = null;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Iterable<IndexedArticle> candidates(String term) {
+        if (term.length() < GRAM_SIZE) {
+            return articles.values();
+        }
+        Set<String> smallest = null;
+        for (String gram : grams(term)) {
+            Set<String> ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptyList();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        List<String> ids = new ArrayList<>(smallest);
+        Collections.sort(ids);
+        List<IndexedArticle> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            result.add(articles.get(id));
+        }
+        return result;
+    }
+
+    private void addEntry(NewsArticle article) {
+        IndexedArticle entry = new IndexedArticle(article, indexText(article));
+        articles.put(article.getId(), entry);
+        for (String gram : grams(entry.text)) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(article.getId());
+        }
+    }
+
+    private void removeEntry(String id) {
+        IndexedArticle entry = articles.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String gram : grams(entry.text)) {
+            Set<String> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static String indexText(NewsArticle article) {
+        StringBuilder text = new StringBuilder();
+        String[] fields = {
+                article.getTitleEnglish(),
+                article.getTitleArabic(),
+                article.getDescriptionEnglish(),
+                article.getDescriptionArabic(),
+                article.getCategory(),
+                article.getDate()
+        };
+        for (String field : fields) {
+            if (field != null) {
+                text.append(normalize(field));
+            }
+            text.append(FIELD_SEPARATOR);
+        }
+        return text.toString();
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            String gram = text.substring(i, i + GRAM_SIZE);
+            if (gram.indexOf(FIELD_SEPARATOR) < 0) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Normalize text for matching: lower-case, strip Arabic diacritics and tatweel,
+     * and fold alef, ya and ta marbuta variants to a single form
+     */
+    static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c >= '\u064B' && c <= '\u065F') || c == '\u0670' || c == '\u0640') {
+                continue; // Harakat, superscript alef and tatweel
+            }
+            switch (c) {
+                case '\u0622': // Alef with madda
+                case '\u0623': // Alef with hamza above
+                case '\u0625': // Alef with hamza below
+                case '\u0671': // Alef wasla
+                    normalized.append('\u0627');
+                    break;
+                case '\u0649': // Alef maksura
+                    normalized.append('\u064A');
+                    break;
+                case '\u0629': // Ta marbuta
+                    normalized.append('\u0647');
+                    break;
+                default:
+                    normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static class IndexedArticle {
+        private final NewsArticle article;
+        private final String text;
+
+        private IndexedArticle(NewsArticle article, String text) {
+            this.article = article;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Inner class to hold search results
+     */
+    public static class SearchResult {
+        private final List<NewsArticle> articles;
+        private final long totalElements;
+        private final int totalPages;
+
+        public SearchResult(List<NewsArticle> articles, long totalElements, int totalPages) {
+            this.articles = articles;
+            this.totalElements = totalElements;
+            this.totalPages = totalPages;
+        }
+
+        public List<NewsArticle> getArticles() {
+            return articles;
+        }
+
+        public long getTotalElements() {
+            return totalElements;
+        }
+
+        public int getTotalPages() {
+            return totalPages;
+        }
+    }
+}
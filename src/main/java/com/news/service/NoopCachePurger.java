@@ -0,0 +1,19 @@
+package com.news.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+
+/**
+ * Purger for deployments without a shared cache in front of the API (news.http.cache.purger=none)
+ */
+@Service
+@ConditionalOnProperty(name = "news.http.cache.purger", havingValue = "none", matchIfMissing = true)
+public class NoopCachePurger implements CachePurger {
+
+    @Override
+    public void purge(Collection<String> surrogateKeys) {
+        // Nothing to purge
+    }
+}
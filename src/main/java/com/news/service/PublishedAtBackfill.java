@@ -0,0 +1,201 @@
+package com.news.service;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.news.model.NewsArticle;
+import com.news.util.PublishDates;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One-off migration giving every article the typed {@code publishedAt} field that
+ * date-ordered listings sort and filter on. Articles written before the field existed are
+ * only listed in document ID order until this has run.
+ *
+ * Pages through the collection reading only {@code date} and {@code publishedAt}, and sets
+ * publishedAt from the parsed date, or from the document's creation time when the date is
+ * missing or not a date. Writes go through a BulkWriter with the read update time as a
+ * precondition, so an article edited meanwhile is left to the edit. Safe to re-run.
+ *
+ * Runs as a background job on its own thread, so it is not bound by the deadline of the
+ * request that started it. A run that stops early (e.g. a page read failed) is resumed after
+ * the last document it finished by the next start.
+ */
+@Service
+@ConditionalOnProperty(name = "news.storage", havingValue = "firestore", matchIfMissing = true)
+public class PublishedAtBackfill {
+
+    private static final String COLLECTION_NAME = "news";
+
+    private final FirestoreService firestoreService;
+    private final FirestoreCalls calls;
+    private final NewsCacheInvalidator cacheInvalidator;
+    private final int pageSize;
+    private final ExecutorService runner =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("published-at-backfill-"));
+
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile String state = "idle"; // idle, running, completed or failed
+    private volatile String startedAfter;
+    private volatile String lastDocumentId; // Last document whose page was fully written
+    private volatile String error;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    public PublishedAtBackfill(FirestoreService firestoreService,
+                               FirestoreCalls calls,
+                               NewsCacheInvalidator cacheInvalidator,
+                               @Value("${news.published-at.backfill.page-size:500}") int pageSize) {
+        this.firestoreService = firestoreService;
+        this.calls = calls;
+        this.cacheInvalidator = cacheInvalidator;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Start setting publishedAt on every article that lacks it, unless a run is in progress.
+     * A run that did not complete is resumed after the last document it finished.
+     * @param after Document ID to start after, overriding where the previous run stopped, or null
+     * @return Progress of the started or already running job
+     */
+    public synchronized Map<String, Object> start(String after) {
+        if (!"running".equals(state)) {
+            String resumeAfter = after != null ? after : "failed".equals(state) ? lastDocumentId : null;
+            scanned.set(0);
+            updated.set(0);
+            failed.set(0);
+            startedAfter = resumeAfter;
+            lastDocumentId = resumeAfter;
+            error = null;
+            startedAt = System.currentTimeMillis();
+            finishedAt = 0;
+            state = "running";
+            try {
+                runner.execute(() -> run(resumeAfter));
+            } catch (RejectedExecutionException e) {
+                finish("Backfill is shutting down");
+            }
+        }
+        return status();
+    }
+
+    /**
+     * Progress of the current or last run
+     * @return State, counts of scanned, updated and failed articles, and where the run is
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("scanned", scanned.get());
+        status.put("updated", updated.get());
+        status.put("failed", failed.get());
+        status.put("startedAfter", startedAfter);
+        status.put("lastDocumentId", lastDocumentId);
+        if (error != null) {
+            status.put("error", error);
+        }
+        if (startedAt > 0) {
+            long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+            status.put("elapsedMs", end - startedAt);
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public void stop() {
+        runner.shutdownNow();
+    }
+
+    private void run(String after) {
+        Query query = firestoreService.getFirestore().collection(COLLECTION_NAME)
+                .select("date", NewsArticle.PUBLISHED_AT_FIELD)
+                .orderBy(FieldPath.documentId())
+                .limit(pageSize);
+        BulkWriter writer = firestoreService.bulkWriter();
+        String failure = null;
+        try {
+            String last = after;
+            while (true) {
+                QuerySnapshot snapshot = readPage(last == null ? query : query.startAfter(last));
+                List<CompletableFuture<Void>> writes = new ArrayList<>();
+                for (QueryDocumentSnapshot document : snapshot.getDocuments()) {
+                    scanned.incrementAndGet();
+                    if (document.get(NewsArticle.PUBLISHED_AT_FIELD) instanceof Timestamp) {
+                        continue;
+                    }
+                    Object date = document.get("date");
+                    Instant parsed = date != null ? PublishDates.parse(date.toString()) : null;
+                    Timestamp publishedAt = parsed != null
+                            ? Timestamp.ofTimeSecondsAndNanos(parsed.getEpochSecond(), parsed.getNano())
+                            : document.getCreateTime();
+                    writes.add(firestoreService.bulkUpdateAsync(writer, COLLECTION_NAME, document.getId(),
+                                    Map.of(NewsArticle.PUBLISHED_AT_FIELD, publishedAt), document.getUpdateTime())
+                            .whenComplete((ignored, e) -> {
+                                if (e == null) {
+                                    updated.incrementAndGet();
+                                } else {
+                                    failed.incrementAndGet();
+                                }
+                            }));
+                }
+                // Finish the page before reading the next one, so memory stays bounded by the page size
+                writer.flush();
+                CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+                if (snapshot.isEmpty()) {
+                    break;
+                }
+                last = snapshot.getDocuments().get(snapshot.size() - 1).getId();
+                lastDocumentId = last;
+                if (snapshot.size() < pageSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            failure = e.getMessage() != null ? e.getMessage() : e.toString();
+            System.err.println("Warning: Published-at backfill stopped after " + lastDocumentId + ": " + failure);
+        } finally {
+            try {
+                writer.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Individual write failures are counted through their own futures
+            }
+        }
+        if (updated.get() > 0) {
+            cacheInvalidator.allChanged();
+        }
+        finish(failure);
+    }
+
+    private synchronized void finish(String failure) {
+        error = failure;
+        finishedAt = System.currentTimeMillis();
+        state = failure == null ? "completed" : "failed";
+    }
+
+    private QuerySnapshot readPage(Query query) {
+        return calls.await("scan-page", COLLECTION_NAME, FirestoreCalls.Type.QUERY, query::get,
+                "Error reading articles to backfill", FirestoreService::documentsRead);
+    }
+}
@@ -0,0 +1,66 @@
+package com.news.service;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.sync.RedisCommands;
+
+import java.time.Duration;
+
+/**
+ * Shared cache backed by Redis (or any server speaking the Redis protocol).
+ * Failures are swallowed and reported as misses so Redis is never on the critical path.
+ * Writes are fire-and-forget so they can run on Firestore callback threads without blocking.
+ */
+public class RedisSharedDocumentCache implements SharedDocumentCache, AutoCloseable {
+
+    private final RedisClient client;
+    private final StatefulRedisConnection<String, String> connection;
+    private final RedisCommands<String, String> commands;
+    private final RedisAsyncCommands<String, String> asyncCommands;
+
+    public RedisSharedDocumentCache(String redisUrl, long commandTimeoutMillis) {
+        RedisURI uri = RedisURI.create(redisUrl);
+        // Connections take their command timeout from the URI
+        uri.setTimeout(Duration.ofMillis(commandTimeoutMillis));
+        this.client = RedisClient.create(uri);
+        this.connection = client.connect();
+        this.commands = connection.sync();
+        this.asyncCommands = connection.async();
+    }
+
+    @Override
+    public String get(String key) {
+        try {
+            return commands.get(key);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, String value, long ttlMillis) {
+        try {
+            asyncCommands.set(key, value, SetArgs.Builder.px(ttlMillis));
+        } catch (Exception e) {
+            // Ignore cache write errors
+        }
+    }
+
+    @Override
+    public void evict(String key) {
+        try {
+            asyncCommands.del(key);
+        } catch (Exception e) {
+            // Ignore cache eviction errors, the entry expires with its TTL
+        }
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+        client.shutdown();
+    }
+}
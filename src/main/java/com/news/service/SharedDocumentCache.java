@@ -0,0 +1,27 @@
+package com.news.service;
+
+/**
+ * Second-level document cache shared between instances (e.g. Redis).
+ * Values are serialized documents; implementations must never throw on
+ * backend failures so a cache outage degrades to Firestore reads.
+ */
+public interface SharedDocumentCache {
+
+    /**
+     * @param key Cache key
+     * @return The cached value, or null on a miss or backend failure
+     */
+    String get(String key);
+
+    /**
+     * @param key Cache key
+     * @param value Serialized document
+     * @param ttlMillis Time to live in milliseconds
+     */
+    void put(String key, String value, long ttlMillis);
+
+    /**
+     * @param key Cache key
+     */
+    void evict(String key);
+}
@@ -0,0 +1,102 @@
+package com.news.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Uploader that stores nothing and hands out unique fake URLs, so the app runs
+ * without Cloudinary credentials (news.images.uploader=stub)
+ */
+@Service
+@ConditionalOnProperty(name = "news.images.uploader", havingValue = "stub")
+public class StubImageUploader implements ImageUploader {
+
+    private static final String URL_PREFIX = "https://stub.invalid/news/";
+
+    @Override
+    public String uploadImage(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        return newUrl();
+    }
+
+    @Override
+    public String uploadImage(Path imageFile) throws IOException {
+        if (Files.size(imageFile) == 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        return newUrl();
+    }
+
+    @Override
+    public String uploadBase64Image(String base64Image) {
+        if (base64Image == null || base64Image.isEmpty()) {
+            throw new IllegalArgumentException("Base64 image is empty");
+        }
+        return newUrl();
+    }
+
+    @Override
+    public void deleteImage(String imageUrl) {
+        // Nothing was stored
+    }
+
+    @Override
+    public String assetId(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        return imageUrl.substring(URL_PREFIX.length() - "news/".length());
+    }
+
+    @Override
+    public void deleteImages(List<String> assetIds) {
+        // Nothing was stored
+    }
+
+    @Override
+    public ImagePage listImages(String cursor, int size) {
+        return new ImagePage(Collections.emptyList(), null);
+    }
+
+    @Override
+    public CompletableFuture<String> uploadImageAsync(MultipartFile file) {
+        return CompletableFuture.supplyAsync(() -> uploadImage(file));
+    }
+
+    @Override
+    public CompletableFuture<String> uploadImageAsync(Path imageFile) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return uploadImage(imageFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> uploadBase64ImageAsync(String base64Image) {
+        return CompletableFuture.supplyAsync(() -> uploadBase64Image(base64Image));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteImageAsync(String imageUrl) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static String newUrl() {
+        return URL_PREFIX + UUID.randomUUID() + ".jpg";
+    }
+}
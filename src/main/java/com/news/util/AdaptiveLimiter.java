@@ -0,0 +1,152 @@
+package com.news.util;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit (bulkhead) in front of a downstream, adapted to its observed latency.
+ * Calls that find the limit reached fail at once with {@link OverloadedException} instead of
+ * queueing, so a slow downstream costs callers a fast error rather than growing waits.
+ *
+ * The limit moves between a minimum and a maximum, additive-increase/multiplicative-decrease:
+ * it grows by one per limit's worth of calls that complete within tolerance times the
+ * baseline latency while the limit is in use, and shrinks by a tenth when a call is slower
+ * or fails, at most once per round trip. The baseline follows the fastest calls seen and
+ * drifts slowly up towards slower ones, so a downstream that gets slower for good is not
+ * throttled forever. With equal minimum and maximum the limit is fixed.
+ *
+ * Each {@link RequestPriority} may use only its share of the limit.
+ */
+public class AdaptiveLimiter {
+
+    private static final double BACKOFF = 0.9;
+    // Fraction of the gap to a slower call the baseline moves by
+    private static final double BASELINE_DRIFT = 0.001;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long retryAfterSeconds;
+    private final NewsMetrics metrics;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Guarded by this
+    private double limit;
+    private double baselineNanos;
+    private long lastDecreaseNanos;
+
+    private volatile int currentLimit;
+
+    /**
+     * @param name Name of the limit in metrics and errors, e.g. "firestore-reads"
+     * @param initialLimit Starting limit
+     * @param minLimit Lowest limit
+     * @param maxLimit Highest limit
+     * @param tolerance Latency, as a multiple of the baseline, above which the limit shrinks
+     * @param retryAfterSeconds Retry-After given to turned away callers
+     * @param metrics Records rejections and publishes the limit and calls in flight
+     */
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, double tolerance,
+                           long retryAfterSeconds, NewsMetrics metrics) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits for " + name + ": " + minLimit + ".." + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.metrics = metrics;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.currentLimit = (int) limit;
+        this.lastDecreaseNanos = System.nanoTime();
+        metrics.limiter(name, this);
+    }
+
+    /**
+     * Take a slot for a call
+     * @param priority Class of the call; it may use only its share of the limit
+     * @return The permit, to be released when the call completes
+     * @throws OverloadedException If the class's share of the limit is in use
+     */
+    public Permit acquire(RequestPriority priority) {
+        int limitNow = currentLimit;
+        int allowed = Math.max(1, (int) (limitNow * priority.getShare()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                boolean full = current >= limitNow;
+                metrics.limitRejected(name, priority, full);
+                throw new OverloadedException(name, full, retryAfterSeconds);
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime());
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Current limit
+     */
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    /**
+     * Calls in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onComplete(long startNanos, long latencyNanos, boolean failed, int inFlightBefore) {
+        if (!failed) {
+            if (baselineNanos == 0 || latencyNanos < baselineNanos) {
+                baselineNanos = latencyNanos;
+            } else {
+                baselineNanos += (latencyNanos - baselineNanos) * BASELINE_DRIFT;
+            }
+        }
+        if (failed || latencyNanos > baselineNanos * tolerance) {
+            // Calls started before the last decrease saw the old limit; count one decrease per round trip
+            if (startNanos - lastDecreaseNanos > 0) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+                lastDecreaseNanos = System.nanoTime();
+            }
+        } else if (inFlightBefore * 2 >= limit) {
+            // Only grow a limit that is being used
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        currentLimit = (int) limit;
+    }
+
+    /**
+     * A slot taken by {@link #acquire(RequestPriority)}
+     */
+    public class Permit {
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Give the slot back and record how the call went; later calls do nothing
+         * @param failed Whether the downstream failed (an error or timeout, not a "not found")
+         */
+        public void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                int before = inFlight.getAndDecrement();
+                if (minLimit < maxLimit) {
+                    onComplete(startNanos, System.nanoTime() - startNanos, failed, before);
+                }
+            }
+        }
+    }
+}
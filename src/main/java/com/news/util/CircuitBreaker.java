@@ -0,0 +1,147 @@
+package com.news.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker in front of a downstream. While closed, the outcomes of the last calls are
+ * kept in a window; when enough of them failed or were slow the breaker opens, and calls fail
+ * at once with {@link CircuitOpenException} instead of piling onto a struggling downstream.
+ * After the open interval a few trial calls are let through (half-open): if they all succeed
+ * the breaker closes, otherwise it opens again.
+ *
+ * Every {@link #acquire()} must be followed by {@link #record(boolean, long)} once the call
+ * completes, or by {@link #cancel()} if the call is not made after all.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRate;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int trialCalls;
+    private final NewsMetrics metrics;
+
+    // Guarded by this
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCalls;
+    private int windowFailures;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    /**
+     * @param name Name of the breaker in metrics and errors, e.g. "firestore"
+     * @param windowSize Number of recent calls the failure rate is taken over
+     * @param minimumCalls Calls in the window before the breaker may open
+     * @param failureRate Fraction of failed or slow calls in the window that opens the breaker
+     * @param slowCallMillis Latency above which a successful call counts as failed
+     * @param openMillis How long the breaker stays open before trial calls
+     * @param trialCalls Successful trial calls needed to close the breaker
+     * @param metrics Publishes the state and records transitions and rejections
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRate,
+                          long slowCallMillis, long openMillis, int trialCalls, NewsMetrics metrics) {
+        if (windowSize < 1 || minimumCalls < 1 || trialCalls < 1) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings for " + name);
+        }
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRate = failureRate;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.trialCalls = trialCalls;
+        this.metrics = metrics;
+        metrics.circuit(name, this);
+    }
+
+    /**
+     * Let a call through
+     * @throws CircuitOpenException If the breaker is open, or half-open with its trial calls under way
+     */
+    public synchronized void acquire() {
+        if (state == State.OPEN) {
+            long remaining = openNanos - (System.nanoTime() - openedAtNanos);
+            if (remaining > 0) {
+                metrics.circuitRejected(name);
+                long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(1) - 1);
+                throw new CircuitOpenException(name, Math.max(1, retryAfterSeconds));
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= trialCalls) {
+                metrics.circuitRejected(name);
+                throw new CircuitOpenException(name, 1);
+            }
+            trialsStarted++;
+        }
+    }
+
+    /**
+     * Record the outcome of a call let through by {@link #acquire()}
+     * @param failed Whether the downstream failed (an error, not a "not found")
+     * @param latencyNanos How long the call took
+     */
+    public synchronized void record(boolean failed, long latencyNanos) {
+        boolean bad = failed || latencyNanos > slowCallNanos;
+        if (state == State.CLOSED) {
+            if (windowCalls == window.length) {
+                windowFailures -= window[windowNext] ? 1 : 0;
+            } else {
+                windowCalls++;
+            }
+            window[windowNext] = bad;
+            windowFailures += bad ? 1 : 0;
+            windowNext = (windowNext + 1) % window.length;
+            if (windowCalls >= minimumCalls && windowFailures >= failureRate * windowCalls) {
+                transition(State.OPEN);
+            }
+        } else if (state == State.HALF_OPEN) {
+            if (bad) {
+                transition(State.OPEN);
+            } else if (++trialsSucceeded >= trialCalls) {
+                transition(State.CLOSED);
+            }
+        }
+        // While open, outcomes of calls started before the breaker opened no longer matter
+    }
+
+    /**
+     * Give back a call let through by {@link #acquire()} but not made
+     */
+    public synchronized void cancel() {
+        if (state == State.HALF_OPEN && trialsStarted > trialsSucceeded) {
+            trialsStarted--;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transition(State next) {
+        state = next;
+        if (next == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+        } else if (next == State.HALF_OPEN) {
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        } else {
+            windowNext = 0;
+            windowCalls = 0;
+            windowFailures = 0;
+        }
+        System.err.println("Circuit breaker " + name + " is now " + next);
+        metrics.circuitTransition(name, next);
+    }
+}
@@ -0,0 +1,17 @@
+package com.news.util;
+
+/**
+ * A downstream call not made because its {@link CircuitBreaker} is open. Reported to clients
+ * like a full limit: 503 Service Unavailable, with Retry-After set to when the breaker lets
+ * calls through again.
+ */
+public class CircuitOpenException extends OverloadedException {
+
+    /**
+     * @param circuit Name of the breaker, e.g. "firestore"
+     * @param retryAfterSeconds Seconds until the breaker lets a trial call through
+     */
+    public CircuitOpenException(String circuit, long retryAfterSeconds) {
+        super("Circuit open (" + circuit + "), retry later", circuit, true, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,16 @@
+package com.news.util;
+
+/**
+ * A downstream call that did not complete within its deadline (its own, or what was left of
+ * the request's time budget). The call is cancelled. Reported to clients as 504 Gateway Timeout.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    /**
+     * @param operation The call, e.g. "firestore get"
+     * @param timeoutMillis The time it was given
+     */
+    public DeadlineExceededException(String operation, long timeoutMillis) {
+        super("Deadline exceeded: " + operation + " did not complete within " + timeoutMillis + " ms");
+    }
+}
@@ -0,0 +1,53 @@
+package com.news.util;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+public final class FutureUtil {
+
+    private FutureUtil() {
+    }
+
+    /**
+     * Adapt a Google ApiFuture to a CompletableFuture without blocking a thread.
+     * Cancelling the returned future cancels the underlying call.
+     */
+    public static <T> CompletableFuture<T> toCompletableFuture(ApiFuture<T> apiFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<T>() {
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+        }, MoreExecutors.directExecutor());
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                apiFuture.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Unwrap the CompletionException/ExecutionException layers added by future composition
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
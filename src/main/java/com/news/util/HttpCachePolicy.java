@@ -0,0 +1,293 @@
+package com.news.util;
+
+import com.google.cloud.Timestamp;
+import com.news.model.NewsArticle;
+import com.news.model.PaginatedResponse;
+import com.news.service.NewsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * HTTP caching for public news reads: strong ETags computed from article content,
+ * conditional requests answered with 304 before the body is serialized, a configurable
+ * Cache-Control policy, and surrogate keys so a CDN can purge exactly the responses a
+ * write affected (see {@link com.news.service.CachePurger}).
+ *
+ * Surrogate keys: {@code news} on every response, {@code news-<id>} on an article and on
+ * every page listing it, {@code news-category-<category>} on pages of a category listing
+ * ("all" for the unfiltered one).
+ */
+@Component
+public class HttpCachePolicy {
+
+    public static final String ALL_NEWS_KEY = "news";
+
+    private final CacheControl cacheControl;
+    private final String surrogateKeyHeader;
+
+    public HttpCachePolicy(@Value("${news.http.cache.max-age-seconds:60}") long maxAgeSeconds,
+                           @Value("${news.http.cache.s-maxage-seconds:-1}") long sharedMaxAgeSeconds,
+                           @Value("${news.http.cache.stale-while-revalidate-seconds:300}") long staleWhileRevalidateSeconds,
+                           @Value("${news.http.cache.stale-if-error-seconds:86400}") long staleIfErrorSeconds,
+                           @Value("${news.http.cache.surrogate-key-header:Surrogate-Key}") String surrogateKeyHeader) {
+        CacheControl control = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+        if (sharedMaxAgeSeconds >= 0) {
+            control = control.sMaxAge(Duration.ofSeconds(sharedMaxAgeSeconds));
+        }
+        if (staleWhileRevalidateSeconds > 0) {
+            control = control.staleWhileRevalidate(Duration.ofSeconds(staleWhileRevalidateSeconds));
+        }
+        if (staleIfErrorSeconds > 0) {
+            control = control.staleIfError(Duration.ofSeconds(staleIfErrorSeconds));
+        }
+        this.cacheControl = control;
+        this.surrogateKeyHeader = surrogateKeyHeader;
+    }
+
+    /**
+     * Response for a single article
+     * @param article The article
+     * @param lastModified When the article was last written, or null if unknown
+     * @param ifNoneMatch The request's If-None-Match header, or null
+     * @param ifModifiedSince The request's If-Modified-Since header, or null
+     * @return 304 if the client's copy is current, otherwise 200 with the article
+     */
+    public ResponseEntity<NewsArticle> article(NewsArticle article, Instant lastModified,
+                                               String ifNoneMatch, String ifModifiedSince) {
+        List<String> keys = List.of(ALL_NEWS_KEY, articleKey(article.getId()));
+        return respond(() -> article, etag(article), lastModified, keys, ifNoneMatch, ifModifiedSince);
+    }
+
+    /**
+     * Response for a page of a listing. Pages carry no Last-Modified, since a deletion
+     * changes a page without changing any document left on it; the ETag covers that.
+     * @param page The page
+     * @param category Category of the listing (null for the unfiltered one)
+     * @param ifNoneMatch The request's If-None-Match header, or null
+     * @return 304 if the client's copy is current, otherwise 200 with the page
+     */
+    public ResponseEntity<PaginatedResponse<NewsArticle>> page(PaginatedResponse<NewsArticle> page, String category,
+                                                               String ifNoneMatch) {
+        return respond(() -> page, etag(page), null, pageKeys(page, category), ifNoneMatch, null);
+    }
+
+    /**
+     * Mark a response as a last-known-good copy served in place of a fresh one, with its Age
+     * and a "Response is Stale" warning
+     * @param response Response built from the copy
+     * @param ageSeconds Age of the copy
+     */
+    public static <T> ResponseEntity<T> stale(ResponseEntity<T> response, long ageSeconds) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.set(HttpHeaders.AGE, String.valueOf(ageSeconds));
+        headers.set(HttpHeaders.WARNING, "110 - \"Response is Stale\"");
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    /**
+     * Cache-Control header value of public reads
+     */
+    public String getCacheControl() {
+        return cacheControl.getHeaderValue();
+    }
+
+    /**
+     * Name of the header carrying surrogate keys
+     */
+    public String getSurrogateKeyHeader() {
+        return surrogateKeyHeader;
+    }
+
+    /**
+     * Surrogate keys of a page of a listing
+     * @param category Category of the listing (null for the unfiltered one)
+     */
+    public static Set<String> pageKeys(PaginatedResponse<NewsArticle> page, String category) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(ALL_NEWS_KEY);
+        keys.add(categoryKey(category));
+        for (NewsArticle article : page.getContent()) {
+            keys.add(articleKey(article.getId()));
+        }
+        return keys;
+    }
+
+    /**
+     * Surrogate key of an article, also set on every page listing it
+     */
+    public static String articleKey(String id) {
+        return "news-" + sanitize(id);
+    }
+
+    /**
+     * Surrogate key of a category listing
+     * @param category The category, or null for the unfiltered listing
+     */
+    public static String categoryKey(String category) {
+        return "news-category-" + (category == null ? "all" : sanitize(category.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Surrogate keys to purge after an article was written or deleted: the article (and the
+     * pages listing it) plus the listings it entered or left
+     * @param id The article's document ID
+     * @param categories Categories before and after the write (nulls are ignored)
+     * @return The keys
+     */
+    public static List<String> keysForWrite(String id, String... categories) {
+        List<String> keys = new ArrayList<>();
+        keys.add(articleKey(id));
+        keys.add(categoryKey(null));
+        for (String category : categories) {
+            if (category != null && !keys.contains(categoryKey(category))) {
+                keys.add(categoryKey(category));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Last write time of a Firestore document
+     * @param data Document data as read from Firestore
+     * @return The updatedAt timestamp, or null for documents written before it was stamped
+     */
+    public static Instant lastModified(Map<String, Object> data) {
+        Object updatedAt = data != null ? data.get(NewsRepository.UPDATED_AT_FIELD) : null;
+        if (updatedAt instanceof Timestamp timestamp) {
+            return Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
+        }
+        return null;
+    }
+
+    /**
+     * Strong ETag of an article, a digest of every field that is serialized
+     */
+    public static String etag(NewsArticle article) {
+        MessageDigest digest = sha256();
+        update(digest, article);
+        return quote(digest);
+    }
+
+    /**
+     * Strong ETag of a page: its articles plus the pagination metadata
+     */
+    public static String etag(PaginatedResponse<NewsArticle> page) {
+        MessageDigest digest = sha256();
+        for (NewsArticle article : page.getContent()) {
+            update(digest, article);
+        }
+        update(digest, page.getPage(), page.getSize(), page.getTotalElements(), page.getTotalPages(),
+                page.isHasNext(), page.isHasPrevious(), page.getNextCursor());
+        return quote(digest);
+    }
+
+    private <T> ResponseEntity<T> respond(Supplier<T> body, String etag, Instant lastModified, Collection<String> keys,
+                                          String ifNoneMatch, String ifModifiedSince) {
+        Instant lastModifiedSeconds = lastModified != null ? lastModified.truncatedTo(ChronoUnit.SECONDS) : null;
+        boolean notModified = ifNoneMatch != null
+                ? matches(ifNoneMatch, etag)
+                : isNotModifiedSince(ifModifiedSince, lastModifiedSeconds);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .header(surrogateKeyHeader, String.join(" ", keys));
+        if (lastModifiedSeconds != null) {
+            response.lastModified(lastModifiedSeconds);
+        }
+        return notModified ? response.build() : response.body(body.get());
+    }
+
+    /**
+     * Whether an If-None-Match header matches an ETag. Uses the weak comparison, as for
+     * GET, so W/ prefixes added by proxies (e.g. after compressing the body) still match.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        String opaque = etag.substring(1, etag.length() - 1);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")
+                    && tag.substring(1, tag.length() - 1).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNotModifiedSince(String ifModifiedSince, Instant lastModified) {
+        if (ifModifiedSince == null || lastModified == null) {
+            return false;
+        }
+        try {
+            Instant since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return !lastModified.isAfter(since);
+        } catch (DateTimeParseException e) {
+            return false; // Invalid dates are ignored
+        }
+    }
+
+    private static void update(MessageDigest digest, NewsArticle article) {
+        update(digest, article.getId(), article.getTitleEnglish(), article.getTitleArabic(),
+                article.getDescriptionEnglish(), article.getDescriptionArabic(), article.getImage(),
+                article.getImageStatus(), article.getDate(), article.getPublishedAt(), article.getCategory(),
+                article.getIsArabic(), article.getIsEnglish(), article.getIsFeatured());
+    }
+
+    private static void update(MessageDigest digest, Object... values) {
+        for (Object value : values) {
+            // Null and the separator can't occur in a field's string form, so fields can't run into each other
+            digest.update(value == null ? new byte[] {0} : String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0x1F);
+        }
+        digest.update((byte) 0x1E);
+    }
+
+    private static String quote(MessageDigest digest) {
+        byte[] hash = digest.digest();
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sanitize(String value) {
+        // Surrogate keys are space separated
+        return value.replaceAll("[^A-Za-z0-9_.:-]", "_");
+    }
+}
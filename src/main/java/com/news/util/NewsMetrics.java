@@ -0,0 +1,288 @@
+package com.news.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Application meters, published through Micrometer (Prometheus scrape at /actuator/prometheus).
+ * Meter names and tags are kept here so dashboards have one place to look:
+ * <ul>
+ *   <li>{@code news.firestore.calls} timer and {@code news.firestore.documents.read} summary,
+ *       tagged by operation and collection; reads are what Firestore bills for the call</li>
+ *   <li>{@code news.firestore.retries} counter of retried reads, tagged by operation and collection</li>
+ *   <li>{@code news.firestore.hedges} counter of hedged reads, tagged by operation and result:
+ *       "fired" hedges were sent, "won" ones answered first, "over-budget" ones were not sent</li>
+ *   <li>{@code news.firestore.single-flight} counter of reads, tagged by operation and result:
+ *       "loaded" reads went to Firestore, "coalesced" ones joined an identical read in flight</li>
+ *   <li>{@code news.limit.limit} and {@code news.limit.in-flight} gauges of each concurrency limit
+ *       ({@link AdaptiveLimiter}), and {@code news.limit.rejected} counter tagged by limit,
+ *       priority and result ("full" or "shed")</li>
+ *   <li>{@code news.circuit.state} gauge of each {@link CircuitBreaker} (0 closed, 1 open,
+ *       2 half-open), {@code news.circuit.transitions} counter tagged by the state entered, and
+ *       {@code news.circuit.rejected} counter of calls not made while open</li>
+ *   <li>{@code news.stale.served} counter of last-known-good responses served instead of fresh
+ *       ones, tagged by reason ("error" or "deadline")</li>
+ *   <li>{@code news.images.calls} timer and {@code news.images.bytes} summary, tagged by operation</li>
+ *   <li>{@code news.search.scanned} and {@code news.search.matches} summaries per search</li>
+ *   <li>{@code news.listing.items} summary of articles per served page, tagged by listing</li>
+ *   <li>{@code news.jwt.verify} timer, tagged by result (cached, verified, rejected)</li>
+ * </ul>
+ * Timers and summaries publish histogram buckets, so percentiles can be aggregated across instances.
+ */
+@Component
+public class NewsMetrics {
+
+    private static final String SUCCESS = "success";
+    private static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+
+    public NewsMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Start timing a call, to be stopped by one of the record methods
+     */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Record a finished Firestore call
+     * @param sample Sample from {@link #start()}
+     * @param operation Operation, e.g. "get", "query" or "count"
+     * @param collection Collection name
+     * @param failure The failure, or null if the call succeeded
+     * @param documentsRead Billed document reads, or a negative value for writes
+     */
+    public void firestoreCall(Timer.Sample sample, String operation, String collection, Throwable failure,
+                              long documentsRead) {
+        sample.stop(Timer.builder("news.firestore.calls")
+                .description("Firestore call latency")
+                .tag("operation", operation)
+                .tag("collection", collection)
+                .tag("outcome", failure == null ? SUCCESS : ERROR)
+                .publishPercentileHistogram()
+                .register(registry));
+        if (failure == null && documentsRead >= 0) {
+            DistributionSummary.builder("news.firestore.documents.read")
+                    .description("Documents read (billed) per Firestore call")
+                    .tag("operation", operation)
+                    .tag("collection", collection)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(documentsRead);
+        }
+    }
+
+    /**
+     * Record a read that went through {@link SingleFlight}
+     * @param operation Operation, e.g. "get", "query-page" or "count"
+     * @param coalesced Whether the read joined one in flight instead of loading
+     */
+    public void singleFlight(String operation, boolean coalesced) {
+        Counter.builder("news.firestore.single-flight")
+                .description("Firestore reads loaded or coalesced with an identical read in flight")
+                .tag("operation", operation)
+                .tag("result", coalesced ? "coalesced" : "loaded")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Publish the limit and calls in flight of a concurrency limit
+     */
+    public void limiter(String name, AdaptiveLimiter limiter) {
+        Gauge.builder("news.limit.limit", limiter, AdaptiveLimiter::getLimit)
+                .description("Current concurrency limit")
+                .tag("limit", name)
+                .register(registry);
+        Gauge.builder("news.limit.in-flight", limiter, AdaptiveLimiter::getInFlight)
+                .description("Calls holding a slot of the concurrency limit")
+                .tag("limit", name)
+                .register(registry);
+    }
+
+    /**
+     * Record a call turned away by a concurrency limit
+     * @param name The limit
+     * @param priority Class of the call
+     * @param full Whether the limit was full, rather than held back for higher-priority calls
+     */
+    public void limitRejected(String name, RequestPriority priority, boolean full) {
+        Counter.builder("news.limit.rejected")
+                .description("Calls turned away by a concurrency limit")
+                .tag("limit", name)
+                .tag("priority", priority.name().toLowerCase())
+                .tag("result", full ? "full" : "shed")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Record a Firestore read being retried after a transient failure
+     * @param operation Operation, e.g. "get" or "query"
+     * @param collection Collection name
+     */
+    public void firestoreRetry(String operation, String collection) {
+        Counter.builder("news.firestore.retries")
+                .description("Firestore reads retried after a transient failure")
+                .tag("operation", operation)
+                .tag("collection", collection)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Record a hedged Firestore read
+     * @param operation Operation, e.g. "get" or "query-page"
+     * @param result "fired", "won" or "over-budget"
+     */
+    public void hedge(String operation, String result) {
+        Counter.builder("news.firestore.hedges")
+                .description("Hedged Firestore reads")
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Publish the state of a circuit breaker
+     * @param name The breaker
+     */
+    public void circuit(String name, CircuitBreaker breaker) {
+        Gauge.builder("news.circuit.state", breaker, b -> b.getState().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("circuit", name)
+                .register(registry);
+    }
+
+    /**
+     * Record a circuit breaker changing state
+     * @param name The breaker
+     * @param state The state entered
+     */
+    public void circuitTransition(String name, CircuitBreaker.State state) {
+        Counter.builder("news.circuit.transitions")
+                .description("Circuit breaker state changes")
+                .tag("circuit", name)
+                .tag("state", state.name().toLowerCase())
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Record a call not made because a circuit breaker is open
+     */
+    public void circuitRejected(String name) {
+        Counter.builder("news.circuit.rejected")
+                .description("Calls not made because the circuit breaker is open")
+                .tag("circuit", name)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Record a last-known-good response served instead of a fresh one
+     * @param reason "error" if loading failed, "deadline" if it was too slow
+     */
+    public void staleServed(String reason) {
+        Counter.builder("news.stale.served")
+                .description("Last-known-good responses served instead of fresh ones")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Time a call to the image host
+     * @param operation Operation, e.g. "upload" or "delete"
+     * @param bytes Bytes sent, or a negative value if the call sends no image
+     * @param call The call
+     * @return The call's result
+     */
+    public <T> T imageCall(String operation, long bytes, ImageCall<T> call) throws IOException {
+        Timer.Sample sample = start();
+        String outcome = ERROR;
+        try {
+            T result = call.call();
+            outcome = SUCCESS;
+            return result;
+        } finally {
+            sample.stop(Timer.builder("news.images.calls")
+                    .description("Image host call latency")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry));
+            if (bytes >= 0 && outcome.equals(SUCCESS)) {
+                DistributionSummary.builder("news.images.bytes")
+                        .description("Image bytes sent to the image host")
+                        .baseUnit("bytes")
+                        .tag("operation", operation)
+                        .publishPercentileHistogram()
+                        .register(registry)
+                        .record(bytes);
+            }
+        }
+    }
+
+    /**
+     * Record a search: candidates checked against the term, and matches
+     */
+    public void search(int scanned, int matches) {
+        DistributionSummary.builder("news.search.scanned")
+                .description("Index entries scanned per search")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(scanned);
+        DistributionSummary.builder("news.search.matches")
+                .description("Matches per search")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(matches);
+    }
+
+    /**
+     * Record a served page of a listing
+     * @param listing The listing, e.g. "category", "featured", "search" or "hot-page"
+     * @param items Articles on the page
+     */
+    public void pageServed(String listing, int items) {
+        DistributionSummary.builder("news.listing.items")
+                .description("Articles per served listing page")
+                .tag("listing", listing)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(items);
+    }
+
+    /**
+     * Record a JWT verification
+     * @param sample Sample from {@link #start()}
+     * @param result "cached", "verified" or "rejected"
+     */
+    public void jwtVerification(Timer.Sample sample, String result) {
+        sample.stop(Timer.builder("news.jwt.verify")
+                .description("JWT verification time")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    /**
+     * A call to the image host
+     */
+    @FunctionalInterface
+    public interface ImageCall<T> {
+        T call() throws IOException;
+    }
+}
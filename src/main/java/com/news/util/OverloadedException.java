@@ -0,0 +1,43 @@
+package com.news.util;
+
+/**
+ * A request or downstream call turned away because a concurrency limit is reached.
+ * Reported to clients as 503 Service Unavailable when the limit is full, or as 429 Too Many
+ * Requests when room is left but is held back for higher-priority requests, with a
+ * Retry-After header either way.
+ */
+public class OverloadedException extends RuntimeException {
+
+    private final String limit;
+    private final boolean full;
+    private final long retryAfterSeconds;
+
+    /**
+     * @param limit Name of the limit, e.g. "firestore-reads"
+     * @param full Whether the limit is full for every priority class
+     * @param retryAfterSeconds Seconds clients should wait before retrying
+     */
+    public OverloadedException(String limit, boolean full, long retryAfterSeconds) {
+        this((full ? "Overloaded (" : "Shedding lower-priority requests (") + limit + "), retry later",
+                limit, full, retryAfterSeconds);
+    }
+
+    protected OverloadedException(String message, String limit, boolean full, long retryAfterSeconds) {
+        super(message);
+        this.limit = limit;
+        this.full = full;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getLimit() {
+        return limit;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
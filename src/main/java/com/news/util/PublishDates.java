@@ -0,0 +1,131 @@
+package com.news.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Parses the free-form {@code date} strings of articles (and the {@code from}/{@code to}
+ * listing parameters) into instants. Accepts ISO-8601 instants and date-times, with or
+ * without an offset, and plain dates in year-month-day or day/month/year order; values
+ * without an offset are taken as UTC.
+ */
+public final class PublishDates {
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("yyyy/MM/dd"),
+            DateTimeFormatter.ofPattern("d/M/yyyy"),
+            DateTimeFormatter.ofPattern("d-M-yyyy"));
+
+    private PublishDates() {
+    }
+
+    /**
+     * Parse a date
+     * @param value The date, e.g. "2024-03-01", "2024-03-01T08:30:00Z" or "1/3/2024"
+     * @return The instant (start of day for plain dates), or null if the value is blank or not a date
+     */
+    public static Instant parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        // Only the ISO date-time forms have a 'T', and only they can match one, so most
+        // values are parsed by a single format instead of after failed (throwing) attempts
+        if (trimmed.indexOf('T') >= 0 || trimmed.indexOf('t') >= 0) {
+            return parseDateTime(trimmed);
+        }
+        LocalDate date = parseDate(trimmed);
+        return date != null ? date.atStartOfDay(ZoneOffset.UTC).toInstant() : null;
+    }
+
+    /**
+     * Parse the exclusive upper bound of a range. A plain date includes that whole day, so
+     * it is the start of the next day; a date-time is used as is.
+     * @param value The bound
+     * @return The instant, or null if the value is blank or not a date
+     */
+    public static Instant parseEnd(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        LocalDate date = parseDate(value.trim());
+        return date != null ? date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant() : parse(value);
+    }
+
+    private static Instant parseDateTime(String value) {
+        boolean offset = hasOffset(value);
+        Instant parsed = offset ? parseOffsetDateTime(value) : parseLocalDateTime(value);
+        if (parsed != null) {
+            return parsed;
+        }
+        return offset ? parseLocalDateTime(value) : parseOffsetDateTime(value);
+    }
+
+    private static Instant parseOffsetDateTime(String value) {
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Instant parseLocalDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        DateTimeFormatter likely = likelyDateFormat(value);
+        LocalDate date = parseDate(value, likely);
+        for (int i = 0; date == null && i < DATE_FORMATS.size(); i++) {
+            if (DATE_FORMATS.get(i) != likely) {
+                date = parseDate(value, DATE_FORMATS.get(i));
+            }
+        }
+        return date;
+    }
+
+    private static LocalDate parseDate(String value, DateTimeFormatter format) {
+        try {
+            return LocalDate.parse(value, format);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether a date-time ends in a zone offset, e.g. "Z" or "+02:00"
+     */
+    private static boolean hasOffset(String value) {
+        char last = value.charAt(value.length() - 1);
+        if (last == 'Z' || last == 'z') {
+            return true;
+        }
+        int time = Math.max(value.indexOf('T'), value.indexOf('t'));
+        return value.indexOf('+', time) >= 0 || value.indexOf('-', time) >= 0;
+    }
+
+    /**
+     * The date format the value looks like, judged by its separators
+     */
+    private static DateTimeFormatter likelyDateFormat(String value) {
+        char separator = value.length() > 4 ? value.charAt(4) : 0;
+        if (separator == '-') {
+            return DATE_FORMATS.get(0);
+        }
+        if (separator == '/') {
+            return DATE_FORMATS.get(1);
+        }
+        return DATE_FORMATS.get(value.indexOf('/') >= 0 ? 2 : 3);
+    }
+}
@@ -0,0 +1,52 @@
+package com.news.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * The {@link RequestDeadline} and {@link RequestPriority} of a request, carried over to the
+ * callbacks of its futures. Both are only set on the thread that runs the controller, so
+ * calls made in a callback (e.g. the write after a read) would otherwise have no deadline,
+ * would not be cancelled with the request and would be shed as background work.
+ */
+public final class RequestContext {
+
+    private final RequestDeadline deadline;
+    private final RequestPriority priority;
+
+    private RequestContext(RequestDeadline deadline, RequestPriority priority) {
+        this.deadline = deadline;
+        this.priority = priority;
+    }
+
+    /**
+     * Context of the request handled by the current thread
+     */
+    public static RequestContext capture() {
+        return new RequestContext(RequestDeadline.current(), RequestPriority.peek());
+    }
+
+    /**
+     * Run a future's callback in this context, e.g. {@code future.thenCompose(context.wrap(...))}
+     * @param callback Callback making downstream calls
+     * @return The callback, run with this context's deadline and priority set
+     */
+    public <T, U> Function<T, CompletableFuture<U>> wrap(Function<T, CompletableFuture<U>> callback) {
+        if (deadline == null && priority == null) {
+            return callback;
+        }
+        return value -> {
+            // Callbacks of a completed future run on the calling thread, which may be in a request
+            RequestDeadline previousDeadline = RequestDeadline.current();
+            RequestPriority previousPriority = RequestPriority.peek();
+            RequestDeadline.setCurrent(deadline);
+            RequestPriority.setCurrent(priority);
+            try {
+                return callback.apply(value);
+            } finally {
+                RequestDeadline.setCurrent(previousDeadline);
+                RequestPriority.setCurrent(previousPriority);
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.news.util;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of the request being handled, and cancellation of the downstream calls made for
+ * it. Set by {@link com.news.filter.AdmissionFilter} for the thread that runs the controller:
+ * Firestore calls made there take their deadline from the remaining budget, and are cancelled
+ * when the request ends early (the client went away or the async request timed out).
+ * {@link RequestContext} carries it over to future callbacks; calls made elsewhere
+ * (background jobs) have no request deadline.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /**
+     * @param budgetMillis Time the request may take from now
+     */
+    public RequestDeadline(long budgetMillis) {
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    /**
+     * Deadline of the request handled by the current thread
+     * @return The deadline, or null outside a request
+     */
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Set the deadline of the request handled by the current thread
+     * @param deadline The deadline, or null when the request is done
+     */
+    public static void setCurrent(RequestDeadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+
+    /**
+     * Time left, in nanoseconds (zero or less once the deadline has passed)
+     */
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Cancel a call if the request ends before it completes
+     */
+    public void register(CompletableFuture<?> future) {
+        if (cancelled) {
+            future.cancel(true);
+            return;
+        }
+        pending.add(future);
+        future.whenComplete((value, error) -> pending.remove(future));
+        if (cancelled) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * The request ended early: cancel its calls still in flight
+     */
+    public void cancel() {
+        cancelled = true;
+        for (CompletableFuture<?> future : pending) {
+            future.cancel(true);
+        }
+    }
+}
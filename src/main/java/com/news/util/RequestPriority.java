@@ -0,0 +1,67 @@
+package com.news.util;
+
+/**
+ * Priority classes for load shedding. Each class may use only its share of a limit, so as a
+ * limit fills up the lower classes are turned away first and the remaining room is kept for
+ * public reads.
+ *
+ * The class of the request being handled is set by {@link com.news.filter.AdmissionFilter}
+ * for the thread that runs the controller, and carried over to future callbacks by
+ * {@link RequestContext}; calls made elsewhere (background jobs) have no request class and
+ * count as {@link #BACKGROUND}.
+ */
+public enum RequestPriority {
+
+    // Public article and listing reads
+    PUBLIC_READ(1.0),
+    // Authenticated admin API: listings, search and edits
+    ADMIN(0.8),
+    // Image uploads and bulk imports
+    UPLOAD(0.5),
+    // Work not tied to a request: image ingestion, cache refreshes, reconciliation
+    BACKGROUND(0.5);
+
+    private static final ThreadLocal<RequestPriority> CURRENT = new ThreadLocal<>();
+
+    private final double share;
+
+    RequestPriority(double share) {
+        this.share = share;
+    }
+
+    /**
+     * Fraction of a limit this class may use
+     */
+    public double getShare() {
+        return share;
+    }
+
+    /**
+     * Class of the request handled by the current thread
+     * @return The class, or {@link #BACKGROUND} outside a request
+     */
+    public static RequestPriority current() {
+        RequestPriority priority = CURRENT.get();
+        return priority != null ? priority : BACKGROUND;
+    }
+
+    /**
+     * Class of the request handled by the current thread, for {@link RequestContext}
+     * @return The class, or null outside a request
+     */
+    static RequestPriority peek() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Set the class of the request handled by the current thread
+     * @param priority The class, or null when the request is done
+     */
+    public static void setCurrent(RequestPriority priority) {
+        if (priority == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(priority);
+        }
+    }
+}
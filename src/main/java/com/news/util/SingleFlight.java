@@ -0,0 +1,104 @@
+package com.news.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads ("single flight"): while a load for a key is in
+ * flight, callers asking for the same key wait for it instead of starting their own, so a
+ * burst of identical requests costs one backend call. Nothing is kept once the load
+ * completes; caching is left to the callers.
+ *
+ * Keys start with the collection name and "|", so a write can {@link #forget(String)} the
+ * loads of its collection: callers arriving after the write then start a fresh load rather
+ * than joining one that may have read the old data. Every caller gets its own dependent
+ * future, so cancelling one does not cancel the shared load, nor does the end of the request
+ * that started it. The shared load runs without a request deadline, under the per-operation
+ * default, so a caller with a short budget does not fail the read for those that joined it;
+ * each caller's future is still cancelled when its own request ends (see {@link RequestDeadline}).
+ */
+public class SingleFlight {
+
+    private final Map<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final NewsMetrics metrics;
+    private final boolean enabled;
+
+    /**
+     * @param metrics Records loaded and coalesced calls per operation
+     * @param enabled Whether to coalesce; when false every call loads
+     */
+    public SingleFlight(NewsMetrics metrics, boolean enabled) {
+        this.metrics = metrics;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the result of the in-flight load for a key, or start one
+     * @param operation Operation tag of the metrics, e.g. "get" or "count"
+     * @param key Key of the read, starting with the collection name and "|"
+     * @param loader Starts the load
+     * @return The load's result, shared with every caller that joined it
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> load(String operation, String key, Supplier<CompletableFuture<T>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        CompletableFuture<T> promise = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, promise);
+        RequestDeadline deadline = RequestDeadline.current();
+        if (existing != null) {
+            metrics.singleFlight(operation, true);
+            return forCaller(existing, deadline);
+        }
+        metrics.singleFlight(operation, false);
+        // The load is shared, so it is bound by neither the leader's deadline nor its request
+        CompletableFuture<T> load;
+        try {
+            RequestDeadline.setCurrent(null);
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        } finally {
+            RequestDeadline.setCurrent(deadline);
+        }
+        load.whenComplete((value, error) -> {
+            inFlight.remove(key, promise);
+            if (error != null) {
+                promise.completeExceptionally(error);
+            } else {
+                promise.complete(value);
+            }
+        });
+        return forCaller(promise, deadline);
+    }
+
+    /**
+     * Stop new callers from joining the loads of a collection that are in flight; their current
+     * callers still get the results
+     * @param collectionName The name of the collection
+     */
+    public void forget(String collectionName) {
+        if (!inFlight.isEmpty()) {
+            String prefix = collectionName + "|";
+            inFlight.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    private static <T> CompletableFuture<T> forCaller(CompletableFuture<T> shared, RequestDeadline deadline) {
+        CompletableFuture<T> result = shared.copy();
+        if (deadline != null) {
+            deadline.register(result);
+        }
+        return result;
+    }
+
+    /**
+     * Number of loads in flight
+     */
+    public int size() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,95 @@
+package com.news.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.news.service.ImageSpool;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Base64ImageSpoolingFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ImageSpool imageSpool;
+    private Base64ImageSpoolingFilter filter;
+
+    @TempDir
+    Path spoolDirectory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        imageSpool = new ImageSpool(spoolDirectory.toString(), 1024 * 1024, 60000);
+        filter = new Base64ImageSpoolingFilter(imageSpool);
+    }
+
+    @Test
+    void replacesDataUrlImageWithSpooledFile() throws Exception {
+        byte[] image = new byte[40000];
+        for (int i = 0; i < image.length; i++) {
+            image[i] = (byte) i;
+        }
+        // JSON encoders may escape '/' in strings
+        String base64 = Base64.getEncoder().encodeToString(image).replace("/", "\\/");
+        String body = "{\"titleArabic\":\"خبر\",\"image\":\"data:image/png;base64," + base64
+                + "\",\"caption\":\"data:text\"}";
+
+        Map<?, ?> parsed = filter(body, request -> {
+            String token = (String) request.get("image");
+            assertTrue(ImageSpool.isToken(token));
+            Path claimed = imageSpool.claim(token);
+            assertArrayEquals(image, Files.readAllBytes(claimed));
+        });
+
+        assertEquals("خبر", parsed.get("titleArabic"));
+        assertEquals("data:text", parsed.get("caption"));
+    }
+
+    @Test
+    void deletesUnclaimedFilesWhenTheRequestEnds() throws Exception {
+        filter("{\"image\":\"data:image/gif;base64,R0lGODlh\"}", request -> { });
+
+        try (var files = Files.list(spoolDirectory)) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+
+    @Test
+    void rejectsInvalidBase64() {
+        assertThrows(IOException.class, () -> filter("{\"image\":\"data:image/png;base64,not*base64\"}", request -> { }));
+    }
+
+    private Map<?, ?> filter(String body, RequestCheck check) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/news");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        AtomicReference<Map<?, ?>> parsed = new AtomicReference<>();
+        FilterChain chain = (servletRequest, servletResponse) -> {
+            Map<?, ?> json = objectMapper.readValue(servletRequest.getInputStream(), Map.class);
+            parsed.set(json);
+            check.accept(json);
+        };
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return parsed.get();
+    }
+
+    @FunctionalInterface
+    private interface RequestCheck {
+        void accept(Map<?, ?> request) throws IOException;
+    }
+}
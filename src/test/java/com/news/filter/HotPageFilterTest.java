@@ -0,0 +1,109 @@
+package com.news.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.news.model.NewsArticle;
+import com.news.model.PaginatedResponse;
+import com.news.service.HotPageCache;
+import com.news.util.HttpCachePolicy;
+import com.news.util.NewsMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotPageFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpCachePolicy cachePolicy = new HttpCachePolicy(60, -1, 300, 0, "Surrogate-Key");
+    private HotPageCache hotPages;
+    private HotPageFilter filter;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        hotPages = new HotPageCache(objectMapper, cachePolicy, true, 0, List.of(10), 100, 60000, 60000);
+        filter = new HotPageFilter(hotPages, cachePolicy, new NewsMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void missesGoToTheController() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/api/news/category/all", null), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void servesStoredPageAsJsonOrGzipWithoutTheController() throws Exception {
+        PaginatedResponse<NewsArticle> page = page("Sports", "First");
+        hotPages.store("Sports", null, 0, 10, page, () -> CompletableFuture.completedFuture(page));
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse plain = new MockHttpServletResponse();
+        filter.doFilter(request("/api/news/category/Sports", null), plain, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(objectMapper.writeValueAsString(page), plain.getContentAsString());
+        assertEquals(HttpCachePolicy.etag(page), plain.getHeader("ETag"));
+
+        MockHttpServletResponse gzip = new MockHttpServletResponse();
+        filter.doFilter(request("/api/news/category/Sports", "gzip, deflate"), gzip, new MockFilterChain());
+
+        assertEquals("gzip", gzip.getHeader("Content-Encoding"));
+        byte[] decoded = new GZIPInputStream(new ByteArrayInputStream(gzip.getContentAsByteArray())).readAllBytes();
+        assertEquals(plain.getContentAsString(), new String(decoded, StandardCharsets.UTF_8));
+
+        MockHttpServletRequest conditional = request("/api/news/category/Sports", null);
+        conditional.addHeader("If-None-Match", plain.getHeader("ETag"));
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        filter.doFilter(conditional, notModified, new MockFilterChain());
+        assertEquals(304, notModified.getStatus());
+    }
+
+    @Test
+    void rebuildsPagesOfChangedCategoryInBackground() throws Exception {
+        hotPages.store("Sports", null, 0, 10, page("Sports", "Old"), () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(page("Sports", "New"));
+        });
+
+        hotPages.invalidate(HttpCachePolicy.keysForWrite("other", "Sports"));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("/api/news/category/Sports", null), response, new MockFilterChain());
+        assertEquals(1, loads.get());
+        assertTrue(response.getContentAsString().contains("\"New\""));
+    }
+
+    private static MockHttpServletRequest request(String uri, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setParameter("page", "0");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        return request;
+    }
+
+    private static PaginatedResponse<NewsArticle> page(String category, String title) {
+        NewsArticle article = new NewsArticle();
+        article.setId("a1");
+        article.setCategory(category);
+        article.setTitleEnglish(title);
+        return new PaginatedResponse<>(List.of(article), 0, 10, 1, 1, false, false);
+    }
+}
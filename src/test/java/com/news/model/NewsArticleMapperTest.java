@@ -0,0 +1,58 @@
+package com.news.model;
+
+import com.google.cloud.Timestamp;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NewsArticleMapperTest {
+
+    @Test
+    void coercesStringsAndBooleansLeniently() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("titleEnglish", "Budget passed");
+        data.put("category", 42L);
+        data.put("isArabic", "TRUE");
+        data.put("isEnglish", "yes");
+        data.put("isFeatured", true);
+        data.put("date", "1/3/2024");
+
+        NewsArticle article = NewsArticleMapper.fromMap("a1", data);
+
+        assertEquals("a1", article.getId());
+        assertEquals("Budget passed", article.getTitleEnglish());
+        assertEquals("42", article.getCategory());
+        assertTrue(article.getIsArabic());
+        assertFalse(article.getIsEnglish());
+        assertTrue(article.getIsFeatured());
+        assertNull(article.getImage());
+        // Not backfilled: publishedAt comes from the date
+        assertEquals(Instant.parse("2024-03-01T00:00:00Z"), article.getPublishedAt());
+    }
+
+    @Test
+    void roundTripsThroughDocumentData() {
+        NewsArticle article = new NewsArticle();
+        article.setTitleArabic("إقرار الميزانية");
+        article.setDate("2024-03-01T08:30:00+02:00");
+        article.setCategory("politics");
+        article.setIsFeatured(false);
+
+        Map<String, Object> data = NewsArticleMapper.toMap(article);
+        NewsArticle read = NewsArticleMapper.fromMap("a1", data);
+
+        assertEquals(5, data.size());
+        assertEquals(Timestamp.parseTimestamp("2024-03-01T06:30:00Z"), data.get(NewsArticle.PUBLISHED_AT_FIELD));
+        assertEquals(Instant.parse("2024-03-01T06:30:00Z"), read.getPublishedAt());
+        assertEquals(article.getTitleArabic(), read.getTitleArabic());
+        assertFalse(read.getIsFeatured());
+        assertNull(read.getIsArabic());
+    }
+}
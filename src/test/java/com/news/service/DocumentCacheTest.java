@@ -0,0 +1,102 @@
+package com.news.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.Timestamp;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DocumentCacheTest {
+
+    private final InMemorySharedDocumentCache shared = new InMemorySharedDocumentCache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesRepeatedReadsFromLocalTier() {
+        DocumentCache cache = newCache();
+
+        cache.get("news", "a1", this::load).join();
+        Map<String, Object> data = cache.get("news", "a1", this::load).join();
+
+        assertEquals("Title", data.get("titleEnglish"));
+        assertEquals(1, loads.get());
+        assertEquals(1L, ((Map<?, ?>) cache.getStats().get("l1")).get("hits"));
+    }
+
+    @Test
+    void fallsBackToSharedTierBeforeLoading() {
+        newCache().get("news", "a1", this::load).join();
+
+        // A second instance starts with an empty local tier
+        Map<String, Object> data = newCache().get("news", "a1", this::load).join();
+
+        assertEquals("Title", data.get("titleEnglish"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void sharedTierKeepsTimestamps() {
+        Timestamp publishedAt = Timestamp.ofTimeSecondsAndNanos(1700000000, 123456789);
+        newCache().get("news", "a1", () -> CompletableFuture.completedFuture(
+                Map.of("titleEnglish", "Title", "publishedAt", publishedAt))).join();
+
+        Map<String, Object> data = newCache().get("news", "a1", this::load).join();
+
+        assertEquals(publishedAt, data.get("publishedAt"));
+        assertEquals("Title", data.get("titleEnglish"));
+    }
+
+    @Test
+    void evictionReachesBothTiers() {
+        DocumentCache cache = newCache();
+        cache.get("news", "a1", this::load).join();
+
+        cache.evict("news", "a1");
+        cache.get("news", "a1", this::load).join();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void loadsRacingAWriteAreNotCached() {
+        DocumentCache cache = newCache();
+        CompletableFuture<Map<String, Object>> before = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> read = cache.get("news", "a1", () -> before);
+
+        // The document is written while the read is in flight
+        cache.evict("news", "a1");
+        before.complete(Map.of("titleEnglish", "Old title"));
+
+        assertEquals("Old title", read.join().get("titleEnglish"));
+        assertEquals("Title", cache.get("news", "a1", this::load).join().get("titleEnglish"));
+        assertEquals(1, loads.get());
+        assertFalse(shared.get("doc:news/a1").contains("Old title"));
+    }
+
+    @Test
+    void doesNotCacheMissingDocuments() {
+        DocumentCache cache = newCache();
+
+        assertNull(cache.get("news", "missing", () -> CompletableFuture.completedFuture(null)).join());
+        assertNull(shared.get("doc:news/missing"));
+    }
+
+    private DocumentCache newCache() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("shared", shared));
+        ObjectProvider<SharedDocumentCache> provider = beanFactory.getBeanProvider(SharedDocumentCache.class);
+        return new DocumentCache(100, 60000, 60000, provider, new ObjectMapper());
+    }
+
+    private CompletableFuture<Map<String, Object>> load() {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(Map.of("titleEnglish", "Title"));
+    }
+}
@@ -0,0 +1,152 @@
+package com.news.service;
+
+import com.google.api.core.SettableApiFuture;
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiExceptionFactory;
+import com.news.util.DeadlineExceededException;
+import com.news.util.NewsMetrics;
+import com.news.util.RequestDeadline;
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FirestoreCallsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final NewsMetrics metrics = new NewsMetrics(registry);
+    private final FirestoreCalls calls = new FirestoreCalls(metrics,
+            new Bulkheads(metrics, 1, 2.0, 400, 8, 64, 256, 4, 32, 64, 2, 8, 16),
+            new StaticListableBeanFactory().getBeanProvider(HedgedReads.class),
+            20, 10, 0.5, 2000, 10000, 3,
+            200, 200, 200, 200,
+            3, 1, 5);
+    private final List<SettableApiFuture<String>> requests = new ArrayList<>();
+
+    @AfterEach
+    void stop() {
+        RequestDeadline.setCurrent(null);
+        calls.stop();
+    }
+
+    @Test
+    void readsAreRetriedOnTransientErrors() {
+        CompletableFuture<String> result = calls.call("get", "news", FirestoreCalls.Type.READ,
+                this::request, "Error getting document", value -> 1);
+        requests.get(0).setException(unavailable());
+
+        waitForAttempts(2);
+        requests.get(1).set("document");
+
+        assertEquals("document", result.join());
+        assertEquals(1.0, registry.get("news.firestore.retries").counter().count());
+    }
+
+    @Test
+    void writesAreNotRetried() {
+        CompletableFuture<String> result = calls.call("save", "news", FirestoreCalls.Type.WRITE,
+                this::request, "Error saving document", null);
+        requests.get(0).setException(unavailable());
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertEquals("Error saving document", e.getCause().getMessage());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void callsMissingTheirDeadlineAreCancelled() {
+        CompletableFuture<String> result = calls.call("query", "news", FirestoreCalls.Type.QUERY,
+                this::request, "Error querying documents", value -> 1);
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(DeadlineExceededException.class, e.getCause());
+        assertThrows(CancellationException.class, () -> requests.get(0).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void callsAreCancelledWithTheirRequest() {
+        RequestDeadline deadline = new RequestDeadline(10_000);
+        RequestDeadline.setCurrent(deadline);
+        CompletableFuture<String> result = calls.call("get", "news", FirestoreCalls.Type.READ,
+                this::request, "Error getting document", value -> 1);
+
+        deadline.cancel();
+
+        assertTrue(result.isCancelled());
+        assertTrue(requests.get(0).isCancelled());
+    }
+
+    @Test
+    void requestsOutOfTimeMakeNoCall() {
+        RequestDeadline.setCurrent(new RequestDeadline(0));
+        CompletableFuture<String> result = calls.call("get", "news", FirestoreCalls.Type.READ,
+                this::request, "Error getting document", value -> 1);
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(DeadlineExceededException.class, e.getCause());
+        assertEquals(0, requests.size());
+    }
+
+    @Test
+    void slowReadsAreHedgedAndTheLoserCancelled() {
+        HedgedReads hedging = new HedgedReads(95, 100, 1, 5, metrics);
+        hedging.record("get", TimeUnit.MILLISECONDS.toNanos(1));
+        FirestoreCalls hedged = new FirestoreCalls(metrics,
+                new Bulkheads(metrics, 1, 2.0, 400, 8, 64, 256, 4, 32, 64, 2, 8, 16),
+                new StaticListableBeanFactory(Map.of("hedgedReads", hedging)).getBeanProvider(HedgedReads.class),
+                20, 10, 0.5, 2000, 10000, 3,
+                2000, 2000, 2000, 2000,
+                3, 1, 5);
+        try {
+            CompletableFuture<String> result = hedged.call("get", "news", FirestoreCalls.Type.READ,
+                    this::request, "Error getting document", value -> 1);
+
+            waitForAttempts(2);
+            requests.get(1).set("document");
+
+            assertEquals("document", result.join());
+            assertThrows(CancellationException.class, () -> requests.get(0).get(1, TimeUnit.SECONDS));
+            assertEquals(1.0, registry.get("news.firestore.hedges").tag("result", "won").counter().count());
+        } finally {
+            hedged.stop();
+        }
+    }
+
+    private synchronized SettableApiFuture<String> request() {
+        SettableApiFuture<String> request = SettableApiFuture.create();
+        requests.add(request);
+        notifyAll();
+        return request;
+    }
+
+    private synchronized void waitForAttempts(int attempts) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (requests.size() < attempts && System.currentTimeMillis() < deadline) {
+            try {
+                wait(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static RuntimeException unavailable() {
+        return ApiExceptionFactory.createException(new RuntimeException("unavailable"),
+                GrpcStatusCode.of(Status.Code.UNAVAILABLE), true);
+    }
+}
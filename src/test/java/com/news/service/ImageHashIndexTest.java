@@ -0,0 +1,33 @@
+package com.news.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImageHashIndexTest {
+
+    private static final String ABC_SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void hashesFileContent() throws Exception {
+        Path file = Files.write(directory.resolve("image"), "abc".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(ABC_SHA256, ImageHashIndex.hash(file));
+    }
+
+    @Test
+    void recognizesOnlyContentAddressedAssets() {
+        assertEquals(ABC_SHA256, ImageHashIndex.hashOf("news/" + ABC_SHA256));
+        assertNull(ImageHashIndex.hashOf("news/sample_image"));
+        assertNull(ImageHashIndex.hashOf(null));
+    }
+}
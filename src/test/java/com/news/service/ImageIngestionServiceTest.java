@@ -0,0 +1,102 @@
+package com.news.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageIngestionServiceTest {
+
+    private NewsRepository repository;
+    private ImageUploader uploader;
+    private ImageSpool imageSpool;
+    private ImageDeletionQueue deletionQueue;
+    private ImageIngestionService ingestion;
+
+    @TempDir
+    Path spoolDirectory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repository = mock(NewsRepository.class);
+        Map<String, Object> document = new HashMap<>();
+        document.put("titleEnglish", "Title");
+        when(repository.get("news", "a1")).thenReturn(document);
+        when(repository.getAsync("news", "a1")).thenReturn(CompletableFuture.completedFuture(document));
+        when(repository.updateAsync(eq("news"), eq("a1"), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        uploader = spy(new StubImageUploader());
+        imageSpool = new ImageSpool(spoolDirectory.toString(), 1024, 60000);
+        deletionQueue = mock(ImageDeletionQueue.class);
+        when(deletionQueue.enqueue(any())).thenReturn(CompletableFuture.completedFuture(null));
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("imageDeletionQueue", deletionQueue));
+        ingestion = new ImageIngestionService(uploader, imageSpool, beans.getBeanProvider(ImageDeletionQueue.class),
+                repository, mock(NewsSearchIndex.class), mock(NewsReplica.class), mock(NewsCacheInvalidator.class),
+                1, 10, 3, 1, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestion.stop();
+    }
+
+    @Test
+    void attachesUploadedImageAndQueuesReplacedOneForDeletion() throws Exception {
+        Path imageFile = imageSpool.spoolBase64("data:image/png;base64,AAAA");
+        ingestion.submit("a1", imageFile, "https://res.cloudinary.com/demo/image/upload/news/old.jpg");
+
+        verify(repository, timeout(2000)).update(eq("news"), eq("a1"),
+                argThat(patch -> patch.get("image").toString().startsWith("https://stub.invalid/")));
+        verify(deletionQueue, timeout(2000)).enqueue("https://res.cloudinary.com/demo/image/upload/news/old.jpg");
+        assertFalse(Files.exists(imageFile));
+    }
+
+    @Test
+    void retriesAttachingWhenTheArticleStillExists() throws Exception {
+        doThrow(new RuntimeException("Error updating document in Firestore"))
+                .doNothing()
+                .when(repository).update(eq("news"), eq("a1"), anyMap());
+
+        ingestion.submit("a1", imageSpool.spoolBase64("data:image/png;base64,AAAA"), null);
+
+        verify(repository, timeout(2000).times(2)).update(eq("news"), eq("a1"),
+                argThat(patch -> patch.get("image").toString().startsWith("https://stub.invalid/")));
+        verify(uploader, times(1)).uploadImage(any(Path.class));
+        verify(deletionQueue, never()).enqueue(any());
+    }
+
+    @Test
+    void retriesWithBackoffThenMarksArticleFailed() throws Exception {
+        doThrow(new IOException("Cloudinary unavailable")).when(uploader).uploadImage(any(Path.class));
+
+        ingestion.submit("a1", imageSpool.spoolBase64("data:image/png;base64,AAAA"), null);
+
+        verify(repository, timeout(2000)).updateAsync(eq("news"), eq("a1"),
+                argThat(patch -> ImageIngestionService.STATUS_FAILED.equals(patch.get("imageStatus"))));
+        verify(uploader, times(3)).uploadImage(any(Path.class));
+        assertEquals(1L, ingestion.getStats().get("failed"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.news.service;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.FieldValue;
+import com.news.model.DateRange;
+import com.news.model.DateSort;
+import com.news.model.NewsArticle;
+import com.news.model.PageCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryNewsRepositoryTest {
+
+    private InMemoryNewsRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryNewsRepository();
+        repository.save("news", "a1", article("politics", 300));
+        repository.save("news", "a2", article("sports", 100));
+        repository.save("news", "a3", article("politics", 200));
+        repository.save("news", "a4", article("politics", 200));
+    }
+
+    @Test
+    void pagesByDocumentIdWithEqualityFilter() {
+        NewsRepository.PaginationResult first = repository.queryPaginated("news", "category", "politics", 0, 2);
+        NewsRepository.CursorPaginationResult next = repository.queryPageAfter("news", "category", "politics", "a3", 2);
+
+        assertEquals(List.of("a1", "a3"), ids(first.getDocuments()));
+        assertEquals(3, first.getTotalElements());
+        assertEquals(2, first.getTotalPages());
+        assertEquals(List.of("a4"), ids(next.getDocuments()));
+        assertFalse(next.hasMore());
+    }
+
+    @Test
+    void pagesByDateWithCursorAndTieBreakOnId() {
+        NewsRepository.CursorPaginationResult first = repository.queryByDate("news", "category", "politics",
+                DateRange.UNBOUNDED, DateSort.DATE_DESC, null, 0, 2);
+        List<NewsArticle> articles = first.getDocuments().stream()
+                .map(doc -> NewsArticle.fromMap(doc.get("id").toString(), doc))
+                .collect(Collectors.toList());
+        PageCursor cursor = PageCursor.decode(PageCursor.afterDate(articles));
+        NewsRepository.CursorPaginationResult next = repository.queryByDate("news", "category", "politics",
+                DateRange.UNBOUNDED, DateSort.DATE_DESC, cursor, 0, 2);
+
+        assertEquals(List.of("a1", "a4"), ids(first.getDocuments()));
+        assertTrue(first.hasMore());
+        assertEquals(3, first.getTotalElements());
+        assertEquals(List.of("a3"), ids(next.getDocuments()));
+    }
+
+    @Test
+    void keepsIndexesCurrentOnUpdateAndDelete() {
+        assertEquals(3, repository.count("news", "category", "politics"));
+
+        repository.update("news", "a1", Map.of("category", "sports", "image", FieldValue.delete()));
+        repository.delete("news", "a3");
+
+        assertEquals(1, repository.count("news", "category", "politics"));
+        assertEquals(List.of("a1", "a2"), ids(repository.query("news", "category", "sports")));
+        assertFalse(repository.get("news", "a1").containsKey("image"));
+        assertInstanceOf(Timestamp.class, repository.get("news", "a1").get(NewsRepository.UPDATED_AT_FIELD));
+        assertThrows(RuntimeException.class, () -> repository.update("news", "missing", Map.of("category", "x")));
+    }
+
+    private static Map<String, Object> article(String category, long publishedSeconds) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("category", category);
+        data.put("image", "https://stub.invalid/news/" + category + ".jpg");
+        data.put(NewsArticle.PUBLISHED_AT_FIELD, Timestamp.ofTimeSecondsAndNanos(publishedSeconds, 0));
+        return data;
+    }
+
+    private static List<String> ids(List<Map<String, Object>> documents) {
+        return documents.stream().map(doc -> doc.get("id").toString()).collect(Collectors.toList());
+    }
+}
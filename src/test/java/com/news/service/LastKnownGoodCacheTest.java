@@ -0,0 +1,58 @@
+package com.news.service;
+
+import com.news.util.NewsMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LastKnownGoodCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LastKnownGoodCache cache = new LastKnownGoodCache(100, 60_000, 50, new NewsMetrics(registry));
+
+    @Test
+    void failedLoadsServeTheLastGoodCopy() {
+        LastKnownGoodCache.Result<String> fresh = cache.get("page|a", () -> CompletableFuture.completedFuture("v1")).join();
+        assertFalse(fresh.isStale());
+
+        LastKnownGoodCache.Result<String> stale = cache.get("page|a", LastKnownGoodCacheTest::failing).join();
+        assertTrue(stale.isStale());
+        assertEquals("v1", stale.getValue());
+        assertEquals(1.0, registry.get("news.stale.served").tag("reason", "error").counter().count());
+
+        assertThrows(CompletionException.class, () -> cache.get("page|b", LastKnownGoodCacheTest::failing).join());
+    }
+
+    @Test
+    void slowLoadsServeTheCopyAndRefreshItWhenDone() {
+        cache.get("page|a", () -> CompletableFuture.completedFuture("v1")).join();
+        CompletableFuture<String> slow = new CompletableFuture<>();
+
+        LastKnownGoodCache.Result<String> stale = cache.get("page|a", () -> slow).join();
+        assertTrue(stale.isStale());
+        assertEquals("v1", stale.getValue());
+
+        slow.complete("v2");
+        assertEquals("v2", cache.get("page|a", LastKnownGoodCacheTest::failing).join().getValue());
+    }
+
+    @Test
+    void notFoundDropsTheCopy() {
+        cache.get("article|a1", () -> CompletableFuture.completedFuture("v1")).join();
+        assertNull(cache.get("article|a1", () -> CompletableFuture.<String>completedFuture(null)).join().getValue());
+
+        assertThrows(CompletionException.class, () -> cache.get("article|a1", LastKnownGoodCacheTest::failing).join());
+    }
+
+    private static CompletableFuture<String> failing() {
+        return CompletableFuture.failedFuture(new RuntimeException("Firestore unavailable"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.news.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.BulkWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NewsImportServiceTest {
+
+    private FirestoreService firestoreService;
+    private BulkWriter writer;
+    private NewsImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        firestoreService = mock(FirestoreService.class);
+        writer = mock(BulkWriter.class);
+        when(firestoreService.bulkWriter()).thenReturn(writer);
+        when(firestoreService.bulkSaveAsync(eq(writer), eq("news"), any(), anyMap()))
+                .thenAnswer(invocation -> {
+                    String id = invocation.getArgument(2);
+                    return CompletableFuture.completedFuture(id != null ? id : "generated");
+                });
+        importService = new NewsImportService(
+                firestoreService, mock(NewsSearchIndex.class), new ObjectMapper(), mock(NewsCacheInvalidator.class), 2, 2);
+    }
+
+    @Test
+    void writesEachRecordAndReportsProgress() throws Exception {
+        List<Map<String, Object>> events = new ArrayList<>();
+
+        Map<String, Object> summary = importService.importNdjson(ndjson(
+                "{\"id\":\"a1\",\"titleEnglish\":\"One\"}",
+                "",
+                "{\"id\":\"a2\",\"titleEnglish\":\"Two\"}",
+                "{\"titleEnglish\":\"Three\"}"), events::add);
+
+        assertEquals(3L, summary.get("processed"));
+        assertEquals(3L, summary.get("succeeded"));
+        assertEquals(0L, summary.get("failed"));
+        assertEquals(1, events.size());
+        assertEquals("progress", events.get(0).get("type"));
+        verify(firestoreService).bulkSaveAsync(eq(writer), eq("news"), eq("a1"), anyMap());
+        verify(firestoreService).bulkSaveAsync(eq(writer), eq("news"), isNull(), anyMap());
+        verify(writer).close();
+    }
+
+    @Test
+    void reportsFailedRecordsWithTheirLineNumbers() throws Exception {
+        when(firestoreService.bulkSaveAsync(eq(writer), eq("news"), eq("bad"), anyMap()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Error saving document to Firestore")));
+        List<Map<String, Object>> events = new ArrayList<>();
+
+        Map<String, Object> summary = importService.importNdjson(ndjson(
+                "{not json",
+                "{\"id\":\"bad\"}",
+                "{\"id\":\"ok\"}"), events::add);
+
+        assertEquals(1L, summary.get("succeeded"));
+        assertEquals(2L, summary.get("failed"));
+        List<Object> failedLines = new ArrayList<>();
+        for (Map<String, Object> event : events) {
+            if ("error".equals(event.get("type"))) {
+                failedLines.add(event.get("line"));
+            }
+        }
+        assertEquals(List.of(1L, 2L), failedLines);
+    }
+
+    @Test
+    void datesUndatedRecordsByTheirImport() throws Exception {
+        importService.importNdjson(ndjson(
+                "{\"id\":\"a1\",\"date\":\"2024-03-01\"}",
+                "{\"id\":\"a2\",\"date\":\"not a date\"}"), event -> { });
+
+        verify(firestoreService).bulkSaveAsync(eq(writer), eq("news"), eq("a1"),
+                argThat(data -> Timestamp.parseTimestamp("2024-03-01T00:00:00Z").equals(data.get("publishedAt"))));
+        verify(firestoreService).bulkSaveAsync(eq(writer), eq("news"), eq("a2"),
+                argThat(data -> data.get("publishedAt") instanceof Timestamp));
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,94 @@
+package com.news.service;
+
+import com.news.model.NewsArticle;
+import com.news.util.NewsMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NewsSearchIndexTest {
+
+    private NewsRepository repository;
+    private NewsSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NewsRepository.class);
+        List<NewsArticle> articles = new ArrayList<>();
+        articles.add(article("a1", "Elections results announced", "نتائج الانتخابات", "politics"));
+        articles.add(article("a2", "Football final tonight", "المباراة النهائية", "sports"));
+        articles.add(article("a3", "New election law", "قانون الانتخابات الجديد", "politics"));
+        when(repository.getAllArticles("news")).thenReturn(articles);
+        index = new NewsSearchIndex(repository, new NewsMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void matchesPartialTermsCaseInsensitively() {
+        NewsSearchIndex.SearchResult result = index.search("all", "ELECTION", 0, 10);
+
+        assertEquals(List.of("a1", "a3"), ids(result));
+        assertEquals(2, result.getTotalElements());
+    }
+
+    @Test
+    void restrictsResultsToCategory() {
+        NewsSearchIndex.SearchResult result = index.search("sports", "final", 0, 10);
+
+        assertEquals(List.of("a2"), ids(result));
+        assertEquals(0, index.search("politics", "final", 0, 10).getTotalElements());
+    }
+
+    @Test
+    void normalizesArabicVariantsAndDiacritics() {
+        // Hamza-on-alef and a kasra in the query still match the plain spelling
+        NewsSearchIndex.SearchResult result = index.search("all", "الإنتِخابات", 0, 10);
+
+        assertEquals(List.of("a1", "a3"), ids(result));
+    }
+
+    @Test
+    void paginatesMatches() {
+        NewsSearchIndex.SearchResult result = index.search("all", "politics", 1, 1);
+
+        assertEquals(List.of("a3"), ids(result));
+        assertEquals(2, result.getTotalPages());
+    }
+
+    @Test
+    void reflectsWritesWithoutReloading() {
+        index.search("all", "x", 0, 10);
+
+        NewsArticle article = new NewsArticle();
+        article.setId("a4");
+        article.setTitleEnglish("Election debate");
+        article.setCategory("politics");
+        index.put(article);
+        index.remove("a1");
+
+        assertEquals(List.of("a3", "a4"), ids(index.search("all", "election", 0, 10)));
+        verify(repository, times(1)).getAllArticles("news");
+    }
+
+    private static NewsArticle article(String id, String titleEnglish, String titleArabic, String category) {
+        NewsArticle article = new NewsArticle();
+        article.setId(id);
+        article.setTitleEnglish(titleEnglish);
+        article.setTitleArabic(titleArabic);
+        article.setCategory(category);
+        return article;
+    }
+
+    private static List<String> ids(NewsSearchIndex.SearchResult result) {
+        return result.getArticles().stream().map(NewsArticle::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,80 @@
+package com.news.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final NewsMetrics metrics = new NewsMetrics(registry);
+
+    @Test
+    void lowerPrioritiesAreShedBeforeTheLimitIsFull() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 10, 10, 10, 2.0, 3, metrics);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(RequestPriority.BACKGROUND);
+        }
+
+        OverloadedException shed = assertThrows(OverloadedException.class,
+                () -> limiter.acquire(RequestPriority.UPLOAD));
+        assertFalse(shed.isFull());
+        assertEquals(3, shed.getRetryAfterSeconds());
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(RequestPriority.ADMIN);
+        }
+        assertThrows(OverloadedException.class, () -> limiter.acquire(RequestPriority.ADMIN));
+        limiter.acquire(RequestPriority.PUBLIC_READ);
+        limiter.acquire(RequestPriority.PUBLIC_READ);
+
+        OverloadedException full = assertThrows(OverloadedException.class,
+                () -> limiter.acquire(RequestPriority.PUBLIC_READ));
+        assertTrue(full.isFull());
+        assertEquals(10, limiter.getInFlight());
+        assertEquals(1.0, registry.get("news.limit.rejected").tag("result", "full").counter().count());
+    }
+
+    @Test
+    void releasedPermitsFreeTheirSlotOnce() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 1, 1, 1, 2.0, 1, metrics);
+        AdaptiveLimiter.Permit permit = limiter.acquire(RequestPriority.PUBLIC_READ);
+        permit.release(false);
+        permit.release(false);
+
+        assertEquals(0, limiter.getInFlight());
+        limiter.acquire(RequestPriority.PUBLIC_READ);
+        assertThrows(OverloadedException.class, () -> limiter.acquire(RequestPriority.PUBLIC_READ));
+    }
+
+    @Test
+    void limitShrinksOnFailuresAndSlowCalls() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 20, 1, 20, 2.0, 1, metrics);
+        limiter.acquire(RequestPriority.PUBLIC_READ).release(true);
+        assertEquals(18, limiter.getLimit());
+
+        limiter.acquire(RequestPriority.PUBLIC_READ).release(false);
+        AdaptiveLimiter.Permit slow = limiter.acquire(RequestPriority.PUBLIC_READ);
+        Thread.sleep(20);
+        slow.release(false);
+        assertEquals(16, limiter.getLimit());
+    }
+
+    @Test
+    void limitGrowsWhileInUse() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 2, 1, 8, Double.MAX_VALUE, 1, metrics);
+        for (int i = 0; i < 10; i++) {
+            AdaptiveLimiter.Permit first = limiter.acquire(RequestPriority.PUBLIC_READ);
+            AdaptiveLimiter.Permit second = limiter.acquire(RequestPriority.PUBLIC_READ);
+            first.release(false);
+            second.release(false);
+        }
+
+        assertTrue(limiter.getLimit() > 2);
+        assertEquals(limiter.getLimit(), registry.get("news.limit.limit").tag("limit", "test").gauge().value());
+    }
+}
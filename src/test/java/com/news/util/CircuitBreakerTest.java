@@ -0,0 +1,62 @@
+package com.news.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void opensWhenEnoughRecentCallsFailOrAreSlow() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 0.5, 100, 60_000, 1, new NewsMetrics(registry));
+        call(breaker, false, FAST);
+        call(breaker, false, FAST);
+        call(breaker, true, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        call(breaker, false, TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        CircuitOpenException e = assertThrows(CircuitOpenException.class, breaker::acquire);
+        assertTrue(e.isFull());
+        assertTrue(e.getRetryAfterSeconds() >= 59);
+        assertEquals(1.0, registry.get("news.circuit.rejected").counter().count());
+    }
+
+    @Test
+    void trialCallsCloseOrReopenTheBreaker() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 2, 0.5, 100, 10, 2, new NewsMetrics(registry));
+        call(breaker, true, FAST);
+        call(breaker, true, FAST);
+        Thread.sleep(20);
+
+        breaker.acquire();
+        breaker.acquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertThrows(CircuitOpenException.class, breaker::acquire);
+        breaker.record(false, FAST);
+        breaker.record(true, FAST);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(20);
+        call(breaker, false, FAST);
+        breaker.acquire();
+        breaker.cancel();
+        call(breaker, false, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private static void call(CircuitBreaker breaker, boolean failed, long latencyNanos) {
+        breaker.acquire();
+        breaker.record(failed, latencyNanos);
+    }
+}
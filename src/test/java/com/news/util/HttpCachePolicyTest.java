@@ -0,0 +1,69 @@
+package com.news.util;
+
+import com.news.model.NewsArticle;
+import com.news.model.PaginatedResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpCachePolicyTest {
+
+    private final HttpCachePolicy policy = new HttpCachePolicy(60, -1, 300, 0, "Surrogate-Key");
+
+    @Test
+    void returnsArticleWithValidatorsAndCachingHeaders() {
+        NewsArticle article = article("a1", "Title");
+
+        ResponseEntity<NewsArticle> response = policy.article(article, Instant.parse("2026-01-02T03:04:05.678Z"), null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(HttpCachePolicy.etag(article), response.getHeaders().getETag());
+        assertEquals(Instant.parse("2026-01-02T03:04:05Z").toEpochMilli(), response.getHeaders().getLastModified());
+        assertEquals("max-age=60, public, stale-while-revalidate=300", response.getHeaders().getCacheControl());
+        assertEquals("news news-a1", response.getHeaders().getFirst("Surrogate-Key"));
+    }
+
+    @Test
+    void answersMatchingValidatorsWithNotModified() {
+        NewsArticle article = article("a1", "Title");
+        String etag = HttpCachePolicy.etag(article);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, policy.article(article, null, "W/" + etag, null).getStatusCode());
+        assertNull(policy.article(article, null, "\"other\", " + etag, null).getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED, policy.article(article, Instant.parse("2026-01-02T03:04:05.678Z"),
+                null, "Fri, 02 Jan 2026 03:04:05 GMT").getStatusCode());
+        assertEquals(HttpStatus.OK, policy.article(article, Instant.parse("2026-01-02T03:04:06Z"),
+                null, "Fri, 02 Jan 2026 03:04:05 GMT").getStatusCode());
+    }
+
+    @Test
+    void pageEtagChangesWithContentAndTagsEveryArticle() {
+        PaginatedResponse<NewsArticle> page = new PaginatedResponse<>(
+                List.of(article("a1", "One"), article("a2", "Two")), 0, 2, 2, 1, false, false);
+        PaginatedResponse<NewsArticle> edited = new PaginatedResponse<>(
+                List.of(article("a1", "One"), article("a2", "Two, edited")), 0, 2, 2, 1, false, false);
+
+        ResponseEntity<PaginatedResponse<NewsArticle>> response = policy.page(page, "Sports News", null);
+
+        assertNotEquals(HttpCachePolicy.etag(page), HttpCachePolicy.etag(edited));
+        assertEquals("news news-category-sports_news news-a1 news-a2", response.getHeaders().getFirst("Surrogate-Key"));
+        assertTrue(response.getHeaders().containsKey(HttpHeaders.ETAG));
+        assertEquals(HttpStatus.NOT_MODIFIED, policy.page(page, null, HttpCachePolicy.etag(page)).getStatusCode());
+    }
+
+    private static NewsArticle article(String id, String title) {
+        NewsArticle article = new NewsArticle();
+        article.setId(id);
+        article.setTitleEnglish(title);
+        return article;
+    }
+}
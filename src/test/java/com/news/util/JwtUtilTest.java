@@ -0,0 +1,39 @@
+package com.news.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtUtilTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final JwtUtil jwtUtil = new JwtUtil(100, new NewsMetrics(registry));
+
+    @Test
+    void verifiesTokenOnceAndServesClaimsFromCache() {
+        String token = jwtUtil.generateToken("admin");
+
+        Claims first = jwtUtil.verify(token);
+        Claims second = jwtUtil.verify(token);
+
+        assertEquals("admin", first.getSubject());
+        assertSame(first, second);
+        assertEquals("admin", jwtUtil.extractUsername(token));
+        assertEquals(1, registry.timer("news.jwt.verify", "result", "verified").count());
+        assertEquals(2, registry.timer("news.jwt.verify", "result", "cached").count());
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        String token = jwtUtil.generateToken("admin");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+        assertEquals(1, registry.timer("news.jwt.verify", "result", "rejected").count());
+    }
+}
@@ -0,0 +1,57 @@
+package com.news.util;
+
+import com.news.model.DateRange;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublishDatesTest {
+
+    @Test
+    void parsesDatesAndDateTimes() {
+        assertEquals(Instant.parse("2024-03-01T00:00:00Z"), PublishDates.parse("2024-03-01"));
+        assertEquals(Instant.parse("2024-03-01T00:00:00Z"), PublishDates.parse(" 2024/03/01 "));
+        assertEquals(Instant.parse("2024-03-01T00:00:00Z"), PublishDates.parse("1/3/2024"));
+        assertEquals(Instant.parse("2024-03-01T08:30:00Z"), PublishDates.parse("2024-03-01T08:30:00"));
+        assertEquals(Instant.parse("2024-03-01T06:30:00Z"), PublishDates.parse("2024-03-01T08:30:00+02:00"));
+        assertEquals(Instant.parse("2024-03-01T08:30:00.250Z"), PublishDates.parse("2024-03-01T08:30:00.250Z"));
+        assertEquals(Instant.parse("2024-03-01T00:00:00Z"), PublishDates.parse("01-03-2024"));
+        assertEquals(Instant.parse("2024-03-01T10:30:00Z"), PublishDates.parse("2024-03-01T08:30:00-02:00"));
+    }
+
+    @Test
+    void returnsNullForBlankOrFreeFormText() {
+        assertNull(PublishDates.parse(null));
+        assertNull(PublishDates.parse(" "));
+        assertNull(PublishDates.parse("last Tuesday"));
+    }
+
+    @Test
+    void plainEndDateCoversTheWholeDay() {
+        assertEquals(Instant.parse("2024-03-02T00:00:00Z"), PublishDates.parseEnd("2024-03-01"));
+        assertEquals(Instant.parse("2024-03-01T12:00:00Z"), PublishDates.parseEnd("2024-03-01T12:00:00Z"));
+    }
+
+    @Test
+    void rangeIncludesFromAndExcludesTo() {
+        DateRange range = DateRange.parse("2024-03-01", "2024-03-31");
+
+        assertTrue(range.contains(Instant.parse("2024-03-01T00:00:00Z")));
+        assertTrue(range.contains(Instant.parse("2024-03-31T23:59:59Z")));
+        assertFalse(range.contains(Instant.parse("2024-04-01T00:00:00Z")));
+        assertFalse(range.contains(null));
+        assertTrue(DateRange.parse(null, "").isUnbounded());
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        assertThrows(IllegalArgumentException.class, () -> DateRange.parse("yesterday", null));
+        assertThrows(IllegalArgumentException.class, () -> DateRange.parse("2024-04-01", "2024-03-01"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.news.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RequestContextTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void stop() {
+        RequestDeadline.setCurrent(null);
+        RequestPriority.setCurrent(null);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void callbacksRunWithTheRequestsDeadlineAndPriority() {
+        RequestDeadline deadline = new RequestDeadline(10_000);
+        RequestDeadline.setCurrent(deadline);
+        RequestPriority.setCurrent(RequestPriority.ADMIN);
+        RequestContext context = RequestContext.capture();
+
+        CompletableFuture<Object[]> seen = CompletableFuture.supplyAsync(() -> "read", executor)
+                .thenCompose(context.wrap(value -> CompletableFuture.completedFuture(
+                        new Object[] {RequestDeadline.current(), RequestPriority.current()})));
+
+        Object[] values = seen.join();
+        assertSame(deadline, values[0]);
+        assertEquals(RequestPriority.ADMIN, values[1]);
+        // The callback thread is left as it was
+        CompletableFuture<Object[]> after = CompletableFuture.supplyAsync(
+                () -> new Object[] {RequestDeadline.current(), RequestPriority.current()}, executor);
+        assertNull(after.join()[0]);
+        assertEquals(RequestPriority.BACKGROUND, after.join()[1]);
+    }
+}
@@ -0,0 +1,113 @@
+package com.news.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SingleFlight reads = new SingleFlight(new NewsMetrics(registry), true);
+    private final AtomicInteger loads = new AtomicInteger();
+    private CompletableFuture<String> pending = new CompletableFuture<>();
+
+    @Test
+    void concurrentCallersShareOneLoad() {
+        CompletableFuture<String> first = reads.load("get", "news|get|a1", this::load);
+        CompletableFuture<String> second = reads.load("get", "news|get|a1", this::load);
+        CompletableFuture<String> other = reads.load("get", "news|get|a2", this::load);
+
+        pending.complete("value");
+
+        assertEquals("value", first.join());
+        assertEquals("value", second.join());
+        assertEquals("value", other.join());
+        assertEquals(2, loads.get());
+        assertEquals(1.0, registry.get("news.firestore.single-flight").tag("result", "coalesced").counter().count());
+        assertEquals(0, reads.size());
+    }
+
+    @Test
+    void completedLoadsAreNotReused() {
+        pending.complete("value");
+        reads.load("get", "news|get|a1", this::load).join();
+        reads.load("get", "news|get|a1", this::load).join();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void callersArrivingAfterForgetStartANewLoad() {
+        CompletableFuture<String> beforeWrite = reads.load("count", "news|count|news", this::load);
+        CompletableFuture<String> firstLoad = pending;
+        pending = new CompletableFuture<>();
+        reads.forget("news");
+        CompletableFuture<String> afterWrite = reads.load("count", "news|count|news", this::load);
+
+        firstLoad.complete("old");
+        pending.complete("new");
+
+        assertEquals("old", beforeWrite.join());
+        assertEquals("new", afterWrite.join());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void sharesFailuresAndCancellationStaysPerCaller() {
+        CompletableFuture<String> cancelled = reads.load("get", "news|get|a1", this::load);
+        CompletableFuture<String> waiting = reads.load("get", "news|get|a1", this::load);
+
+        cancelled.cancel(true);
+        assertFalse(pending.isCancelled());
+        pending.completeExceptionally(new RuntimeException("unavailable"));
+
+        assertThrows(Exception.class, waiting::join);
+        assertTrue(waiting.isCompletedExceptionally());
+        assertEquals(0, reads.size());
+    }
+
+    @Test
+    void sharedLoadIsNotBoundByTheLeadersDeadline() {
+        RequestDeadline shortDeadline = new RequestDeadline(1);
+        RequestDeadline longDeadline = new RequestDeadline(60_000);
+        List<RequestDeadline> loadDeadlines = new ArrayList<>();
+        Supplier<CompletableFuture<String>> loader = () -> {
+            loadDeadlines.add(RequestDeadline.current());
+            return load();
+        };
+
+        CompletableFuture<String> leader;
+        CompletableFuture<String> joiner;
+        try {
+            RequestDeadline.setCurrent(shortDeadline);
+            leader = reads.load("get", "news|get|a1", loader);
+            RequestDeadline.setCurrent(longDeadline);
+            joiner = reads.load("get", "news|get|a1", loader);
+        } finally {
+            RequestDeadline.setCurrent(null);
+        }
+        shortDeadline.cancel();
+        pending.complete("value");
+
+        assertEquals(1, loadDeadlines.size());
+        assertNull(loadDeadlines.get(0));
+        assertTrue(leader.isCancelled());
+        assertEquals("value", joiner.join());
+    }
+
+    private CompletableFuture<String> load() {
+        loads.incrementAndGet();
+        return pending;
+    }
+}